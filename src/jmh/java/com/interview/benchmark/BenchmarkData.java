@@ -0,0 +1,68 @@
+package com.interview.benchmark;
+
+import com.interview.model.User;
+import com.interview.repository.InMemoryUserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Dataset helpers shared by the benchmarks.
+ */
+final class BenchmarkData {
+
+    /** Number of pre-computed lookup keys; a power of two so threads can cycle with a mask. */
+    static final int SAMPLE_SIZE = 4096;
+    static final int SAMPLE_MASK = SAMPLE_SIZE - 1;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Build a repository holding {@code size} users with ids {@code 1..size}.
+     */
+    static InMemoryUserRepository populate(int size) {
+        return populate(size, 1);
+    }
+
+    static InMemoryUserRepository populate(int size, int shards) {
+        LocalDateTime now = LocalDateTime.now();
+        List<User> users = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            User user = newUser(i);
+            user.setId((long) i);
+            user.setCreatedAt(now);
+            user.setUpdatedAt(now);
+            users.add(user);
+        }
+        InMemoryUserRepository repository = new InMemoryUserRepository(shards);
+        repository.restoreAll(users, size);
+        return repository;
+    }
+
+    static User newUser(long index) {
+        return new User("Bench User " + index, username(index), email(index), "555-0100", "bench.example.com");
+    }
+
+    static String username(long index) {
+        return "bench-user-" + index;
+    }
+
+    static String email(long index) {
+        return "bench-user-" + index + "@example.com";
+    }
+
+    /**
+     * Random existing ids in {@code 1..size}, fixed by seed so runs are comparable.
+     */
+    static long[] sampleIds(int size) {
+        SplittableRandom random = new SplittableRandom(42);
+        long[] ids = new long[SAMPLE_SIZE];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = random.nextLong(size) + 1;
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,47 @@
+package com.interview.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Runs the benchmarks once per configured thread count and writes one JSON result file
+ * per run, so results from two releases can be diffed file by file.
+ * <p>
+ * System properties: {@code jmh.threads} (comma-separated, default {@code 1}),
+ * {@code jmh.include} (benchmark regex), {@code jmh.resultDir} and {@code jmh.args}
+ * (any other JMH command line options).
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String[] jmhArgs = Arrays.stream(System.getProperty("jmh.args", "").trim().split("\\s+"))
+                .filter(arg -> !arg.isEmpty())
+                .toArray(String[]::new);
+        CommandLineOptions commandLine = new CommandLineOptions(jmhArgs);
+        Path resultDir = Path.of(System.getProperty("jmh.resultDir", "target/jmh"));
+        Files.createDirectories(resultDir);
+
+        for (String threads : System.getProperty("jmh.threads", "1").split(",")) {
+            int threadCount = Integer.parseInt(threads.trim());
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .parent(commandLine)
+                    .threads(threadCount)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(resultDir.resolve("results-t" + threadCount + ".json").toString());
+            if (commandLine.getIncludes().isEmpty()) {
+                options.include(System.getProperty("jmh.include", ".*"));
+            }
+            new Runner(options.build()).run();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.interview.benchmark;
+
+import com.interview.metrics.OperationTimingPostProcessor;
+import com.interview.model.User;
+import com.interview.repository.InMemoryUserRepository;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the repository timers: the same calls on the plain repository and through the timing
+ * proxy bound to a Prometheus registry with percentile histograms, as configured in
+ * application.properties.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dnet.bytebuddy.experimental=true")
+@State(Scope.Benchmark)
+public class MetricsOverheadBenchmark {
+
+    private static final int DATASET_SIZE = 100_000;
+
+    @Param({"false", "true"})
+    public boolean metrics;
+
+    private InMemoryUserRepository repository;
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repository = BenchmarkData.populate(DATASET_SIZE);
+        ids = BenchmarkData.sampleIds(DATASET_SIZE);
+        if (metrics) {
+            PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+            registry.config().meterFilter(new MeterFilter() {
+                @Override
+                public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                    return DistributionStatisticConfig.builder()
+                            .percentilesHistogram(true)
+                            .minimumExpectedValue((double) Duration.ofNanos(1_000).toNanos())
+                            .maximumExpectedValue((double) Duration.ofSeconds(1).toNanos())
+                            .build()
+                            .merge(config);
+                }
+            });
+            OperationTimingPostProcessor timing = new OperationTimingPostProcessor();
+            repository = (InMemoryUserRepository) timing.postProcessAfterInitialization(repository, "userRepository");
+            timing.bindTo(registry);
+        }
+    }
+
+    @Benchmark
+    public Optional<User> findById(ThreadCursor cursor) {
+        return repository.findById(ids[cursor.next()]);
+    }
+
+    @Benchmark
+    public Optional<User> findByUsername(ThreadCursor cursor) {
+        return repository.findByUsername(BenchmarkData.username(ids[cursor.next()]));
+    }
+}
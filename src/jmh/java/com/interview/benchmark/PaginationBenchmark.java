@@ -0,0 +1,59 @@
+package com.interview.benchmark;
+
+import com.interview.util.PaginationUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request arithmetic and cursor encoding in {@link PaginationUtil}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PaginationBenchmark {
+
+    // Non-final so the JIT cannot constant-fold the inputs
+    private long totalElements = 9_876_543L;
+    private int page = 4_321;
+    private int size = 20;
+    private long lastId = 123_456_789L;
+    private String cursor;
+
+    @Setup
+    public void setUp() {
+        cursor = PaginationUtil.encodeCursor(lastId);
+    }
+
+    @Benchmark
+    public int calculateTotalPages() {
+        return PaginationUtil.calculateTotalPages(totalElements, size);
+    }
+
+    @Benchmark
+    public long calculateStartIndex() {
+        return PaginationUtil.calculateStartIndex(page, size);
+    }
+
+    @Benchmark
+    public String encodeCursor() {
+        return PaginationUtil.encodeCursor(lastId);
+    }
+
+    @Benchmark
+    public Long decodeCursor() {
+        return PaginationUtil.decodeCursor(cursor);
+    }
+}
@@ -0,0 +1,20 @@
+package com.interview.benchmark;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Per-thread position into the shared key samples, started at a random offset so
+ * threads do not walk the same keys in lockstep.
+ */
+@State(Scope.Thread)
+public class ThreadCursor {
+
+    private int position = ThreadLocalRandom.current().nextInt();
+
+    public int next() {
+        return position++ & BenchmarkData.SAMPLE_MASK;
+    }
+}
@@ -0,0 +1,142 @@
+package com.interview.benchmark;
+
+import com.interview.Application;
+import com.interview.model.User;
+import com.interview.repository.UserQuery;
+import com.interview.repository.UserRepository;
+import com.interview.repository.UserSortField;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The same repository calls against each storage backend. Both run inside a Spring context
+ * built as the application builds it; {@code jpa} uses the in-memory H2 database, so the numbers
+ * show the cost of the JPA and JDBC layers rather than of disk or network.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-Dnet.bytebuddy.experimental=true"})
+@State(Scope.Benchmark)
+public class UserBackendBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int INSERT_BATCH_SIZE = 1_000;
+    private static final UserQuery BY_CREATED_AT = new UserQuery(UserSortField.CREATED_AT, false, null, null, null);
+
+    @Param({"memory", "jpa"})
+    public String backend;
+
+    @Param({"1000", "100000"})
+    public int datasetSize;
+
+    private ConfigurableApplicationContext context;
+    private UserRepository repository;
+    private long[] samples;
+    private long[] ids;
+    private final AtomicLong insertedBatches = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                // Arguments rather than default properties, which application.properties would override
+                .run("--users.storage.backend=" + backend,
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.interview=WARN");
+        repository = context.getBean(UserRepository.class);
+        LocalDateTime now = LocalDateTime.now();
+        for (int from = 1; from <= datasetSize; from += INSERT_BATCH_SIZE) {
+            List<User> users = new ArrayList<>(INSERT_BATCH_SIZE);
+            for (long i = from; i < from + INSERT_BATCH_SIZE && i <= datasetSize; i++) {
+                users.add(BenchmarkData.newUser(i));
+            }
+            repository.insertAll(users, now, (user, ex) -> {
+                throw ex;
+            });
+        }
+        // Backends number users differently, so resolve the sampled users' ids up front
+        samples = BenchmarkData.sampleIds(datasetSize);
+        ids = new long[samples.length];
+        for (int i = 0; i < samples.length; i++) {
+            ids[i] = repository.findByUsername(BenchmarkData.username(samples[i])).orElseThrow().getId();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<User> findById(ThreadCursor cursor) {
+        return repository.findById(ids[cursor.next()]);
+    }
+
+    @Benchmark
+    public Optional<User> findByEmail(ThreadCursor cursor) {
+        return repository.findByEmail(BenchmarkData.email(samples[cursor.next()]));
+    }
+
+    @Benchmark
+    public List<User> findAfter(ThreadCursor cursor) {
+        return repository.findAfter(ids[cursor.next()], PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<User> findAfterByCreatedAt(ThreadCursor cursor) {
+        long id = ids[cursor.next()];
+        User user = repository.findById(id).orElseThrow();
+        return repository.findAfter(BY_CREATED_AT, user.getCreatedAt(), id, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public User update(ThreadCursor cursor) {
+        User update = repository.findById(ids[cursor.next()]).orElseThrow().copy();
+        update.setPhone("555-0199");
+        return repository.save(update);
+    }
+
+    /**
+     * One bulk insert of {@value #INSERT_BATCH_SIZE} new users; the dataset grows as it runs.
+     */
+    @Benchmark
+    @OperationsPerInvocation(INSERT_BATCH_SIZE)
+    public List<User> insertBatch() {
+        long batch = insertedBatches.incrementAndGet();
+        List<User> users = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (int i = 0; i < INSERT_BATCH_SIZE; i++) {
+            String key = "insert-" + batch + "-" + i;
+            users.add(new User("Inserted User", key, key + "@example.com", null, null));
+        }
+        repository.insertAll(users, LocalDateTime.now(), (user, ex) -> {
+            throw ex;
+        });
+        return users;
+    }
+}
@@ -0,0 +1,103 @@
+package com.interview.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.interview.dto.ApiResponse;
+import com.interview.dto.PagedResponse;
+import com.interview.dto.PaginationMeta;
+import com.interview.dto.UserRequest;
+import com.interview.dto.UserResponse;
+import com.interview.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding one {@code GET /users} page and one {@code POST /users} body as JSON,
+ * CBOR and Smile, with the same mapper settings as the message converters. Payload sizes are
+ * printed with each trial's output.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class UserEncodingBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"100"})
+    public int pageSize;
+
+    private ApiResponse<PagedResponse<UserResponse>> page;
+    private UserRequest request;
+    private ObjectWriter pageWriter;
+    private ObjectReader pageReader;
+    private ObjectWriter requestWriter;
+    private ObjectReader requestReader;
+    private byte[] encodedPage;
+    private byte[] encodedRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        ObjectMapper mapper = switch (format) {
+            case "json" -> Jackson2ObjectMapperBuilder.json().build();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+        List<UserResponse> users = BenchmarkData.populate(pageSize).findPage(0, pageSize).stream()
+                .map(UserResponse::new)
+                .toList();
+        page = ApiResponse.success(new PagedResponse<>(users, new PaginationMeta(0, pageSize, pageSize, 1)));
+        User sample = BenchmarkData.newUser(1);
+        request = new UserRequest(sample.getName(), sample.getUsername(), sample.getEmail(),
+                sample.getPhone(), sample.getWebsite());
+
+        TypeReference<ApiResponse<PagedResponse<UserResponse>>> pageType = new TypeReference<>() {};
+        pageWriter = mapper.writerFor(pageType);
+        pageReader = mapper.readerFor(pageType);
+        requestWriter = mapper.writerFor(UserRequest.class);
+        requestReader = mapper.readerFor(UserRequest.class);
+        encodedPage = pageWriter.writeValueAsBytes(page);
+        encodedRequest = requestWriter.writeValueAsBytes(request);
+        System.out.printf("%n%s: page %d bytes, request %d bytes%n", format, encodedPage.length, encodedRequest.length);
+    }
+
+    @Benchmark
+    public byte[] encodePage() throws Exception {
+        return pageWriter.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public Object decodePage() throws Exception {
+        return pageReader.readValue(encodedPage);
+    }
+
+    @Benchmark
+    public byte[] encodeRequest() throws Exception {
+        return requestWriter.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public Object decodeRequest() throws Exception {
+        return requestReader.readValue(encodedRequest);
+    }
+}
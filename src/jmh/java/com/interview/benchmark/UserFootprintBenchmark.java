@@ -0,0 +1,79 @@
+package com.interview.benchmark;
+
+import com.interview.repository.InMemoryUserRepository;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retained heap per user of the in-memory repository, including the secondary indexes.
+ * Each shot builds a repository and reports the live heap it adds, measured after full GCs,
+ * as the {@code bytesPerUser} counter. The benchmark users share their phone, website and
+ * timestamp instances, so real data costs more per user.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class UserFootprintBenchmark {
+
+    @Param({"1000", "100000"})
+    public int datasetSize;
+
+    private InMemoryUserRepository repository;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Footprint {
+        public double bytesPerUser;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytesPerUser = 0;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void release() {
+        repository = null;
+    }
+
+    @Benchmark
+    public InMemoryUserRepository populate(Footprint footprint) {
+        long before = liveHeap();
+        repository = BenchmarkData.populate(datasetSize);
+        footprint.bytesPerUser = (double) (liveHeap() - before) / datasetSize;
+        return repository;
+    }
+
+    private static long liveHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long used = Long.MAX_VALUE;
+        // Repeat until collection stops freeing memory, so only reachable objects are counted
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            long current = memory.getHeapMemoryUsage().getUsed();
+            if (current >= used) {
+                return current;
+            }
+            used = current;
+        }
+        return used;
+    }
+}
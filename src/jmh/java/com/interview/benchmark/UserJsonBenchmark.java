@@ -0,0 +1,69 @@
+package com.interview.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.interview.dto.ApiResponse;
+import com.interview.dto.UserResponse;
+import com.interview.repository.UserRepository;
+import com.interview.service.UserJsonCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.unit.DataSize;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Body of {@code GET /users/{id}}: serializing a fresh response on every read against serving
+ * the cached bytes. Run with {@code -prof gc} to compare allocation per read.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class UserJsonBenchmark {
+
+    @Param({"1000", "100000"})
+    public int datasetSize;
+
+    private UserRepository repository;
+    private ObjectWriter writer;
+    private UserJsonCache cache;
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        repository = BenchmarkData.populate(datasetSize);
+        writer = objectMapper.writerFor(new TypeReference<ApiResponse<UserResponse>>() {});
+        cache = new UserJsonCache(repository, objectMapper, DataSize.ofMegabytes(256));
+        for (long id = 1; id <= datasetSize; id++) {
+            cache.get(id);
+        }
+        ids = BenchmarkData.sampleIds(datasetSize);
+    }
+
+    @Benchmark
+    public byte[] serializeOnEveryRead(ThreadCursor cursor) throws Exception {
+        UserResponse user = new UserResponse(repository.findById(ids[cursor.next()]).orElseThrow());
+        return writer.writeValueAsBytes(ApiResponse.success(user));
+    }
+
+    @Benchmark
+    public byte[] cachedBody(ThreadCursor cursor) {
+        return cache.get(ids[cursor.next()]).json();
+    }
+}
@@ -0,0 +1,72 @@
+package com.interview.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interview.dto.ApiResponse;
+import com.interview.dto.PagedResponse;
+import com.interview.dto.PaginationMeta;
+import com.interview.dto.UserProjection;
+import com.interview.dto.UserResponse;
+import com.interview.model.User;
+import com.interview.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Body of one {@code GET /users} page: every field through {@link UserResponse} against
+ * {@code ?fields=id,username} written by a {@link UserProjection}. Run with {@code -prof gc}
+ * to compare allocation per page.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class UserProjectionBenchmark {
+
+    @Param({"100"})
+    public int pageSize;
+
+    private ObjectMapper objectMapper;
+    private List<User> page;
+    private UserProjection idAndUsername;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        UserRepository repository = BenchmarkData.populate(pageSize);
+        page = repository.findPage(0, pageSize);
+        idAndUsername = UserProjection.parse("id,username");
+    }
+
+    @Benchmark
+    public byte[] allFields() throws Exception {
+        return serialize(UserResponse::new);
+    }
+
+    @Benchmark
+    public byte[] idAndUsername() throws Exception {
+        return serialize(idAndUsername::view);
+    }
+
+    private <T> byte[] serialize(Function<User, T> view) throws Exception {
+        List<T> content = page.stream().map(view).toList();
+        PagedResponse<T> response = new PagedResponse<>(content, new PaginationMeta(0, pageSize, pageSize, 1));
+        return objectMapper.writeValueAsBytes(ApiResponse.success(response));
+    }
+}
@@ -0,0 +1,116 @@
+package com.interview.benchmark;
+
+import com.interview.model.User;
+import com.interview.repository.UserQuery;
+import com.interview.repository.UserRepository;
+import com.interview.repository.UserSortField;
+import com.interview.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot paths of {@link UserRepository}: indexed lookups, paging and in-place updates.
+ * {@code findAll} copies the whole table and is expected to scale with the dataset.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-Dnet.bytebuddy.experimental=true"})
+@State(Scope.Benchmark)
+public class UserRepositoryBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final UserQuery BY_NAME = new UserQuery(UserSortField.NAME, false, null, null, null);
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int datasetSize;
+
+    private UserRepository repository;
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repository = BenchmarkData.populate(datasetSize);
+        ids = BenchmarkData.sampleIds(datasetSize);
+    }
+
+    @Benchmark
+    public Optional<User> findById(ThreadCursor cursor) {
+        return repository.findById(ids[cursor.next()]);
+    }
+
+    @Benchmark
+    public Optional<User> findByUsername(ThreadCursor cursor) {
+        return repository.findByUsername(BenchmarkData.username(ids[cursor.next()]));
+    }
+
+    @Benchmark
+    public Optional<User> findByEmail(ThreadCursor cursor) {
+        return repository.findByEmail(BenchmarkData.email(ids[cursor.next()]));
+    }
+
+    @Benchmark
+    public List<User> findAll() {
+        return repository.findAll();
+    }
+
+    @Benchmark
+    public List<User> findPage(ThreadCursor cursor) {
+        return repository.findPage(ids[cursor.next()] - 1, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<User> findAfter(ThreadCursor cursor) {
+        return repository.findAfter(ids[cursor.next()], PAGE_SIZE);
+    }
+
+    /**
+     * Keyset page in name order, seeking from a random user's position.
+     */
+    @Benchmark
+    public List<User> findAfterByName(ThreadCursor cursor) {
+        long id = ids[cursor.next()];
+        Comparable<?> name = UserSortField.NAME.valueOf(repository.findById(id).orElseThrow());
+        return repository.findAfter(BY_NAME, name, id, PAGE_SIZE);
+    }
+
+    /**
+     * Typeahead after a few keystrokes: one broad word plus a short, more selective one.
+     */
+    @Benchmark
+    public List<User> searchWords(ThreadCursor cursor) {
+        String id = Long.toString(ids[cursor.next()]);
+        return repository.search("bench " + id.substring(0, Math.min(3, id.length())), UserService.MAX_SEARCH_RESULTS);
+    }
+
+    /**
+     * First keystroke: nearly every user matches, so the walk stops at the result cap.
+     */
+    @Benchmark
+    public List<User> searchBroadPrefix() {
+        return repository.search("b", UserService.MAX_SEARCH_RESULTS);
+    }
+
+    @Benchmark
+    public User save(ThreadCursor cursor) {
+        long id = ids[cursor.next()];
+        User update = BenchmarkData.newUser(id);
+        update.setId(id);
+        return repository.save(update);
+    }
+}
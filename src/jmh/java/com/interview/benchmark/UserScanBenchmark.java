@@ -0,0 +1,64 @@
+package com.interview.benchmark;
+
+import com.interview.model.User;
+import com.interview.repository.InMemoryUserRepository;
+import com.interview.repository.UserQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole-table reads of the in-memory repository with one or several shards. Copies and filtered
+ * counts run per shard on the common fork/join pool; streams merge the shards in id order.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class UserScanBenchmark {
+
+    // Every benchmark user has an example.com email, so this filter walks all of them
+    private static final UserQuery BY_DOMAIN = UserQuery.of(null, "example.com", null, null);
+
+    @Param({"1000", "100000", "1000000"})
+    public int datasetSize;
+
+    @Param({"1", "4", "16"})
+    public int shards;
+
+    private InMemoryUserRepository repository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repository = BenchmarkData.populate(datasetSize, shards);
+    }
+
+    @Benchmark
+    public List<User> findAll() {
+        return repository.findAll();
+    }
+
+    @Benchmark
+    public long countByDomain() {
+        return repository.count(BY_DOMAIN);
+    }
+
+    @Benchmark
+    public long streamAll() {
+        return repository.streamAll().count();
+    }
+}
@@ -0,0 +1,102 @@
+package com.interview.benchmark;
+
+import com.interview.dto.PagedResponse;
+import com.interview.dto.UserRequest;
+import com.interview.dto.UserResponse;
+import com.interview.service.UserPageCache;
+import com.interview.service.UserService;
+import com.interview.util.PaginationUtil;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service-level costs on top of the repository: availability checks, DTO mapping and
+ * page metadata. {@code createUser} grows the dataset for the duration of the trial.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-Dnet.bytebuddy.experimental=true"})
+@State(Scope.Benchmark)
+public class UserServiceBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int datasetSize;
+
+    private ValidatorFactory validatorFactory;
+    private UserService userService;
+    private long[] ids;
+    private int lastPage;
+    private AtomicLong nextNewUser;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        userService = new UserService(BenchmarkData.populate(datasetSize), validatorFactory.getValidator(),
+                new UserPageCache(256));
+        ids = BenchmarkData.sampleIds(datasetSize);
+        lastPage = (datasetSize - 1) / PAGE_SIZE;
+        nextNewUser = new AtomicLong(datasetSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public PagedResponse<UserResponse> getAllUsersFirstPage() {
+        return userService.getAllUsers(0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public PagedResponse<UserResponse> getAllUsersLastPage() {
+        return userService.getAllUsers(lastPage, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public PagedResponse<UserResponse> getUsersAfter(ThreadCursor cursor) {
+        return userService.getUsersAfter(PaginationUtil.encodeCursor(ids[cursor.next()]), PAGE_SIZE);
+    }
+
+    @Benchmark
+    public UserResponse getUserById(ThreadCursor cursor) {
+        return userService.getUserById(ids[cursor.next()]);
+    }
+
+    @Benchmark
+    public UserResponse createUser() {
+        long index = nextNewUser.incrementAndGet();
+        return userService.createUser(request(index));
+    }
+
+    @Benchmark
+    public UserResponse updateUser(ThreadCursor cursor) {
+        long id = ids[cursor.next()];
+        return userService.updateUser(id, request(id));
+    }
+
+    static UserRequest request(long index) {
+        return new UserRequest("Bench User " + index, BenchmarkData.username(index), BenchmarkData.email(index),
+                "555-0100", "bench.example.com");
+    }
+}
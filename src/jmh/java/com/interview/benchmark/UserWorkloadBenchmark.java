@@ -0,0 +1,122 @@
+package com.interview.benchmark;
+
+import com.interview.dto.UserResponse;
+import com.interview.repository.InMemoryUserRepository;
+import com.interview.service.UserPageCache;
+import com.interview.service.UserService;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent read/write mixes through {@link UserService}. Readers fetch users by id,
+ * writers update existing users so the dataset size stays fixed.
+ * <p>
+ * Each group runs readers and writers side by side in the given ratio; {@code -t} scales
+ * the number of group instances. Compare {@code shards} values on a machine with several cores
+ * to see write contention on the repository's shared structures.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-Dnet.bytebuddy.experimental=true"})
+@State(Scope.Group)
+public class UserWorkloadBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int datasetSize;
+
+    @Param({"1", "16"})
+    public int shards;
+
+    private ValidatorFactory validatorFactory;
+    private UserService userService;
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        userService = new UserService(BenchmarkData.populate(datasetSize, shards), validatorFactory.getValidator(),
+                new UserPageCache(256));
+        ids = BenchmarkData.sampleIds(datasetSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    // 90% reads
+
+    @Benchmark
+    @Group("readHeavy")
+    @GroupThreads(9)
+    public UserResponse readHeavyRead(ThreadCursor cursor) {
+        return read(cursor);
+    }
+
+    @Benchmark
+    @Group("readHeavy")
+    @GroupThreads(1)
+    public UserResponse readHeavyWrite(ThreadCursor cursor) {
+        return write(cursor);
+    }
+
+    // 50% reads
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public UserResponse mixedRead(ThreadCursor cursor) {
+        return read(cursor);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public UserResponse mixedWrite(ThreadCursor cursor) {
+        return write(cursor);
+    }
+
+    // 10% reads
+
+    @Benchmark
+    @Group("writeHeavy")
+    @GroupThreads(1)
+    public UserResponse writeHeavyRead(ThreadCursor cursor) {
+        return read(cursor);
+    }
+
+    @Benchmark
+    @Group("writeHeavy")
+    @GroupThreads(9)
+    public UserResponse writeHeavyWrite(ThreadCursor cursor) {
+        return write(cursor);
+    }
+
+    private UserResponse read(ThreadCursor cursor) {
+        return userService.getUserById(ids[cursor.next()]);
+    }
+
+    private UserResponse write(ThreadCursor cursor) {
+        long id = ids[cursor.next()];
+        return userService.updateUser(id, UserServiceBenchmark.request(id));
+    }
+}
@@ -0,0 +1,91 @@
+package com.interview.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms for one operation, in microseconds.
+ * <p>
+ * {@code corrected} is measured from the time the schedule intended to send the request, so
+ * requests delayed behind a stalled server are charged for the wait (coordinated omission
+ * correction). {@code service} is measured from the actual send and shows the server's view.
+ */
+final class LatencyStats {
+
+    private static final double MICROS_PER_MILLI = 1_000.0;
+
+    private final Histogram corrected = new ConcurrentHistogram(3);
+    private final Histogram service = new ConcurrentHistogram(3);
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param status HTTP status, or -1 if the request failed without a response
+     */
+    void record(long intendedNanos, long sentNanos, long completedNanos, int status) {
+        corrected.recordValue(Math.max(0, completedNanos - intendedNanos) / 1_000);
+        service.recordValue(Math.max(0, completedNanos - sentNanos) / 1_000);
+        requests.increment();
+        if (status / 100 != 2) {
+            errors.increment();
+        }
+        if (status == 503) {
+            rejected.increment();
+        }
+    }
+
+    void add(LatencyStats other) {
+        corrected.add(other.corrected);
+        service.add(other.service);
+        requests.add(other.requests.sum());
+        errors.add(other.errors.sum());
+        rejected.add(other.rejected.sum());
+    }
+
+    long requests() {
+        return requests.sum();
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+
+    double correctedPercentileMillis(double percentile) {
+        return corrected.getValueAtPercentile(percentile) / MICROS_PER_MILLI;
+    }
+
+    /**
+     * Write the corrected distribution in HdrHistogram's percentile format, in milliseconds.
+     */
+    void writeDistribution(PrintStream out) {
+        corrected.outputPercentileDistribution(out, MICROS_PER_MILLI);
+    }
+
+    Map<String, Object> toReport() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("requests", requests());
+        report.put("errors", errors());
+        report.put("rejected", rejected.sum());
+        report.put("latencyMillis", summary(corrected));
+        report.put("serviceTimeMillis", summary(service));
+        return report;
+    }
+
+    private static Map<String, Double> summary(Histogram histogram) {
+        Map<String, Double> summary = new LinkedHashMap<>();
+        summary.put("mean", histogram.getMean() / MICROS_PER_MILLI);
+        summary.put("p50", histogram.getValueAtPercentile(50) / MICROS_PER_MILLI);
+        summary.put("p90", histogram.getValueAtPercentile(90) / MICROS_PER_MILLI);
+        summary.put("p99", histogram.getValueAtPercentile(99) / MICROS_PER_MILLI);
+        summary.put("p99.9", histogram.getValueAtPercentile(99.9) / MICROS_PER_MILLI);
+        summary.put("p99.99", histogram.getValueAtPercentile(99.99) / MICROS_PER_MILLI);
+        summary.put("max", histogram.getMaxValue() / MICROS_PER_MILLI);
+        return summary;
+    }
+}
@@ -0,0 +1,116 @@
+package com.interview.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The app under test: its base URL and the users seeded for this run.
+ * <p>
+ * Usernames carry a per-run prefix so repeated runs against the same server do not collide.
+ */
+final class LoadTarget {
+
+    static final int PAGE_SIZE = 20;
+    private static final int SEED_BATCH_SIZE = 1_000;
+
+    private final String baseUrl;
+    private final ObjectMapper objectMapper;
+    private final String runPrefix = "load-" + Long.toString(System.currentTimeMillis(), 36) + "-";
+    private final AtomicLong nextUser = new AtomicLong();
+    private long[] ids = new long[0];
+    private int pageCount = 1;
+
+    LoadTarget(String baseUrl, ObjectMapper objectMapper) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.objectMapper = objectMapper;
+    }
+
+    URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    long randomId(SplittableRandom random) {
+        return ids[random.nextInt(ids.length)];
+    }
+
+    int pageCount() {
+        return pageCount;
+    }
+
+    byte[] newUserBody() {
+        try {
+            return objectMapper.writeValueAsBytes(newUser(nextUser.incrementAndGet()));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Create {@code count} users through {@code POST /users/batch} and remember their ids.
+     * With no users to seed, the ids on the first page of {@code GET /users} are used instead.
+     */
+    void seed(HttpClient client, int count, Duration timeout) throws IOException, InterruptedException {
+        List<Long> created = new ArrayList<>(count);
+        for (int offset = 0; offset < count; offset += SEED_BATCH_SIZE) {
+            List<Map<String, String>> batch = new ArrayList<>();
+            for (int i = 0; i < Math.min(SEED_BATCH_SIZE, count - offset); i++) {
+                batch.add(newUser(nextUser.incrementAndGet()));
+            }
+            HttpRequest request = HttpRequest.newBuilder(uri("/users/batch"))
+                    .timeout(timeout.multipliedBy(10))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(batch)))
+                    .build();
+            for (JsonNode result : send(client, request).path("data").path("results")) {
+                if (result.path("success").asBoolean()) {
+                    created.add(result.path("data").path("id").asLong());
+                }
+            }
+        }
+        if (created.isEmpty()) {
+            HttpRequest request = HttpRequest.newBuilder(uri("/users?page=0&size=100")).timeout(timeout).GET().build();
+            for (JsonNode user : send(client, request).path("data").path("content")) {
+                created.add(user.path("id").asLong());
+            }
+        }
+        if (created.isEmpty()) {
+            throw new IllegalStateException("No users available at " + baseUrl + "/users");
+        }
+        ids = created.stream().mapToLong(Long::longValue).toArray();
+        HttpRequest request = HttpRequest.newBuilder(uri("/users?page=0&size=1")).timeout(timeout).GET().build();
+        long total = send(client, request).path("data").path("pagination").path("totalElements").asLong(ids.length);
+        pageCount = (int) Math.max(1, Math.min(Integer.MAX_VALUE, (total + PAGE_SIZE - 1) / PAGE_SIZE));
+    }
+
+    private JsonNode send(HttpClient client, HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException(request.method() + " " + request.uri() + " returned " + response.statusCode());
+        }
+        return objectMapper.readTree(response.body());
+    }
+
+    private Map<String, String> newUser(long index) {
+        String username = runPrefix + index;
+        Map<String, String> user = new LinkedHashMap<>();
+        user.put("name", "Load User " + index);
+        user.put("username", username);
+        user.put("email", username + "@example.com");
+        user.put("phone", "555-0100");
+        user.put("website", "load.example.com");
+        return user;
+    }
+}
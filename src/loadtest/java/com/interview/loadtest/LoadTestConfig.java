@@ -0,0 +1,94 @@
+package com.interview.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Load test settings, read from {@code loadtest.*} system properties.
+ */
+record LoadTestConfig(
+        List<Double> rates,
+        Duration warmup,
+        Duration duration,
+        RequestMix mix,
+        int datasetSize,
+        Duration timeout,
+        int maxConnections,
+        String baseUrl,
+        List<Variant> variants,
+        Path reportDir) {
+
+    /**
+     * One configuration of the embedded app to measure, e.g. a thread execution mode.
+     */
+    record Variant(String name, List<String> appArgs) {
+    }
+
+    static LoadTestConfig fromSystemProperties() {
+        List<Double> rates = Arrays.stream(property("loadtest.rates", "200").split(","))
+                .map(String::trim)
+                .map(Double::parseDouble)
+                .toList();
+        if (rates.stream().anyMatch(rate -> rate <= 0)) {
+            throw new IllegalArgumentException("loadtest.rates must be positive");
+        }
+        List<String> appArgs = appArgs(property("loadtest.appArgs", ""));
+        List<Variant> variants = variants(property("loadtest.variants", ""), appArgs);
+        int maxConnections = Integer.parseInt(property("loadtest.maxConnections", "1000"));
+        if (maxConnections <= 0) {
+            throw new IllegalArgumentException("loadtest.maxConnections must be positive");
+        }
+        String baseUrl = property("loadtest.baseUrl", "").trim();
+        if (!baseUrl.isEmpty() && variants.size() > 1) {
+            throw new IllegalArgumentException("loadtest.variants needs the embedded app; unset loadtest.baseUrl");
+        }
+        return new LoadTestConfig(
+                rates,
+                DurationStyle.detectAndParse(property("loadtest.warmup", "10s")),
+                DurationStyle.detectAndParse(property("loadtest.duration", "30s")),
+                RequestMix.parse(property("loadtest.mix", "get=55,list=30,create=5,health=10")),
+                Integer.parseInt(property("loadtest.datasetSize", "10000")),
+                DurationStyle.detectAndParse(property("loadtest.timeout", "10s")),
+                maxConnections,
+                baseUrl,
+                variants,
+                Path.of(property("loadtest.reportDir", "target/loadtest")));
+    }
+
+    /**
+     * Parse {@code "name:prop=value prop=value;name:prop=value"}; each variant also gets the common arguments.
+     */
+    private static List<Variant> variants(String spec, List<String> commonArgs) {
+        if (spec.isBlank()) {
+            return List.of(new Variant("default", commonArgs));
+        }
+        List<Variant> variants = new ArrayList<>();
+        for (String part : spec.split(";")) {
+            String[] nameAndArgs = part.trim().split(":", 2);
+            if (nameAndArgs[0].isBlank()) {
+                throw new IllegalArgumentException("Invalid load test variant: " + part);
+            }
+            List<String> args = new ArrayList<>(commonArgs);
+            args.addAll(appArgs(nameAndArgs.length > 1 ? nameAndArgs[1] : ""));
+            variants.add(new Variant(nameAndArgs[0].trim(), List.copyOf(args)));
+        }
+        return variants;
+    }
+
+    private static List<String> appArgs(String spec) {
+        return Arrays.stream(spec.trim().split("\\s+"))
+                .filter(arg -> !arg.isEmpty())
+                .map(arg -> arg.startsWith("--") ? arg : "--" + arg)
+                .toList();
+    }
+
+    private static String property(String name, String defaultValue) {
+        String value = System.getProperty(name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+}
@@ -0,0 +1,155 @@
+package com.interview.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.interview.Application;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Drives an open-loop request mix against the app over HTTP and writes latency reports.
+ * <p>
+ * Unless {@code loadtest.baseUrl} is set, the app is started in this JVM on a random port,
+ * once per variant in {@code loadtest.variants} so configurations such as platform versus
+ * virtual threads are measured under the same schedule. Each rate in {@code loadtest.rates}
+ * is one step: a warmup whose numbers are discarded, then a measured run. Results go to
+ * {@code <reportDir>/<timestamp>/}: {@code report.json} with per-variant, per-step,
+ * per-operation percentiles and throughput, and one {@code .hgrm} percentile distribution
+ * per step and operation for plotting.
+ */
+public final class LoadTestRunner {
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        Path reportDir = config.reportDir()
+                .resolve(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")));
+        Files.createDirectories(reportDir);
+
+        List<Map<String, Object>> variants = new ArrayList<>();
+        for (LoadTestConfig.Variant variant : config.variants()) {
+            String filePrefix = config.variants().size() > 1 ? variant.name() + "-" : "";
+            variants.add(runVariant(config, variant, objectMapper, reportDir, filePrefix));
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("mix", config.mix().toString());
+        report.put("datasetSize", config.datasetSize());
+        report.put("warmupSeconds", config.warmup().toMillis() / 1000.0);
+        report.put("durationSeconds", config.duration().toMillis() / 1000.0);
+        report.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        report.put("variants", variants);
+        objectMapper.writeValue(reportDir.resolve("report.json").toFile(), report);
+        System.out.printf("Reports written to %s%n", reportDir);
+    }
+
+    private static Map<String, Object> runVariant(LoadTestConfig config, LoadTestConfig.Variant variant,
+                                                  ObjectMapper objectMapper, Path reportDir, String filePrefix)
+            throws Exception {
+        ConfigurableApplicationContext context = null;
+        String baseUrl = config.baseUrl();
+        if (baseUrl.isEmpty()) {
+            List<String> appArgs = new ArrayList<>(List.of("--server.port=0", "--spring.jpa.show-sql=false",
+                    "--logging.level.root=WARN", "--logging.level.com.interview=WARN"));
+            appArgs.addAll(variant.appArgs());
+            context = new SpringApplicationBuilder(Application.class).run(appArgs.toArray(String[]::new));
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            baseUrl = "http://localhost:" + port;
+        }
+
+        try (HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()) {
+            LoadTarget target = new LoadTarget(baseUrl, objectMapper);
+            target.seed(client, config.datasetSize(), config.timeout());
+            OpenLoopDriver driver = new OpenLoopDriver(client, target, config.mix(), config.timeout(),
+                    config.maxConnections());
+
+            System.out.printf("Load test '%s' against %s %s, mix %s%n",
+                    variant.name(), baseUrl, variant.appArgs(), config.mix());
+            System.out.printf("%10s %12s %10s %10s %10s %10s %10s %8s%n",
+                    "rate", "achieved/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+
+            List<Map<String, Object>> steps = new ArrayList<>();
+            for (double rate : config.rates()) {
+                if (!config.warmup().isZero()) {
+                    driver.run(rate, config.warmup());
+                }
+                OpenLoopDriver.StepResult result = driver.run(rate, config.duration());
+                steps.add(stepReport(result));
+                writeDistributions(reportDir, filePrefix, result);
+                printSummary(result);
+            }
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("name", variant.name());
+            report.put("baseUrl", baseUrl);
+            report.put("appArgs", variant.appArgs());
+            report.put("steps", steps);
+            return report;
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private static Map<String, Object> stepReport(OpenLoopDriver.StepResult result) {
+        Map<String, Object> step = new LinkedHashMap<>();
+        step.put("targetRate", result.targetRate());
+        step.put("achievedRate", result.throughput());
+        step.put("scheduled", result.scheduled());
+        step.put("abandoned", result.abandoned());
+        step.put("maxSendLagMillis", result.maxSendLagNanos() / 1e6);
+        step.put("all", result.total().toReport());
+        Map<String, Object> operations = new LinkedHashMap<>();
+        result.stats().forEach((operation, stats) -> {
+            if (stats.requests() > 0) {
+                operations.put(operation.name().toLowerCase(Locale.ROOT), stats.toReport());
+            }
+        });
+        step.put("operations", operations);
+        return step;
+    }
+
+    private static void writeDistributions(Path reportDir, String filePrefix, OpenLoopDriver.StepResult result)
+            throws IOException {
+        String prefix = filePrefix + "rate-" + Math.round(result.targetRate()) + "-";
+        try (PrintStream out = new PrintStream(Files.newOutputStream(reportDir.resolve(prefix + "all.hgrm")))) {
+            result.total().writeDistribution(out);
+        }
+        for (Map.Entry<Operation, LatencyStats> entry : result.stats().entrySet()) {
+            if (entry.getValue().requests() == 0) {
+                continue;
+            }
+            String name = prefix + entry.getKey().name().toLowerCase(Locale.ROOT) + ".hgrm";
+            try (PrintStream out = new PrintStream(Files.newOutputStream(reportDir.resolve(name)))) {
+                entry.getValue().writeDistribution(out);
+            }
+        }
+    }
+
+    private static void printSummary(OpenLoopDriver.StepResult result) {
+        LatencyStats total = result.total();
+        System.out.printf("%10.0f %12.1f %10.2f %10.2f %10.2f %10.2f %10.2f %8d%n",
+                result.targetRate(), result.throughput(),
+                total.correctedPercentileMillis(50), total.correctedPercentileMillis(90),
+                total.correctedPercentileMillis(99), total.correctedPercentileMillis(99.9),
+                total.correctedPercentileMillis(100), total.errors());
+    }
+}
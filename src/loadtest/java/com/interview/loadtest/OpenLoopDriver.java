@@ -0,0 +1,108 @@
+package com.interview.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Issues requests on a fixed-rate schedule regardless of how quickly responses come back.
+ * <p>
+ * Request {@code n} is due at {@code start + n / rate}. If the sender falls behind, it sends
+ * the overdue requests immediately but still measures them from their due time, so a slow
+ * server cannot hide its stalls by slowing the generator down. At most {@code maxConnections}
+ * requests are outstanding; when all are taken the sender waits for one to finish, which
+ * bounds sockets on the generator side without affecting how latency is measured.
+ */
+final class OpenLoopDriver {
+
+    private final HttpClient client;
+    private final LoadTarget target;
+    private final RequestMix mix;
+    private final Duration timeout;
+    private final int maxConnections;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    OpenLoopDriver(HttpClient client, LoadTarget target, RequestMix mix, Duration timeout, int maxConnections) {
+        this.client = client;
+        this.target = target;
+        this.mix = mix;
+        this.timeout = timeout;
+        this.maxConnections = maxConnections;
+    }
+
+    /**
+     * Run the schedule for {@code duration} and wait for all outstanding responses.
+     */
+    StepResult run(double rate, Duration duration) throws InterruptedException {
+        Map<Operation, LatencyStats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new LatencyStats());
+        }
+        Semaphore connections = new Semaphore(maxConnections);
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long maxLagNanos = 0;
+        long scheduled = 0;
+
+        for (long n = 0; ; n++) {
+            long intended = start + (long) (n * intervalNanos);
+            if (intended >= end) {
+                break;
+            }
+            long now;
+            while ((now = System.nanoTime()) < intended) {
+                LockSupport.parkNanos(intended - now);
+            }
+            maxLagNanos = Math.max(maxLagNanos, now - intended);
+
+            Operation operation = mix.next(random);
+            HttpRequest request = operation.request(target, random).timeout(timeout).build();
+            LatencyStats operationStats = stats.get(operation);
+            connections.acquire();
+            long sent = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        int status = error == null ? response.statusCode() : -1;
+                        operationStats.record(intended, sent, System.nanoTime(), status);
+                        connections.release();
+                    });
+            scheduled++;
+        }
+
+        long drainDeadline = System.nanoTime() + timeout.toNanos() * 2;
+        while (connections.availablePermits() < maxConnections && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        long abandoned = maxConnections - connections.availablePermits();
+        return new StepResult(rate, scheduled, abandoned, elapsedNanos, maxLagNanos, stats);
+    }
+
+    /**
+     * Outcome of one fixed-rate step.
+     *
+     * @param abandoned Requests still outstanding when the drain timed out; not in the histograms
+     * @param maxSendLagNanos Largest delay between a request's due time and its send
+     */
+    record StepResult(double targetRate, long scheduled, long abandoned, long elapsedNanos,
+                      long maxSendLagNanos, Map<Operation, LatencyStats> stats) {
+
+        LatencyStats total() {
+            LatencyStats total = new LatencyStats();
+            stats.values().forEach(total::add);
+            return total;
+        }
+
+        double throughput() {
+            return total().requests() * 1e9 / elapsedNanos;
+        }
+    }
+}
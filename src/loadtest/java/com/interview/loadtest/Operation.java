@@ -0,0 +1,47 @@
+package com.interview.loadtest;
+
+import java.net.http.HttpRequest;
+import java.util.SplittableRandom;
+
+/**
+ * Request kinds the load generator can issue against the running app.
+ */
+enum Operation {
+
+    /** GET /users/{id} for a random seeded user. */
+    GET {
+        @Override
+        HttpRequest.Builder request(LoadTarget target, SplittableRandom random) {
+            return HttpRequest.newBuilder(target.uri("/users/" + target.randomId(random))).GET();
+        }
+    },
+
+    /** GET /users?page=N&size=20 for a random page of the seeded dataset. */
+    LIST {
+        @Override
+        HttpRequest.Builder request(LoadTarget target, SplittableRandom random) {
+            int page = random.nextInt(target.pageCount());
+            return HttpRequest.newBuilder(target.uri("/users?page=" + page + "&size=" + LoadTarget.PAGE_SIZE)).GET();
+        }
+    },
+
+    /** POST /users with a username that has not been used before. */
+    CREATE {
+        @Override
+        HttpRequest.Builder request(LoadTarget target, SplittableRandom random) {
+            return HttpRequest.newBuilder(target.uri("/users"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(target.newUserBody()));
+        }
+    },
+
+    /** GET /api/health. */
+    HEALTH {
+        @Override
+        HttpRequest.Builder request(LoadTarget target, SplittableRandom random) {
+            return HttpRequest.newBuilder(target.uri("/api/health")).GET();
+        }
+    };
+
+    abstract HttpRequest.Builder request(LoadTarget target, SplittableRandom random);
+}
@@ -0,0 +1,43 @@
+package com.interview.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Bounded concurrency for the user API, independent of whether requests run on Tomcat's
+ * platform thread pool or on virtual threads ({@code spring.threads.virtual.enabled}).
+ * Enabled with {@code users.concurrency.enabled=true}. NDJSON export and import and the change
+ * feed are long-lived transfers rather than requests waiting for capacity, so they take no permit.
+ */
+@Configuration
+@ConditionalOnProperty(name = "users.concurrency.enabled", havingValue = "true")
+public class ConcurrencyConfig {
+
+    @Bean
+    public ConcurrencyLimitFilter concurrencyLimitFilter(
+            @Value("${users.concurrency.max-in-flight:256}") int maxInFlight,
+            @Value("${users.concurrency.acquire-timeout:50ms}") Duration acquireTimeout,
+            ObjectMapper objectMapper) {
+        return new ConcurrencyLimitFilter(maxInFlight, acquireTimeout, objectMapper,
+                List.of("/users/export", "/users/import", "/users/changes"));
+    }
+
+    /**
+     * Apply the limit to the user endpoints only, so health checks and metrics scrapes
+     * still answer while the API is saturated.
+     */
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilterRegistration(
+            ConcurrencyLimitFilter concurrencyLimitFilter) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(concurrencyLimitFilter);
+        registration.addUrlPatterns("/users", "/users/*");
+        return registration;
+    }
+}
@@ -0,0 +1,119 @@
+package com.interview.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interview.dto.ApiResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps the number of requests being processed at once. A request that cannot get a permit
+ * within the acquire timeout is rejected with 503 and a {@code Retry-After} header instead of
+ * queueing without bound.
+ * <p>
+ * With virtual threads there is no pool size to bound concurrency, so this limit is what keeps
+ * memory bounded under bursts.
+ * <p>
+ * Streaming endpoints can be exempted: an export or import holds its request for as long as
+ * the transfer takes, so a few of them would otherwise starve every short request of permits.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter implements MeterBinder {
+
+    private final int maxInFlight;
+    private final Semaphore permits;
+    private final long acquireTimeoutNanos;
+    private final byte[] rejectionBody;
+    private final LongAdder rejected = new LongAdder();
+    private final Set<String> unlimitedPaths;
+
+    public ConcurrencyLimitFilter(int maxInFlight, Duration acquireTimeout, ObjectMapper objectMapper) {
+        this(maxInFlight, acquireTimeout, objectMapper, Set.of());
+    }
+
+    /**
+     * @param unlimitedPaths Paths, relative to the context path, whose requests take no permit
+     */
+    public ConcurrencyLimitFilter(int maxInFlight, Duration acquireTimeout, ObjectMapper objectMapper,
+                                  Collection<String> unlimitedPaths) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("Max in-flight requests must be greater than 0");
+        }
+        this.maxInFlight = maxInFlight;
+        this.permits = new Semaphore(maxInFlight);
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+        this.unlimitedPaths = Set.copyOf(unlimitedPaths);
+        try {
+            this.rejectionBody = objectMapper.writeValueAsBytes(ApiResponse.error("Server is busy, please retry later"));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !unlimitedPaths.isEmpty()
+                && unlimitedPaths.contains(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!acquire()) {
+            rejected.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLength(rejectionBody.length);
+            response.getOutputStream().write(rejectionBody);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private boolean acquire() {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        if (acquireTimeoutNanos <= 0) {
+            return false;
+        }
+        try {
+            return permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("users.http.in.flight", permits, p -> maxInFlight - p.availablePermits())
+                .description("Requests currently holding a concurrency permit")
+                .register(registry);
+        FunctionCounter.builder("users.http.rejected", rejected, LongAdder::sum)
+                .description("Requests rejected because the concurrency limit was reached")
+                .register(registry);
+    }
+}
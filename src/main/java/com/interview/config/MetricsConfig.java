@@ -0,0 +1,52 @@
+package com.interview.config;
+
+import com.interview.metrics.OperationTimingPostProcessor;
+import com.interview.metrics.TimedOperations;
+import com.interview.repository.InMemoryUserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Meters of the user components. Operation timers come from {@link TimedOperations} on the
+ * beans and are applied at the bean boundary; gauges read state the beans already keep.
+ */
+@Configuration
+public class MetricsConfig {
+
+    // Static so the post-processor is created before, and applies to, every other bean
+    @Bean
+    public static OperationTimingPostProcessor operationTimingPostProcessor() {
+        return new OperationTimingPostProcessor();
+    }
+
+    @Bean
+    public MeterBinder operationTimers(OperationTimingPostProcessor operationTimingPostProcessor) {
+        return operationTimingPostProcessor::bindTo;
+    }
+
+    /**
+     * Size gauges of the in-memory backend. Only sizes kept in striped counters are exposed;
+     * ordered indexes would be counted by traversal on every scrape. The database backend has
+     * none, as they would cost a count query on every scrape.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "users.storage.backend", havingValue = "memory", matchIfMissing = true)
+    public MeterBinder inMemoryUserRepositoryGauges(InMemoryUserRepository userRepository) {
+        return registry -> {
+            Gauge.builder("users.repository.size", userRepository, InMemoryUserRepository::size)
+                    .description("Number of stored users")
+                    .register(registry);
+            Gauge.builder("users.repository.index.size", userRepository, InMemoryUserRepository::usernameIndexSize)
+                    .description("Number of keys in a unique index")
+                    .tag("index", "username")
+                    .register(registry);
+            Gauge.builder("users.repository.index.size", userRepository, InMemoryUserRepository::emailIndexSize)
+                    .description("Number of keys in a unique index")
+                    .tag("index", "email")
+                    .register(registry);
+        };
+    }
+}
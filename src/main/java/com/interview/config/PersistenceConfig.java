@@ -0,0 +1,52 @@
+package com.interview.config;
+
+import com.interview.repository.InMemoryUserRepository;
+import com.interview.repository.persistence.FsyncPolicy;
+import com.interview.repository.persistence.UserWriteAheadLog;
+import com.interview.service.UserSnapshotService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Optional durability for the in-memory user repository.
+ * Enabled with {@code users.persistence.wal.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "users.persistence.wal.enabled", havingValue = "true")
+public class PersistenceConfig {
+
+    /**
+     * Recover the repository from the log before the application starts serving,
+     * then record every subsequent write. When snapshots are enabled, the snapshot is
+     * loaded first and the log is replayed on top of it.
+     */
+    @Bean(destroyMethod = "close")
+    public UserWriteAheadLog userWriteAheadLog(
+            InMemoryUserRepository userRepository,
+            ObjectProvider<UserSnapshotService> userSnapshotService,
+            @Value("${users.persistence.wal.directory:data/wal}") Path directory,
+            @Value("${users.persistence.wal.fsync:SYNC}") FsyncPolicy fsyncPolicy,
+            @Value("${users.persistence.wal.fsync-interval:100ms}") Duration fsyncInterval,
+            @Value("${users.persistence.wal.group-commit-window:0ms}") Duration groupCommitWindow,
+            @Value("${users.persistence.wal.checkpoint-interval:5m}") Duration checkpointInterval,
+            @Value("${users.persistence.wal.checkpoint-min-bytes:67108864}") long checkpointMinBytes)
+            throws IOException {
+        // Forces the snapshot service, and with it the snapshot load, to initialize first
+        userSnapshotService.ifAvailable(service -> {
+        });
+        UserWriteAheadLog log = new UserWriteAheadLog(directory, fsyncPolicy, groupCommitWindow);
+        UserWriteAheadLog.Recovery recovery = log.recover(userRepository.findAll());
+        userRepository.restoreAll(recovery.users(), recovery.idHighWaterMark());
+        userRepository.setMutationLog(log);
+        log.startBackgroundTasks(userRepository::streamAll, userRepository::idHighWaterMark,
+                fsyncInterval, checkpointInterval, checkpointMinBytes);
+        return log;
+    }
+}
@@ -0,0 +1,59 @@
+package com.interview.config;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Encoding a response body is written in. Each encoding of a resource is a separate
+ * representation with its own ETag, so a cache never answers a request for one encoding with
+ * another, and a handler taking a {@code ResponseEncoding} parameter gets the one its
+ * response will be written in.
+ */
+public enum ResponseEncoding {
+    JSON(MediaType.APPLICATION_JSON, ""),
+    CBOR(MediaType.APPLICATION_CBOR, "-cbor"),
+    SMILE(WebConfig.APPLICATION_SMILE, "-smile");
+
+    private final MediaType mediaType;
+    private final String etagSuffix;
+
+    ResponseEncoding(MediaType mediaType, String etagSuffix) {
+        this.mediaType = mediaType;
+        this.etagSuffix = etagSuffix;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    /**
+     * ETag of this encoding of a resource, given the resource's JSON ETag.
+     *
+     * @param etag Quoted ETag, may be weak or null
+     */
+    public String etag(String etag) {
+        if (etag == null || etagSuffix.isEmpty()) {
+            return etag;
+        }
+        return etag.substring(0, etag.length() - 1) + etagSuffix + "\"";
+    }
+
+    /**
+     * Turn the ETags in an {@code If-Match} or {@code If-None-Match} header into those of the JSON
+     * encoding, for conditions that hold whichever encoding the client last read, such as an
+     * update that only depends on the version.
+     *
+     * @param header Header value, may be null
+     */
+    public static String anyEncoding(String header) {
+        if (header == null) {
+            return null;
+        }
+        String result = header;
+        for (ResponseEncoding encoding : values()) {
+            if (!encoding.etagSuffix.isEmpty()) {
+                result = result.replace(encoding.etagSuffix + "\"", "\"");
+            }
+        }
+        return result;
+    }
+}
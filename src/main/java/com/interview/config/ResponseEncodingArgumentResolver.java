@@ -0,0 +1,65 @@
+package com.interview.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resolves the {@link ResponseEncoding} of the current request the way the message converters
+ * choose one: the types the content negotiation manager finds acceptable, paired with the
+ * encodings in converter order, most specific and preferred first. Handlers set the resolved
+ * type as the response content type, so the body is always written in the encoding its ETag
+ * names.
+ * <p>
+ * A handler's {@code produces} is not taken into account: request mapping picks a handler that
+ * produces any accepted type without weighing quality values, so such a handler may still find
+ * that the client prefers another encoding.
+ */
+class ResponseEncodingArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final ObjectProvider<ContentNegotiationManager> contentNegotiationManager;
+
+    ResponseEncodingArgumentResolver(ObjectProvider<ContentNegotiationManager> contentNegotiationManager) {
+        this.contentNegotiationManager = contentNegotiationManager;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.getParameterType() == ResponseEncoding.class;
+    }
+
+    @Override
+    public ResponseEncoding resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                            NativeWebRequest webRequest, WebDataBinderFactory binderFactory)
+            throws HttpMediaTypeNotAcceptableException {
+        List<MediaType> acceptable = contentNegotiationManager.getObject().resolveMediaTypes(webRequest);
+        List<MediaType> candidates = new ArrayList<>();
+        for (MediaType requested : acceptable) {
+            for (ResponseEncoding encoding : ResponseEncoding.values()) {
+                if (requested.isCompatibleWith(encoding.mediaType())) {
+                    candidates.add(encoding.mediaType().copyQualityValue(requested));
+                }
+            }
+        }
+        MimeTypeUtils.sortBySpecificity(candidates);
+        for (MediaType candidate : candidates) {
+            for (ResponseEncoding encoding : ResponseEncoding.values()) {
+                if (encoding.mediaType().equalsTypeAndSubtype(candidate)) {
+                    return encoding;
+                }
+            }
+        }
+        // Nothing acceptable: answered in the default encoding rather than refused
+        return ResponseEncoding.JSON;
+    }
+}
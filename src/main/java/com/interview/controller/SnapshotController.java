@@ -0,0 +1,36 @@
+package com.interview.controller;
+
+import com.interview.dto.ApiResponse;
+import com.interview.dto.SnapshotInfo;
+import com.interview.service.UserSnapshotService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * On-demand user snapshots.
+ */
+@RestController
+@RequestMapping("/api/admin")
+@ConditionalOnProperty(name = "users.snapshot.enabled", havingValue = "true")
+public class SnapshotController {
+
+    private final UserSnapshotService userSnapshotService;
+
+    @Autowired
+    public SnapshotController(UserSnapshotService userSnapshotService) {
+        this.userSnapshotService = userSnapshotService;
+    }
+
+    /**
+     * POST /api/admin/snapshot - Write a snapshot of all users now
+     */
+    @PostMapping("/snapshot")
+    public ResponseEntity<ApiResponse<SnapshotInfo>> writeSnapshot() {
+        SnapshotInfo info = userSnapshotService.writeSnapshot();
+        return ResponseEntity.ok(ApiResponse.success("Snapshot written", info));
+    }
+}
@@ -1,47 +1,265 @@
 package com.interview.controller;
 
+import com.interview.config.ResponseEncoding;
+import com.interview.config.WebConfig;
 import com.interview.dto.ApiResponse;
+import com.interview.dto.BatchResult;
 import com.interview.dto.PagedResponse;
+import com.interview.dto.UserProjection;
 import com.interview.dto.UserRequest;
 import com.interview.dto.UserResponse;
+import com.interview.dto.UserUpdateRequest;
+import com.interview.repository.UserQuery;
+import com.interview.service.UserChangeFeed;
+import com.interview.service.UserExportService;
+import com.interview.service.UserImportService;
+import com.interview.service.UserJsonCache;
 import com.interview.service.UserService;
+import com.interview.util.ETagUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
 
 @RestController
 @RequestMapping("/users")
 public class UserController {
 
     private final UserService userService;
+    private final UserExportService userExportService;
+    private final UserImportService userImportService;
+    private final UserJsonCache userJsonCache;
+    private final UserChangeFeed userChangeFeed;
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, UserExportService userExportService,
+                          UserImportService userImportService, UserJsonCache userJsonCache,
+                          UserChangeFeed userChangeFeed) {
         this.userService = userService;
+        this.userExportService = userExportService;
+        this.userImportService = userImportService;
+        this.userJsonCache = userJsonCache;
+        this.userChangeFeed = userChangeFeed;
     }
 
     /**
      * GET /users - Retrieve all users with pagination
      * @param page Page number (default: 0)
      * @param size Page size (default: 10)
+     * @param sort Sort field (id, name, username, createdAt, updatedAt) with optional ",asc" or ",desc"
+     * @param emailDomain Only users whose email is at this domain
+     * @param createdFrom Only users created at or after this ISO date-time
+     * @param createdTo Only users created at or before this ISO date-time
+     * @param updatedSince Only users changed at or after this ISO date-time, including deleted
+     *                     users as {@code "deleted": true} entries; sorts by updatedAt by default
+     * @param updatedBefore Only users changed before this ISO date-time
+     * @param fields Comma-separated fields to include, e.g. "id,username" (default: all)
+     * @param ifNoneMatch ETag of a previously fetched page; 304 if no user has changed since
+     * @param encoding Encoding the page is written in, which its ETag names
      */
     @GetMapping
-    public ResponseEntity<ApiResponse<PagedResponse<UserResponse>>> getAllUsers(
+    public ResponseEntity<ApiResponse<PagedResponse<?>>> getAllUsers(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        PagedResponse<UserResponse> users = userService.getAllUsers(page, size);
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String emailDomain,
+            @RequestParam(required = false) String createdFrom,
+            @RequestParam(required = false) String createdTo,
+            @RequestParam(required = false) String updatedSince,
+            @RequestParam(required = false) String updatedBefore,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            ResponseEncoding encoding) {
+        UserQuery query = UserQuery.of(sort, emailDomain, createdFrom, createdTo, updatedSince, updatedBefore);
+        UserProjection projection = UserProjection.parse(fields);
+        String etag = encoding.etag(userService.getUsersETag());
+        if (ETagUtil.matchesIfNoneMatch(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        PagedResponse<?> users = projection == null
+                ? userService.getAllUsers(page, size, query)
+                : userService.getAllUsers(page, size, query, projection::view);
+        return ResponseEntity.ok().eTag(etag).contentType(encoding.mediaType()).body(ApiResponse.success(users));
+    }
+
+    /**
+     * GET /users?after={cursor} - Retrieve users with keyset pagination
+     * @param after Cursor returned as nextCursor by the previous page (empty for the first page)
+     * @param size Page size (default: 10)
+     * @param sort Same as for {@code GET /users}; must not change between pages
+     * @param emailDomain Same as for {@code GET /users}
+     * @param createdFrom Same as for {@code GET /users}
+     * @param createdTo Same as for {@code GET /users}
+     * @param updatedSince Same as for {@code GET /users}
+     * @param updatedBefore Same as for {@code GET /users}
+     * @param fields Same as for {@code GET /users}
+     * @param ifNoneMatch ETag of a previously fetched page; 304 if no user has changed since
+     * @param encoding Same as for {@code GET /users}
+     */
+    @GetMapping(params = "after")
+    public ResponseEntity<ApiResponse<PagedResponse<?>>> getUsersAfter(
+            @RequestParam String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String emailDomain,
+            @RequestParam(required = false) String createdFrom,
+            @RequestParam(required = false) String createdTo,
+            @RequestParam(required = false) String updatedSince,
+            @RequestParam(required = false) String updatedBefore,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            ResponseEncoding encoding) {
+        UserQuery query = UserQuery.of(sort, emailDomain, createdFrom, createdTo, updatedSince, updatedBefore);
+        UserProjection projection = UserProjection.parse(fields);
+        String etag = encoding.etag(userService.getUsersETag());
+        if (ETagUtil.matchesIfNoneMatch(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        PagedResponse<?> users = projection == null
+                ? userService.getUsersAfter(after, size, query)
+                : userService.getUsersAfter(after, size, query, projection::view);
+        return ResponseEntity.ok().eTag(etag).contentType(encoding.mediaType()).body(ApiResponse.success(users));
+    }
+
+    /**
+     * GET /users/search?q={query} - Typeahead search over name, username and email
+     * @param q Words to match as prefixes of words in the user's fields, e.g. "jo" or "john gmail"
+     * @param page Page number (default: 0)
+     * @param size Page size (default: 10)
+     * @param fields Same as for {@code GET /users}
+     */
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<PagedResponse<?>>> searchUsers(
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String fields) {
+        UserProjection projection = UserProjection.parse(fields);
+        PagedResponse<?> users = projection == null
+                ? userService.searchUsers(q, page, size)
+                : userService.searchUsers(q, page, size, projection::view);
         return ResponseEntity.ok(ApiResponse.success(users));
     }
 
     /**
-     * GET /users/{userId} - Retrieve a specific user
+     * GET /users/export - Stream all users as newline-delimited JSON
+     * @param fields Same as for {@code GET /users}
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportUsers(@RequestParam(required = false) String fields,
+                            HttpServletResponse response) throws IOException {
+        UserProjection projection = UserProjection.parse(fields);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        if (projection == null) {
+            userExportService.exportUsers(response.getOutputStream());
+        } else {
+            userExportService.exportUsers(response.getOutputStream(), projection);
+        }
+    }
+
+    /**
+     * GET /users/changes - Stream user creates, updates and deletes as server-sent events.
+     * Each event's id is its sequence number; a {@code reset} event means changes were missed
+     * and the users should be reloaded while the stream goes on.
+     * @param since Sequence number of the last change already applied (default: only new changes)
+     * @param lastEventId Sent by EventSource clients on reconnect; takes precedence over since
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @RequestParam(required = false) Long since,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return userChangeFeed.subscribe(lastEventId != null ? lastEventId : since);
+    }
+
+    /**
+     * POST /users/import - Bulk import users from a newline-delimited JSON body,
+     * streaming back per-line errors and progress as NDJSON
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void importUsersNdjson(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        userImportService.importNdjson(request.getInputStream(), response.getOutputStream());
+    }
+
+    /**
+     * POST /users/import - Bulk import users from a JSON array body,
+     * streaming back per-record errors and progress as NDJSON
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void importUsersJsonArray(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        userImportService.importJsonArray(request.getInputStream(), response.getOutputStream());
+    }
+
+    /**
+     * GET /users/{userId} - Retrieve a specific user as JSON.
+     * The body is written from the cached serialized response, rebuilt only after the user
+     * changes. Answers 304 when If-None-Match names the current ETag.
      */
     @GetMapping("/{userId}")
-    public ResponseEntity<ApiResponse<UserResponse>> getUserById(@PathVariable Long userId) {
+    public ResponseEntity<?> getUserById(
+            @PathVariable Long userId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        UserJsonCache.SerializedUser user = userJsonCache.get(userId);
+        if (ETagUtil.matchesIfNoneMatch(ifNoneMatch, user.etag())) {
+            return notModified(user.etag());
+        }
+        return ResponseEntity.ok()
+                .eTag(user.etag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(user.json());
+    }
+
+    /**
+     * GET /users/{userId} - Retrieve a specific user as CBOR or Smile. Mapped for requests that
+     * accept either, and answered as JSON if the client still ranks JSON higher. Each encoding
+     * has its own ETag.
+     */
+    @GetMapping(value = "/{userId}", produces = {MediaType.APPLICATION_CBOR_VALUE, WebConfig.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<?> getBinaryUserById(
+            @PathVariable Long userId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            ResponseEncoding encoding) {
+        if (encoding == ResponseEncoding.JSON) {
+            return getUserById(userId, ifNoneMatch);
+        }
         UserResponse user = userService.getUserById(userId);
-        return ResponseEntity.ok(ApiResponse.success(user));
+        String etag = encoding.etag(userETag(user));
+        if (ETagUtil.matchesIfNoneMatch(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        return ResponseEntity.ok().eTag(etag).contentType(encoding.mediaType()).body(ApiResponse.success(user));
+    }
+
+    /**
+     * GET /users/{userId}?fields={fields} - Retrieve some fields of a specific user.
+     * Written from the stored user rather than the cached full body; same ETag as without fields
+     * in the same encoding.
+     */
+    @GetMapping(value = "/{userId}", params = "fields")
+    public ResponseEntity<ApiResponse<UserProjection.View>> getUserFieldsById(
+            @PathVariable Long userId,
+            @RequestParam String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            ResponseEncoding encoding) {
+        UserProjection projection = UserProjection.parse(fields);
+        UserProjection.View user = userService.getUserById(userId, projection::view);
+        String etag = encoding.etag(ETagUtil.forUser(user.user().getId(), user.user().getVersion()));
+        if (ETagUtil.matchesIfNoneMatch(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        return ResponseEntity.ok().eTag(etag).contentType(encoding.mediaType()).body(ApiResponse.success(user));
     }
 
     /**
@@ -56,14 +274,21 @@ public class UserController {
     }
 
     /**
-     * PUT /users/{userId} - Update an existing user
+     * PUT /users/{userId} - Update an existing user.
+     * With If-Match, the update only applies if the user still has that ETag, in any encoding;
+     * otherwise 412.
      */
     @PutMapping("/{userId}")
     public ResponseEntity<ApiResponse<UserResponse>> updateUser(
             @PathVariable Long userId,
-            @Valid @RequestBody UserRequest request) {
-        UserResponse user = userService.updateUser(userId, request);
-        return ResponseEntity.ok(ApiResponse.success("User updated successfully", user));
+            @Valid @RequestBody UserRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            ResponseEncoding encoding) {
+        UserResponse user = userService.updateUser(userId, request, ResponseEncoding.anyEncoding(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(encoding.etag(userETag(user)))
+                .contentType(encoding.mediaType())
+                .body(ApiResponse.success("User updated successfully", user));
     }
 
     /**
@@ -75,4 +300,44 @@ public class UserController {
         ApiResponse<Void> response = new ApiResponse<>(true, "User deleted successfully", null);
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * POST /users/batch - Create many users in one request
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<BatchResult<UserResponse>>> createUsers(@RequestBody List<UserRequest> requests) {
+        BatchResult<UserResponse> result = userService.createUsers(requests);
+        return ResponseEntity.ok(ApiResponse.success(batchMessage("created", result), result));
+    }
+
+    /**
+     * PUT /users/batch - Update many users in one request
+     */
+    @PutMapping("/batch")
+    public ResponseEntity<ApiResponse<BatchResult<UserResponse>>> updateUsers(
+            @RequestBody List<UserUpdateRequest> requests) {
+        BatchResult<UserResponse> result = userService.updateUsers(requests);
+        return ResponseEntity.ok(ApiResponse.success(batchMessage("updated", result), result));
+    }
+
+    /**
+     * DELETE /users/batch - Delete many users in one request
+     */
+    @DeleteMapping("/batch")
+    public ResponseEntity<ApiResponse<BatchResult<Long>>> deleteUsers(@RequestBody List<Long> ids) {
+        BatchResult<Long> result = userService.deleteUsers(ids);
+        return ResponseEntity.ok(ApiResponse.success(batchMessage("deleted", result), result));
+    }
+
+    private static String batchMessage(String action, BatchResult<?> result) {
+        return String.format("%d of %d users %s", result.getSucceeded(), result.getTotal(), action);
+    }
+
+    private static String userETag(UserResponse user) {
+        return ETagUtil.forUser(user.getId(), user.getVersion());
+    }
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
 }
@@ -0,0 +1,58 @@
+package com.interview.dto;
+
+public class BatchItemResult<T> {
+    private int index;
+    private boolean success;
+    private T data;
+    private String error;
+
+    public BatchItemResult() {}
+
+    public BatchItemResult(int index, boolean success, T data, String error) {
+        this.index = index;
+        this.success = success;
+        this.data = data;
+        this.error = error;
+    }
+
+    public static <T> BatchItemResult<T> success(int index, T data) {
+        return new BatchItemResult<>(index, true, data, null);
+    }
+
+    public static <T> BatchItemResult<T> failure(int index, String error) {
+        return new BatchItemResult<>(index, false, null, error);
+    }
+
+    // Getters and Setters
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public T getData() {
+        return data;
+    }
+
+    public void setData(T data) {
+        this.data = data;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
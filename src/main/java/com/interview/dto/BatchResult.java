@@ -0,0 +1,52 @@
+package com.interview.dto;
+
+import java.util.List;
+
+public class BatchResult<T> {
+    private int total;
+    private int succeeded;
+    private int failed;
+    private List<BatchItemResult<T>> results;
+
+    public BatchResult() {}
+
+    public BatchResult(List<BatchItemResult<T>> results) {
+        this.results = results;
+        this.total = results.size();
+        this.succeeded = (int) results.stream().filter(BatchItemResult::isSuccess).count();
+        this.failed = total - succeeded;
+    }
+
+    // Getters and Setters
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public void setSucceeded(int succeeded) {
+        this.succeeded = succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public List<BatchItemResult<T>> getResults() {
+        return results;
+    }
+
+    public void setResults(List<BatchItemResult<T>> results) {
+        this.results = results;
+    }
+}
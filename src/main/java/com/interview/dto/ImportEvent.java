@@ -0,0 +1,88 @@
+package com.interview.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One line of the NDJSON progress stream returned by a bulk import.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportEvent {
+    public static final String ERROR = "error";
+    public static final String PROGRESS = "progress";
+    public static final String SUMMARY = "summary";
+
+    private String type;
+    private Long line;
+    private String error;
+    private Long processed;
+    private Long imported;
+    private Long failed;
+
+    public ImportEvent() {}
+
+    public static ImportEvent error(long line, String error) {
+        ImportEvent event = new ImportEvent();
+        event.type = ERROR;
+        event.line = line;
+        event.error = error;
+        return event;
+    }
+
+    public static ImportEvent progress(String type, long processed, long imported, long failed) {
+        ImportEvent event = new ImportEvent();
+        event.type = type;
+        event.processed = processed;
+        event.imported = imported;
+        event.failed = failed;
+        return event;
+    }
+
+    // Getters and Setters
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Long getLine() {
+        return line;
+    }
+
+    public void setLine(Long line) {
+        this.line = line;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public Long getProcessed() {
+        return processed;
+    }
+
+    public void setProcessed(Long processed) {
+        this.processed = processed;
+    }
+
+    public Long getImported() {
+        return imported;
+    }
+
+    public void setImported(Long imported) {
+        this.imported = imported;
+    }
+
+    public Long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(Long failed) {
+        this.failed = failed;
+    }
+}
@@ -5,6 +5,7 @@ import java.util.List;
 public class PagedResponse<T> {
     private List<T> content;
     private PaginationMeta pagination;
+    private String nextCursor;
 
     public PagedResponse() {}
 
@@ -13,6 +14,12 @@ public class PagedResponse<T> {
         this.pagination = pagination;
     }
 
+    public PagedResponse(List<T> content, PaginationMeta pagination, String nextCursor) {
+        this.content = content;
+        this.pagination = pagination;
+        this.nextCursor = nextCursor;
+    }
+
     public List<T> getContent() {
         return content;
     }
@@ -28,4 +35,12 @@ public class PagedResponse<T> {
     public void setPagination(PaginationMeta pagination) {
         this.pagination = pagination;
     }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 }
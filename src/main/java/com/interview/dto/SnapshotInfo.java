@@ -0,0 +1,60 @@
+package com.interview.dto;
+
+public class SnapshotInfo {
+    private String path;
+    private long users;
+    private long bytes;
+    private long idHighWaterMark;
+    private long durationMillis;
+
+    public SnapshotInfo() {}
+
+    public SnapshotInfo(String path, long users, long bytes, long idHighWaterMark, long durationMillis) {
+        this.path = path;
+        this.users = users;
+        this.bytes = bytes;
+        this.idHighWaterMark = idHighWaterMark;
+        this.durationMillis = durationMillis;
+    }
+
+    // Getters and Setters
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public long getUsers() {
+        return users;
+    }
+
+    public void setUsers(long users) {
+        this.users = users;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+
+    public long getIdHighWaterMark() {
+        return idHighWaterMark;
+    }
+
+    public void setIdHighWaterMark(long idHighWaterMark) {
+        this.idHighWaterMark = idHighWaterMark;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+}
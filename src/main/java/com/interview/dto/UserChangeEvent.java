@@ -0,0 +1,72 @@
+package com.interview.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Data of one event on the {@code GET /users/changes} stream.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserChangeEvent {
+    public static final String CREATED = "created";
+    public static final String UPDATED = "updated";
+    public static final String DELETED = "deleted";
+    /** Changes were missed; reload the users, then keep applying events from this one on. */
+    public static final String RESET = "reset";
+
+    private long sequence;
+    private String type;
+    private Long userId;
+    private Long version;
+    private UserResponse user;
+
+    public UserChangeEvent() {}
+
+    public UserChangeEvent(long sequence, String type, Long userId, Long version, UserResponse user) {
+        this.sequence = sequence;
+        this.type = type;
+        this.userId = userId;
+        this.version = version;
+        this.user = user;
+    }
+
+    // Getters and Setters
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public UserResponse getUser() {
+        return user;
+    }
+
+    public void setUser(UserResponse user) {
+        this.user = user;
+    }
+}
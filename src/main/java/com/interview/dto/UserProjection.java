@@ -0,0 +1,218 @@
+package com.interview.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.core.type.WritableTypeId;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.interview.model.User;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A subset of the {@link UserResponse} fields, as requested with {@code ?fields=id,username}.
+ * <p>
+ * Users are written straight from the stored {@link User} to the generator, field by field,
+ * so omitted fields are neither copied into a response object nor serialized. There is one
+ * precompiled projection per combination of fields, built once when the class loads; parsing
+ * a request's {@code fields} only picks one. Fields are always written in {@link UserResponse}
+ * order, and tombstones from delta queries keep their {@code "deleted": true} marker.
+ */
+public final class UserProjection {
+
+    // Same text as the default LocalDateTime serializer, which the full responses go through
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    private static final SerializableString DELETED = new SerializedString("deleted");
+
+    private static final Field[] FIELDS = Field.values();
+    private static final UserProjection[] BY_MASK = new UserProjection[1 << FIELDS.length];
+
+    static {
+        for (int mask = 1; mask < BY_MASK.length; mask++) {
+            BY_MASK[mask] = new UserProjection(mask);
+        }
+    }
+
+    private final Field[] fields;
+    // Fields a tombstone still has
+    private final Field[] tombstoneFields;
+
+    private UserProjection(int mask) {
+        List<Field> selected = new ArrayList<>();
+        List<Field> tombstone = new ArrayList<>();
+        for (Field field : FIELDS) {
+            if ((mask & field.bit()) != 0) {
+                selected.add(field);
+                if (field == Field.ID || field == Field.UPDATED_AT) {
+                    tombstone.add(field);
+                }
+            }
+        }
+        this.fields = selected.toArray(Field[]::new);
+        this.tombstoneFields = tombstone.toArray(Field[]::new);
+    }
+
+    /**
+     * Projection for a comma-separated list of field names, e.g. {@code "id,username,email"}.
+     *
+     * @return The projection, or null if {@code fields} is null, meaning all fields
+     * @throws IllegalArgumentException if the list is blank or names an unknown field
+     */
+    public static UserProjection parse(String fields) {
+        if (fields == null) {
+            return null;
+        }
+        int mask = 0;
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (!trimmed.isEmpty()) {
+                mask |= Field.fromParameter(trimmed).bit();
+            }
+        }
+        if (mask == 0) {
+            throw new IllegalArgumentException("fields must name at least one field");
+        }
+        return BY_MASK[mask];
+    }
+
+    /**
+     * Write the user's selected fields as one JSON object.
+     */
+    public void write(User user, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        if (user.isDeleted()) {
+            for (Field field : tombstoneFields) {
+                field.write(user, generator);
+            }
+            generator.writeFieldName(DELETED);
+            generator.writeBoolean(true);
+        } else {
+            for (Field field : fields) {
+                field.write(user, generator);
+            }
+        }
+        generator.writeEndObject();
+    }
+
+    /**
+     * Wrap a user so Jackson writes it with this projection wherever it appears in a response.
+     */
+    public View view(User user) {
+        return new View(user, this);
+    }
+
+    /**
+     * A user with the projection to write it with; holds the stored user, copies nothing.
+     */
+    public record View(User user, UserProjection projection) implements JsonSerializable {
+
+        @Override
+        public void serialize(JsonGenerator generator, SerializerProvider serializers) throws IOException {
+            projection.write(user, generator);
+        }
+
+        @Override
+        public void serializeWithType(JsonGenerator generator, SerializerProvider serializers,
+                                      TypeSerializer typeSerializer) throws IOException {
+            WritableTypeId typeId = typeSerializer.writeTypePrefix(generator,
+                    typeSerializer.typeId(this, JsonToken.START_OBJECT));
+            serialize(generator, serializers);
+            typeSerializer.writeTypeSuffix(generator, typeId);
+        }
+    }
+
+    private enum Field {
+        ID("id") {
+            @Override
+            void writeValue(User user, JsonGenerator generator) throws IOException {
+                generator.writeNumber(user.getId());
+            }
+        },
+        NAME("name") {
+            @Override
+            void writeValue(User user, JsonGenerator generator) throws IOException {
+                generator.writeString(user.getName());
+            }
+        },
+        USERNAME("username") {
+            @Override
+            void writeValue(User user, JsonGenerator generator) throws IOException {
+                generator.writeString(user.getUsername());
+            }
+        },
+        EMAIL("email") {
+            @Override
+            void writeValue(User user, JsonGenerator generator) throws IOException {
+                generator.writeString(user.getEmail());
+            }
+        },
+        PHONE("phone") {
+            @Override
+            void writeValue(User user, JsonGenerator generator) throws IOException {
+                generator.writeString(user.getPhone());
+            }
+        },
+        WEBSITE("website") {
+            @Override
+            void writeValue(User user, JsonGenerator generator) throws IOException {
+                generator.writeString(user.getWebsite());
+            }
+        },
+        CREATED_AT("createdAt") {
+            @Override
+            void writeValue(User user, JsonGenerator generator) throws IOException {
+                writeDateTime(user.getCreatedAt(), generator);
+            }
+        },
+        UPDATED_AT("updatedAt") {
+            @Override
+            void writeValue(User user, JsonGenerator generator) throws IOException {
+                writeDateTime(user.getUpdatedAt(), generator);
+            }
+        };
+
+        private final String parameter;
+        private final SerializableString name;
+
+        Field(String parameter) {
+            this.parameter = parameter;
+            this.name = new SerializedString(parameter);
+        }
+
+        int bit() {
+            return 1 << ordinal();
+        }
+
+        void write(User user, JsonGenerator generator) throws IOException {
+            generator.writeFieldName(name);
+            writeValue(user, generator);
+        }
+
+        abstract void writeValue(User user, JsonGenerator generator) throws IOException;
+
+        static Field fromParameter(String parameter) {
+            for (Field field : FIELDS) {
+                if (field.parameter.equalsIgnoreCase(parameter)) {
+                    return field;
+                }
+            }
+            throw new IllegalArgumentException("Unknown field: " + parameter.toLowerCase(Locale.ROOT));
+        }
+
+        private static void writeDateTime(LocalDateTime value, JsonGenerator generator) throws IOException {
+            if (value == null) {
+                generator.writeNull();
+            } else {
+                generator.writeString(DATE_TIME.format(value));
+            }
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.interview.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.interview.model.User;
 
 import java.time.LocalDateTime;
@@ -13,11 +15,23 @@ public class UserResponse {
     private String website;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    // Only present on tombstones in delta queries, which carry just id, updatedAt and this flag
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean deleted;
+    // Not part of the body; the controller derives the ETag header from it
+    @JsonIgnore
+    private Long version;
 
     public UserResponse() {}
 
     public UserResponse(User user) {
         this.id = user.getId();
+        this.version = user.getVersion();
+        if (user.isDeleted()) {
+            this.updatedAt = user.getUpdatedAt();
+            this.deleted = true;
+            return;
+        }
         this.name = user.getName();
         this.username = user.getUsername();
         this.email = user.getEmail();
@@ -91,4 +105,20 @@ public class UserResponse {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public Boolean getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(Boolean deleted) {
+        this.deleted = deleted;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
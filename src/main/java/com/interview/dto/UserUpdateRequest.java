@@ -0,0 +1,28 @@
+package com.interview.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Item of a batch update: the target user id plus the same fields as {@link UserRequest}.
+ */
+public class UserUpdateRequest extends UserRequest {
+
+    @NotNull(message = "Id is required")
+    private Long id;
+
+    public UserUpdateRequest() {}
+
+    public UserUpdateRequest(Long id, String name, String username, String email, String phone, String website) {
+        super(name, username, email, phone, website);
+        this.id = id;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+}
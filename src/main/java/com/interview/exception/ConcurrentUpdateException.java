@@ -0,0 +1,11 @@
+package com.interview.exception;
+
+/**
+ * A write was based on a version of a record that is no longer current.
+ */
+public class ConcurrentUpdateException extends RuntimeException {
+
+    public ConcurrentUpdateException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,98 @@
+package com.interview.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-operation call counters and sampled latency timers for one component, registered up
+ * front and looked up by operation index so the hot path does no tag building or registry lookup.
+ * <p>
+ * Every call bumps a striped counter ({@code <name>.calls}). Only one call in
+ * {@code sampleInterval} reads the clock and records into the timer ({@code <name>}), which
+ * keeps the clock reads and histogram updates off most calls while the latency distribution
+ * stays representative. Until {@link #bindTo(MeterRegistry)} is called nothing is measured.
+ * Meters are tagged {@code operation=<operation name>}; percentile histograms are switched on
+ * per meter name through {@code management.metrics.distribution.*}.
+ *
+ * <pre>{@code
+ * long start = timers.start();
+ * try {
+ *     ...
+ * } finally {
+ *     timers.stop(operation, start);
+ * }
+ * }</pre>
+ */
+public final class OperationTimers {
+
+    private final String name;
+    private final String description;
+    private final List<String> operations;
+    private final int sampleMask;
+    private final LongAdder[] calls;
+    private volatile Timer[] timers;
+
+    /**
+     * @param operations Operation names, used as tag values; {@link #stop} takes their index
+     * @param sampleInterval Time one call in this many; must be a power of two, 1 times every call
+     */
+    public OperationTimers(String name, String description, List<String> operations, int sampleInterval) {
+        if (sampleInterval <= 0 || Integer.bitCount(sampleInterval) != 1) {
+            throw new IllegalArgumentException("Sample interval must be a power of two");
+        }
+        this.name = name;
+        this.description = description;
+        this.operations = List.copyOf(operations);
+        this.sampleMask = sampleInterval - 1;
+        this.calls = new LongAdder[this.operations.size()];
+        for (int i = 0; i < calls.length; i++) {
+            calls[i] = new LongAdder();
+        }
+    }
+
+    public void bindTo(MeterRegistry registry) {
+        Timer[] bound = new Timer[operations.size()];
+        for (int i = 0; i < bound.length; i++) {
+            String tag = operations.get(i);
+            FunctionCounter.builder(name + ".calls", calls[i], LongAdder::sum)
+                    .description("Number of calls")
+                    .tag("operation", tag)
+                    .register(registry);
+            bound[i] = Timer.builder(name)
+                    .description(description + (sampleMask == 0 ? "" : ", sampled 1 in " + (sampleMask + 1)))
+                    .tag("operation", tag)
+                    .register(registry);
+        }
+        timers = bound;
+    }
+
+    /**
+     * @return Start time to pass to {@link #stop}, or 0 when this call is not timed
+     */
+    public long start() {
+        if (timers == null || (sampleMask != 0 && (ThreadLocalRandom.current().nextInt() & sampleMask) != 0)) {
+            return 0L;
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * @param operation Index of the operation in the list given to the constructor
+     */
+    public void stop(int operation, long startNanos) {
+        Timer[] bound = timers;
+        if (bound == null) {
+            return;
+        }
+        calls[operation].increment();
+        if (startNanos != 0L) {
+            bound[operation].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.interview.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Wraps beans annotated with {@link TimedOperations} in a proxy that counts and times their
+ * operations with {@link OperationTimers}, so the beans themselves carry no timing code and
+ * no meter types. Beans that are already proxies get the timing advice added in front of
+ * their existing advice.
+ * <p>
+ * The timers are created as beans are initialized and measure nothing until
+ * {@link #bindTo(MeterRegistry)} is called.
+ */
+public class OperationTimingPostProcessor implements BeanPostProcessor {
+
+    private final List<OperationTimers> timers = new ArrayList<>();
+    private MeterRegistry registry;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Class<?> targetClass = AopUtils.getTargetClass(bean);
+        TimedOperations timed = AnnotationUtils.findAnnotation(targetClass, TimedOperations.class);
+        if (timed == null) {
+            return bean;
+        }
+        TimingInterceptor interceptor = new TimingInterceptor(timed, operationNames(targetClass));
+        register(interceptor.timers);
+        if (bean instanceof Advised advised && !advised.isFrozen()) {
+            advised.addAdvice(0, interceptor);
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(interceptor);
+        return proxyFactory.getProxy(targetClass.getClassLoader());
+    }
+
+    /**
+     * Register the timers of every bean timed so far, and of those timed later as they are created.
+     */
+    public synchronized void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        timers.forEach(operationTimers -> operationTimers.bindTo(registry));
+    }
+
+    private synchronized void register(OperationTimers operationTimers) {
+        timers.add(operationTimers);
+        if (registry != null) {
+            operationTimers.bindTo(registry);
+        }
+    }
+
+    /**
+     * Names of the methods measured on {@code targetClass}, in a stable order.
+     */
+    static List<String> operationNames(Class<?> targetClass) {
+        Class<?>[] interfaces = ClassUtils.getAllInterfacesForClass(targetClass);
+        TreeSet<String> names = new TreeSet<>();
+        if (interfaces.length == 0) {
+            for (Method method : targetClass.getMethods()) {
+                if (method.getDeclaringClass() != Object.class && !Modifier.isStatic(method.getModifiers())) {
+                    names.add(method.getName());
+                }
+            }
+        } else {
+            for (Class<?> type : interfaces) {
+                Arrays.stream(type.getMethods())
+                        .filter(method -> !Modifier.isStatic(method.getModifiers()))
+                        .forEach(method -> names.add(method.getName()));
+            }
+        }
+        return List.copyOf(names);
+    }
+
+    private static final class TimingInterceptor implements MethodInterceptor {
+
+        private final OperationTimers timers;
+        private final Map<String, Integer> operations = new HashMap<>();
+
+        TimingInterceptor(TimedOperations timed, List<String> operationNames) {
+            this.timers = new OperationTimers(timed.value(), timed.description(), operationNames, timed.sampleInterval());
+            for (int i = 0; i < operationNames.size(); i++) {
+                operations.put(operationNames.get(i), i);
+            }
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Integer operation = operations.get(invocation.getMethod().getName());
+            if (operation == null) {
+                return invocation.proceed();
+            }
+            long start = timers.start();
+            try {
+                return invocation.proceed();
+            } finally {
+                timers.stop(operation, start);
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.interview.metrics;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a bean whose calls are counted and timed by {@link OperationTimingPostProcessor}.
+ * <p>
+ * The operations are the methods of the interfaces the bean implements, or all of its public
+ * methods if it implements none, and are tagged with the method name; overloads share a tag.
+ * Only calls made through the bean reference are measured, so one operation calling another
+ * on the same bean is measured once.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface TimedOperations {
+
+    /**
+     * Meter name, e.g. {@code users.repository}.
+     */
+    String value();
+
+    String description();
+
+    /**
+     * Time one call in this many; must be a power of two. Every call is counted.
+     */
+    int sampleInterval() default 1;
+}
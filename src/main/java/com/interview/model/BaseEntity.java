@@ -2,12 +2,19 @@ package com.interview.model;
 
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
+/**
+ * Common entity fields. Once an entity is {@link #freeze() frozen} it is an immutable snapshot:
+ * every setter throws, so a stored instance can be shared with concurrent readers and changes
+ * are made on a copy.
+ */
 @MappedSuperclass
 public abstract class BaseEntity {
 
+    // Sequence values are fetched in blocks, so inserts need no round trip for their ids and can be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
     private Long id;
 
     @Column(name = "created_at", nullable = false, updatable = false)
@@ -16,15 +23,30 @@ public abstract class BaseEntity {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Incremented on every update; writes made from an older version are rejected
+    @Version
+    private Long version;
+
+    @Transient
+    private transient boolean frozen;
+
+    /**
+     * Fill in timestamps the caller has not set. Repositories stamp updatedAt themselves, from the
+     * time the write began, and a creation time may be set ahead, such as the shared timestamp
+     * of a bulk insert. Timestamps are cut to the microsecond precision of the column, so the
+     * instance matches what is read back.
+     */
     @PrePersist
     protected void onCreate() {
-        createdAt = LocalDateTime.now();
-        updatedAt = LocalDateTime.now();
+        createdAt = (createdAt == null ? LocalDateTime.now() : createdAt).truncatedTo(ChronoUnit.MICROS);
+        updatedAt = updatedAt == null ? createdAt : updatedAt.truncatedTo(ChronoUnit.MICROS);
     }
 
     @PreUpdate
     protected void onUpdate() {
-        updatedAt = LocalDateTime.now();
+        if (updatedAt == null) {
+            updatedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        }
     }
 
     // Getters and Setters
@@ -33,6 +55,7 @@ public abstract class BaseEntity {
     }
 
     public void setId(Long id) {
+        checkMutable();
         this.id = id;
     }
 
@@ -40,7 +63,54 @@ public abstract class BaseEntity {
         return createdAt;
     }
 
+    public void setCreatedAt(LocalDateTime createdAt) {
+        checkMutable();
+        this.createdAt = createdAt;
+    }
+
     public LocalDateTime getUpdatedAt() {
         return updatedAt;
     }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        checkMutable();
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        checkMutable();
+        this.version = version;
+    }
+
+    /**
+     * Make this instance read-only. Must happen before the instance is shared between threads.
+     */
+    public void freeze() {
+        frozen = true;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    protected void checkMutable() {
+        if (frozen) {
+            throw new IllegalStateException(getClass().getSimpleName() + " " + id
+                    + " is a stored snapshot and cannot be modified; change a copy instead");
+        }
+    }
+
+    /**
+     * Copy the common fields into {@code target}, which is left unfrozen.
+     */
+    protected void copyBaseTo(BaseEntity target) {
+        target.id = id;
+        target.createdAt = createdAt;
+        target.updatedAt = updatedAt;
+        target.version = version;
+    }
 }
@@ -4,8 +4,14 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 
+import java.time.LocalDateTime;
+import java.util.Locale;
+
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_created_at", columnList = "created_at, id"),
+        @Index(name = "idx_users_updated_at", columnList = "updated_at, id")
+})
 public class User extends BaseEntity {
 
     @NotBlank(message = "Name is required")
@@ -13,17 +19,28 @@ public class User extends BaseEntity {
     private String name;
 
     @NotBlank(message = "Username is required")
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String username;
 
     @NotBlank(message = "Email is required")
     @Email(message = "Email should be valid")
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String email;
 
     private String phone;
     private String website;
 
+    // Normalized username and email: unique, case-insensitive keys for the database backend
+    @Column(name = "username_key", nullable = false, unique = true)
+    private String usernameKey;
+
+    @Column(name = "email_key", nullable = false, unique = true)
+    private String emailKey;
+
+    // Set on tombstones, which stand in for deleted users in delta queries
+    @Transient
+    private transient boolean deleted;
+
     public User() {}
 
     public User(String name, String username, String email, String phone, String website) {
@@ -34,12 +51,57 @@ public class User extends BaseEntity {
         this.website = website;
     }
 
+    @PrePersist
+    @PreUpdate
+    protected void updateKeys() {
+        usernameKey = normalizeKey(username);
+        emailKey = normalizeKey(email);
+    }
+
+    /**
+     * Normalize a username or email into its unique index key.
+     * Keys are compared case-insensitively and ignore surrounding whitespace.
+     */
+    public static String normalizeKey(String value) {
+        return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Unfrozen copy of this user, including id, timestamps and version, for making changes.
+     */
+    public User copy() {
+        User copy = new User(name, username, email, phone, website);
+        copyBaseTo(copy);
+        return copy;
+    }
+
+    /**
+     * Frozen tombstone recording that this user was deleted at {@code deletedAt}, which becomes
+     * its updatedAt. Keeps the other fields so delta queries can still filter on them.
+     */
+    public User tombstone(LocalDateTime deletedAt) {
+        User tombstone = copy();
+        tombstone.setUpdatedAt(deletedAt);
+        tombstone.setVersion(getVersion() == null ? null : getVersion() + 1);
+        tombstone.deleted = true;
+        tombstone.freeze();
+        return tombstone;
+    }
+
+    /**
+     * True for a tombstone of a deleted user.
+     */
+    public boolean isDeleted() {
+        return deleted;
+    }
+
     // Getters and Setters
     public String getName() {
         return name;
     }
 
     public void setName(String name) {
+        checkMutable();
         this.name = name;
     }
 
@@ -48,6 +110,7 @@ public class User extends BaseEntity {
     }
 
     public void setUsername(String username) {
+        checkMutable();
         this.username = username;
     }
 
@@ -56,6 +119,7 @@ public class User extends BaseEntity {
     }
 
     public void setEmail(String email) {
+        checkMutable();
         this.email = email;
     }
 
@@ -64,6 +128,7 @@ public class User extends BaseEntity {
     }
 
     public void setPhone(String phone) {
+        checkMutable();
         this.phone = phone;
     }
 
@@ -72,6 +137,7 @@ public class User extends BaseEntity {
     }
 
     public void setWebsite(String website) {
+        checkMutable();
         this.website = website;
     }
 }
@@ -0,0 +1,838 @@
+package com.interview.repository;
+
+import com.interview.exception.ConcurrentUpdateException;
+import com.interview.metrics.TimedOperations;
+import com.interview.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.stream.StreamSupport;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps all users on the heap, with hash and ordered indexes for every lookup the API serves.
+ * Optionally made durable by a {@link UserMutationLog} and snapshots.
+ * <p>
+ * Users are partitioned by id hash into {@code users.storage.shards} shards, each with its own
+ * store, search index and sort index, so concurrent writers mostly touch different structures.
+ * Scans run on all shards in parallel, and ordered reads merge the shards' orders. Usernames and
+ * emails are unique across all users, so their indexes are shared.
+ */
+@Repository
+@ConditionalOnProperty(name = "users.storage.backend", havingValue = "memory", matchIfMissing = true)
+// Lookups take tens of nanoseconds, so only one call in 64 is timed
+@TimedOperations(value = "users.repository", description = "Time spent in UserRepository operations", sampleInterval = 64)
+public class InMemoryUserRepository implements UserRepository {
+
+    private static final Comparator<User> BY_ID = Comparator.comparingLong(User::getId);
+
+    // Primary storage and per-user indexes, selected by id hash
+    private final Shard[] shards;
+    // Shared by all shards so ids stay in creation order for id paging
+    private final AtomicLong idGenerator = new AtomicLong(5);
+    // Bumped after every write is visible, so a reader that sees a version also sees its write
+    private final AtomicLong modificationVersion = new AtomicLong();
+
+    // Unique secondary indexes: normalized username/email -> owning user id
+    private final Map<String, Long> usernameIndex = new ConcurrentHashMap<>();
+    private final Map<String, Long> emailIndex = new ConcurrentHashMap<>();
+    // Recently deleted users, reported by delta queries
+    private final UserTombstones tombstones;
+    // Stamps updatedAt inside each write, so delta queries can stop below writes still in flight
+    private final UserWriteClock writeClock = new UserWriteClock();
+
+    private volatile UserMutationLog mutationLog = UserMutationLog.NONE;
+    private volatile UserChangeListener changeListener = UserChangeListener.NONE;
+
+    public InMemoryUserRepository() {
+        this(1);
+    }
+
+    public InMemoryUserRepository(int shardCount) {
+        this(shardCount, Duration.ofHours(24));
+    }
+
+    @Autowired
+    public InMemoryUserRepository(@Value("${users.storage.shards:1}") int shardCount,
+                                  @Value("${users.storage.tombstone-retention:24h}") Duration tombstoneRetention) {
+        this.tombstones = new UserTombstones(tombstoneRetention);
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be greater than 0");
+        }
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard();
+        }
+        // Initialize with sample data from JSONPlaceholder
+        initializeSampleData();
+    }
+
+    private void initializeSampleData() {
+        createSampleUser(1L, "Leanne Graham", "Bret", "Sincere@april.biz", "1-770-736-8031 x56442", "hildegard.org");
+        createSampleUser(2L, "Ervin Howell", "Antonette", "Shanna@melissa.tv", "010-692-6593 x09125", "anastasia.net");
+        createSampleUser(3L, "Clementine Bauch", "Samantha", "Nathan@yesenia.net", "1-463-123-4447", "ramiro.info");
+        createSampleUser(4L, "Patricia Lebsack", "Karianne", "Julianne.OConner@kory.org", "493-170-9623 x156", "kale.biz");
+        createSampleUser(5L, "Chelsey Dietrich", "Kamren", "Lucio_Hettinger@annie.ca", "(254)954-1289", "demarco.info");
+    }
+
+    private void createSampleUser(Long id, String name, String username, String email, String phone, String website) {
+        User user = new User(name, username, email, phone, website);
+        user.setId(id);
+        // Set timestamps manually for sample data
+        stampCreated(user, LocalDateTime.now());
+        store(user, false);
+    }
+
+    @Override
+    public List<User> findAll() {
+        // Each shard is copied on its own fork/join worker, then the copies are merged by id
+        List<List<User>> copies = Arrays.stream(shards).parallel()
+                .map(shard -> {
+                    List<User> copy = new ArrayList<>((int) Math.min(shard.users.size(), Integer.MAX_VALUE - 8));
+                    shard.users.ascending(null).forEachRemaining(copy::add);
+                    return copy;
+                })
+                .toList();
+        if (copies.size() == 1) {
+            return copies.get(0);
+        }
+        List<User> all = new ArrayList<>(copies.stream().mapToInt(List::size).sum());
+        MergingIterator.of(copies.stream().map(List::iterator).toList(), BY_ID).forEachRemaining(all::add);
+        return all;
+    }
+
+    /**
+     * Return one page of users in id order without copying the rest of the table.
+     *
+     * @param offset Number of users to skip
+     * @param limit Maximum number of users to return
+     * @return Users in the requested window
+     */
+    @Override
+    public List<User> findPage(long offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit must not be negative");
+        }
+        long size = size();
+        if (limit == 0 || offset >= size) {
+            return Collections.emptyList();
+        }
+        List<User> page = new ArrayList<>((int) Math.min(limit, size));
+        Iterator<User> iterator = ascending(null);
+        for (long skipped = 0; skipped < offset && iterator.hasNext(); skipped++) {
+            iterator.next();
+        }
+        while (page.size() < limit && iterator.hasNext()) {
+            page.add(iterator.next());
+        }
+        return page;
+    }
+
+    /**
+     * Return up to {@code limit} users with ids greater than {@code afterId}, in id order.
+     * Seeks directly into the ordered index, so the cost does not depend on how deep the cursor is.
+     *
+     * @param afterId Last-seen id, or null to start from the first user
+     * @param limit Maximum number of users to return
+     * @return Users following the cursor
+     */
+    @Override
+    public List<User> findAfter(Long afterId, int limit) {
+        List<User> page = new ArrayList<>((int) Math.min(limit, size()));
+        Iterator<User> iterator = ascending(afterId);
+        while (page.size() < limit && iterator.hasNext()) {
+            page.add(iterator.next());
+        }
+        return page;
+    }
+
+    /**
+     * Return one page of users in query order, skipping {@code offset} matches.
+     * Costs a seek plus a walk over the skipped and returned users when every filter is served
+     * by the index being walked (email domain always; createdAt range when sorting by createdAt).
+     * Other filters are checked per user along the walk.
+     */
+    @Override
+    public List<User> findPage(UserQuery query, long offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit must not be negative");
+        }
+        Iterator<User> iterator = sortedUsers(query, null, 0);
+        for (long skipped = 0; skipped < offset && iterator.hasNext(); skipped++) {
+            iterator.next();
+        }
+        List<User> page = new ArrayList<>(Math.min(limit, 1024));
+        while (page.size() < limit && iterator.hasNext()) {
+            page.add(iterator.next());
+        }
+        return page;
+    }
+
+    /**
+     * Return up to {@code limit} users following a position in query order.
+     * Seeks straight to the position, so the cost does not depend on how deep it is.
+     *
+     * @param afterValue Sort value of the last-seen user, as given by {@link UserSortField#valueOf}
+     * @param afterId Id of the last-seen user
+     */
+    @Override
+    public List<User> findAfter(UserQuery query, Comparable<?> afterValue, long afterId, int limit) {
+        Iterator<User> iterator = sortedUsers(query, afterValue, afterId);
+        List<User> page = new ArrayList<>(Math.min(limit, 1024));
+        while (page.size() < limit && iterator.hasNext()) {
+            page.add(iterator.next());
+        }
+        return page;
+    }
+
+    /**
+     * Number of users matching the query's filters. Walks the matches unless there are no filters,
+     * counting each shard's matches in parallel.
+     */
+    @Override
+    public long count(UserQuery requested) {
+        UserQuery query = writeClock.settled(requested);
+        if (query == null) {
+            return 0;
+        }
+        if (query.emailDomain() == null && query.createdFrom() == null && query.createdTo() == null
+                && !query.isDelta()) {
+            return size();
+        }
+        long deleted = 0;
+        if (query.isDelta()) {
+            Iterator<User> iterator = matching(query, tombstones.range(query, null, 0));
+            while (iterator.hasNext()) {
+                iterator.next();
+                deleted++;
+            }
+        }
+        return deleted + Arrays.stream(shards).parallel()
+                .mapToLong(shard -> {
+                    long count = 0;
+                    Iterator<User> iterator = matching(query, candidates(shard, query));
+                    while (iterator.hasNext()) {
+                        iterator.next();
+                        count++;
+                    }
+                    return count;
+                })
+                .sum();
+    }
+
+    /**
+     * Users in query order that pass its filters, from the primary indexes for plain id order
+     * and from the sorted indexes otherwise, merged across shards and, for a delta query, with
+     * the tombstones in its range. A delta query stops below the oldest write still in flight.
+     */
+    private Iterator<User> sortedUsers(UserQuery requested, Comparable<?> afterValue, long afterId) {
+        UserQuery query = writeClock.settled(requested);
+        if (query == null) {
+            return Collections.emptyIterator();
+        }
+        if (query.isDelta()) {
+            Iterator<User> users = tombstones.mergeInto(liveUsers(query, afterValue, afterId), query, afterValue, afterId);
+            return matching(query, users);
+        }
+        return liveUsers(query, afterValue, afterId);
+    }
+
+    private Iterator<User> liveUsers(UserQuery query, Comparable<?> afterValue, long afterId) {
+        if (servedByPrimaryIndex(query)) {
+            Long after = afterValue == null ? null : afterId;
+            return matching(query, query.descending() ? descending(after) : ascending(after));
+        }
+        Iterator<UserSortIndex.Key> keys = MergingIterator.of(
+                Arrays.stream(shards).map(shard -> shard.sortIndex.keys(query, afterValue, afterId)).toList(),
+                query.descending() ? Comparator.<UserSortIndex.Key>reverseOrder() : Comparator.<UserSortIndex.Key>naturalOrder());
+        return matching(query, new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return keys.hasNext();
+            }
+
+            @Override
+            public User next() {
+                long id = keys.next().id();
+                return shardOf(id).users.get(id);
+            }
+        });
+    }
+
+    /**
+     * One shard's users in query order, before filtering.
+     */
+    private static Iterator<User> candidates(Shard shard, UserQuery query) {
+        if (servedByPrimaryIndex(query)) {
+            return query.descending() ? shard.users.descending(null) : shard.users.ascending(null);
+        }
+        Iterator<UserSortIndex.Key> keys = shard.sortIndex.keys(query, null, 0);
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return keys.hasNext();
+            }
+
+            @Override
+            public User next() {
+                return shard.users.get(keys.next().id());
+            }
+        };
+    }
+
+    private static boolean servedByPrimaryIndex(UserQuery query) {
+        return query.sortField() == UserSortField.ID && query.emailDomain() == null;
+    }
+
+    /**
+     * The candidates that pass the query's filters.
+     */
+    private static Iterator<User> matching(UserQuery query, Iterator<User> candidates) {
+        return new Iterator<>() {
+            private User next = advance();
+
+            private User advance() {
+                while (candidates.hasNext()) {
+                    User candidate = candidates.next();
+                    // Null if deleted after its index entry was read
+                    if (candidate != null && query.matches(candidate)) {
+                        return candidate;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public User next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                User current = next;
+                next = advance();
+                return current;
+            }
+        };
+    }
+
+    /**
+     * Find users for a typeahead query. Every word of the query must be a prefix of a word in the
+     * user's name, username or email, case-insensitively. Only the index range of the most selective
+     * word is walked, and each candidate is checked against the other words through its indexed tokens.
+     *
+     * @param query Search text
+     * @param maxMatches Stop after this many matches
+     * @return Matching users in id order, the lowest ids first
+     * @throws IllegalArgumentException if the query contains no letters or digits
+     */
+    @Override
+    public List<User> search(String query, int maxMatches) {
+        String[] terms = UserSearchIndex.tokenize(query);
+        if (terms.length == 0) {
+            throw new IllegalArgumentException("Search query must contain a letter or digit");
+        }
+        String prefix = mostSelective(terms, maxMatches);
+        Iterator<UserSearchIndex.Posting> candidates = MergingIterator.of(
+                Arrays.stream(shards).flatMap(shard -> shard.searchIndex.runsWithPrefix(prefix).stream()).toList(),
+                UserSearchIndex.BY_ID);
+        List<User> matches = new ArrayList<>();
+        long previousId = Long.MIN_VALUE;
+        while (matches.size() < maxMatches && candidates.hasNext()) {
+            long id = candidates.next().id();
+            // A user has one posting per matching token, and those arrive together
+            if (id == previousId) {
+                continue;
+            }
+            previousId = id;
+            Shard shard = shardOf(id);
+            User user = shard.users.get(id);
+            if (user != null && shard.searchIndex.matches(id, terms)) {
+                matches.add(user);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Pick the term with the fewest postings, counting each only as far as needed to compare.
+     */
+    private String mostSelective(String[] terms, int maxMatches) {
+        if (terms.length == 1) {
+            return terms[0];
+        }
+        long probeLimit = Math.max(64L, 4L * maxMatches);
+        String best = terms[0];
+        long bestCount = Long.MAX_VALUE;
+        for (String term : terms) {
+            long limit = Math.min(probeLimit, bestCount);
+            long count = 0;
+            for (Shard shard : shards) {
+                count += shard.searchIndex.countWithPrefix(term, limit - count);
+            }
+            if (count < bestCount) {
+                best = term;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Stream all users in id order straight off the ordered index, without copying.
+     * The stream is weakly consistent: writes made while it is consumed may or may not be seen.
+     */
+    @Override
+    public java.util.stream.Stream<User> streamAll() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(ascending(null),
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Number of stored users, read from the stores' size counters rather than by traversal.
+     */
+    @Override
+    public long count() {
+        return size();
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return Optional.ofNullable(shardOf(id).users.get(id));
+    }
+
+    @Override
+    public Optional<User> findByUsername(String username) {
+        return findByIndexedKey(usernameIndex, username);
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return findByIndexedKey(emailIndex, email);
+    }
+
+    /**
+     * Insert a new user or replace an existing one. Stored users are frozen snapshots: to change
+     * one, save a {@link User#copy()} of it, which carries its version and so fails with
+     * {@link ConcurrentUpdateException} if another write got there first.
+     * The given instance is stamped, frozen and stored as is.
+     */
+    @Override
+    public User save(User user) {
+        if (user.getId() == null) {
+            user.setId(idGenerator.incrementAndGet());
+            // Stamped with the write's updatedAt once it is applied
+            user.setCreatedAt(null);
+        }
+        return store(user, true);
+    }
+
+    /**
+     * Reserve a contiguous block of ids with a single counter update.
+     *
+     * @param count Number of ids to reserve
+     * @return First id of the block
+     */
+    public long allocateIds(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Id block size must be greater than 0");
+        }
+        return idGenerator.getAndAdd(count) + 1;
+    }
+
+    /**
+     * Store a new user whose id was reserved through {@link #allocateIds(int)}.
+     *
+     * @throws IllegalArgumentException if the username or email belongs to another user
+     */
+    public User insert(User user, LocalDateTime createdAt) {
+        if (user.getId() == null || shardOf(user.getId()).users.contains(user.getId())) {
+            throw new IllegalStateException("Insert requires a freshly allocated id");
+        }
+        user.setCreatedAt(createdAt);
+        return store(user, true);
+    }
+
+    @Override
+    public void insertAll(List<User> newUsers, LocalDateTime createdAt,
+                          BiConsumer<User, IllegalArgumentException> onConflict) {
+        if (newUsers.isEmpty()) {
+            return;
+        }
+        long nextId = allocateIds(newUsers.size());
+        for (User user : newUsers) {
+            user.setId(nextId++);
+            try {
+                insert(user, createdAt);
+            } catch (IllegalArgumentException ex) {
+                onConflict.accept(user, ex);
+            }
+        }
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        UserMutationLog log = mutationLog;
+        UserChangeListener listener = changeListener;
+        long[] position = new long[1];
+        boolean[] removed = new boolean[1];
+        UserChangeListener.PendingChange[] change = {UserChangeListener.PendingChange.NONE};
+        LocalDateTime[] stamp = new LocalDateTime[1];
+        Shard shard = shardOf(id);
+        shard.snapshotLock.readLock().lock();
+        log.beginMutation();
+        try {
+            shard.users.compute(id, current -> {
+                if (current == null) {
+                    return null;
+                }
+                stamp[0] = writeClock.begin();
+                position[0] = log.logDelete(id);
+                removed[0] = true;
+                UniqueKeys keys = UniqueKeys.of(current);
+                usernameIndex.remove(keys.username(), id);
+                emailIndex.remove(keys.email(), id);
+                shard.searchIndex.remove(id);
+                shard.sortIndex.remove(id, current);
+                tombstones.add(current.tombstone(stamp[0]));
+                change[0] = listener.userDeleted(id);
+                return null;
+            });
+            if (removed[0]) {
+                modificationVersion.incrementAndGet();
+            }
+        } finally {
+            if (stamp[0] != null) {
+                writeClock.end(stamp[0]);
+            }
+            log.endMutation();
+            shard.snapshotLock.readLock().unlock();
+        }
+        awaitDurable(log, position[0], change[0]);
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return shardOf(id).users.contains(id);
+    }
+
+    /**
+     * Number of stored users, read from the stores' size counters. Same as {@link #count()}, for
+     * gauges that should not show up as repository calls.
+     */
+    public long size() {
+        long size = 0;
+        for (Shard shard : shards) {
+            size += shard.users.size();
+        }
+        return size;
+    }
+
+    /**
+     * Number of keys in the unique username index.
+     */
+    public int usernameIndexSize() {
+        return usernameIndex.size();
+    }
+
+    /**
+     * Number of keys in the unique email index.
+     */
+    public int emailIndexSize() {
+        return emailIndex.size();
+    }
+
+    /**
+     * Attach the log that records every save and delete from now on.
+     */
+    public void setMutationLog(UserMutationLog mutationLog) {
+        this.mutationLog = mutationLog == null ? UserMutationLog.NONE : mutationLog;
+    }
+
+    @Override
+    public LocalDateTime deletionsTrackedSince() {
+        return tombstones.trackedSince();
+    }
+
+    @Override
+    public void setChangeListener(UserChangeListener listener) {
+        this.changeListener = listener == null ? UserChangeListener.NONE : listener;
+    }
+
+    /**
+     * Replace the whole dataset with recovered users, keeping their ids and timestamps.
+     * Users are installed and indexed in parallel. Writes are not logged, so this must run
+     * before the application starts serving.
+     *
+     * @param restoredUsers Users to install
+     * @param idHighWaterMark Highest id ever handed out, including ids of since-deleted users
+     * @throws IllegalStateException if the restored users violate username/email uniqueness
+     */
+    public void restoreAll(Collection<User> restoredUsers, long idHighWaterMark) {
+        for (Shard shard : shards) {
+            shard.users.clear();
+            shard.searchIndex.clear();
+            shard.sortIndex.clear();
+        }
+        usernameIndex.clear();
+        emailIndex.clear();
+        tombstones.clear();
+
+        long maxId = restoredUsers.parallelStream()
+                .mapToLong(user -> {
+                    try {
+                        // Restored users start a new version history
+                        store(user.isFrozen() || user.getVersion() != null ? unversionedCopy(user) : user, false);
+                    } catch (IllegalArgumentException ex) {
+                        throw new IllegalStateException("Restored user " + user.getId() + " is inconsistent: " + ex.getMessage(), ex);
+                    }
+                    return user.getId();
+                })
+                .max()
+                .orElse(0);
+        idGenerator.set(Math.max(maxId, idHighWaterMark));
+        modificationVersion.incrementAndGet();
+    }
+
+    /**
+     * Capture a point-in-time view of all users in id order together with the id high-water mark.
+     * Writers are paused only while the references are copied.
+     */
+    public Snapshot snapshot() {
+        // Always locked in shard order, and only here, so snapshots cannot deadlock each other
+        for (Shard shard : shards) {
+            shard.snapshotLock.writeLock().lock();
+        }
+        try {
+            return new Snapshot(findAll(), idGenerator.get());
+        } finally {
+            for (Shard shard : shards) {
+                shard.snapshotLock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Counter that changes whenever any user is saved or deleted. Read it before reading
+     * users to get a version that is never newer than the data read.
+     */
+    @Override
+    public long modificationVersion() {
+        return modificationVersion.get();
+    }
+
+    /**
+     * Highest id handed out so far.
+     */
+    public long idHighWaterMark() {
+        return idGenerator.get();
+    }
+
+    /**
+     * Store the user and claim its username/email keys in one step.
+     * Writes to the same id are serialized by the store, and each key is claimed with
+     * putIfAbsent, so two concurrent writers can never both own the same username or email.
+     * The mutation log is appended and the change listener notified inside the same step,
+     * so their order matches the store's. Logged writes are also stamped with updatedAt there,
+     * and with createdAt if they have none, so a write's stamp is taken only once it holds its id.
+     * Restores ({@code logged} false) keep their timestamps and are not reported.
+     * <p>
+     * A user carrying a version is only stored if that is still the current version of its id,
+     * which makes read-copy-save a compare-and-set. The stored instance gets the next version
+     * and is frozen before it becomes visible, so readers only ever see complete snapshots.
+     *
+     * @throws IllegalArgumentException if the username or email belongs to another user
+     * @throws ConcurrentUpdateException if the user was changed or deleted since its version was read
+     */
+    private User store(User user, boolean logged) {
+        UserMutationLog log = logged ? mutationLog : UserMutationLog.NONE;
+        UserChangeListener listener = logged ? changeListener : UserChangeListener.NONE;
+        UniqueKeys keys = UniqueKeys.of(user);
+        long[] position = new long[1];
+        UserChangeListener.PendingChange[] change = {UserChangeListener.PendingChange.NONE};
+        LocalDateTime[] stamp = new LocalDateTime[1];
+        Long id = user.getId();
+        Shard shard = shardOf(id);
+        shard.snapshotLock.readLock().lock();
+        log.beginMutation();
+        try {
+            shard.users.compute(id, current -> {
+                Long expectedVersion = user.getVersion();
+                if (expectedVersion != null && (current == null || !expectedVersion.equals(current.getVersion()))) {
+                    throw new ConcurrentUpdateException(current == null
+                            ? "User " + id + " was deleted concurrently"
+                            : "User " + id + " was modified concurrently");
+                }
+                if (logged) {
+                    stamp[0] = writeClock.begin();
+                    if (user.getCreatedAt() == null) {
+                        user.setCreatedAt(stamp[0]);
+                    }
+                    user.setUpdatedAt(stamp[0]);
+                }
+                UniqueKeys previous = current == null ? null : UniqueKeys.of(current);
+                claimKeys(id, keys, previous, user);
+                try {
+                    position[0] = log.logSave(user);
+                } catch (RuntimeException ex) {
+                    releaseNewKeys(id, keys, previous);
+                    throw ex;
+                }
+                releaseOldKeys(id, keys, previous);
+                user.setVersion(current == null || current.getVersion() == null ? 0L : current.getVersion() + 1);
+                user.freeze();
+                shard.searchIndex.index(id, user);
+                shard.sortIndex.index(id, current, user);
+                change[0] = listener.userSaved(user);
+                return user;
+            });
+            modificationVersion.incrementAndGet();
+        } finally {
+            if (stamp[0] != null) {
+                writeClock.end(stamp[0]);
+            }
+            log.endMutation();
+            shard.snapshotLock.readLock().unlock();
+        }
+        awaitDurable(log, position[0], change[0]);
+        return user;
+    }
+
+    /**
+     * Wait for a write to become durable, then release its change to listeners. A write whose
+     * durability fails is reported to the caller and never to listeners.
+     */
+    private static void awaitDurable(UserMutationLog log, long position, UserChangeListener.PendingChange change) {
+        try {
+            log.awaitDurable(position);
+        } catch (RuntimeException | Error ex) {
+            change.discard();
+            throw ex;
+        }
+        change.publish();
+    }
+
+    private void claimKeys(Long id, UniqueKeys keys, UniqueKeys previous, User user) {
+        claim(usernameIndex, keys.username(), id, "Username", user.getUsername());
+        try {
+            claim(emailIndex, keys.email(), id, "Email", user.getEmail());
+        } catch (IllegalArgumentException ex) {
+            // Roll back the username claim unless this user already owned it
+            if (previous == null || !previous.username().equals(keys.username())) {
+                usernameIndex.remove(keys.username(), id);
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Undo {@link #claimKeys} for keys the user did not own before.
+     */
+    private void releaseNewKeys(Long id, UniqueKeys keys, UniqueKeys previous) {
+        if (previous == null || !previous.username().equals(keys.username())) {
+            usernameIndex.remove(keys.username(), id);
+        }
+        if (previous == null || !previous.email().equals(keys.email())) {
+            emailIndex.remove(keys.email(), id);
+        }
+    }
+
+    /**
+     * Release keys the user no longer owns.
+     */
+    private void releaseOldKeys(Long id, UniqueKeys keys, UniqueKeys previous) {
+        if (previous != null) {
+            if (!previous.username().equals(keys.username())) {
+                usernameIndex.remove(previous.username(), id);
+            }
+            if (!previous.email().equals(keys.email())) {
+                emailIndex.remove(previous.email(), id);
+            }
+        }
+    }
+
+    private static void claim(Map<String, Long> index, String key, Long id, String fieldName, String value) {
+        Long owner = index.putIfAbsent(key, id);
+        if (owner != null && !owner.equals(id)) {
+            throw new IllegalArgumentException(fieldName + " '" + value + "' already exists");
+        }
+    }
+
+    private Optional<User> findByIndexedKey(Map<String, Long> index, String value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        Long id = index.get(User.normalizeKey(value));
+        return id == null ? Optional.empty() : Optional.ofNullable(shardOf(id).users.get(id));
+    }
+
+    private Shard shardOf(long id) {
+        // Ids are handed out sequentially, so their hash spreads them round-robin
+        return shards[Math.floorMod(Long.hashCode(id), shards.length)];
+    }
+
+    /**
+     * All users in ascending id order, starting after {@code afterId} if it is not null.
+     */
+    private Iterator<User> ascending(Long afterId) {
+        return MergingIterator.of(Arrays.stream(shards).map(shard -> shard.users.ascending(afterId)).toList(), BY_ID);
+    }
+
+    private Iterator<User> descending(Long beforeId) {
+        return MergingIterator.of(Arrays.stream(shards).map(shard -> shard.users.descending(beforeId)).toList(),
+                BY_ID.reversed());
+    }
+
+    private static User unversionedCopy(User user) {
+        User copy = user.copy();
+        copy.setVersion(null);
+        return copy;
+    }
+
+    private static void stampCreated(User user, LocalDateTime now) {
+        user.setCreatedAt(now);
+        user.setUpdatedAt(now);
+    }
+
+    /**
+     * One partition of the users, with the indexes that are maintained per user. Updates for an id
+     * are serialized by its store's compute step, which also covers its index entries.
+     */
+    private static final class Shard {
+        // Primary storage by id, also serving id order for stable paging
+        final UserStore users = new UserStore();
+        // Word-prefix index for search
+        final UserSearchIndex searchIndex = new UserSearchIndex();
+        // Ordered indexes for sorted and filtered listing
+        final UserSortIndex sortIndex = new UserSortIndex();
+        // Shared by writers, taken exclusively by snapshot() to capture a point-in-time view
+        final ReentrantReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+    }
+
+    private record UniqueKeys(String username, String email) {
+        static UniqueKeys of(User user) {
+            return new UniqueKeys(User.normalizeKey(user.getUsername()),
+                    User.normalizeKey(user.getEmail()));
+        }
+    }
+
+    /**
+     * Point-in-time copy of the repository contents.
+     *
+     * @param users Users in id order
+     * @param idHighWaterMark Highest id handed out when the snapshot was taken
+     */
+    public record Snapshot(List<User> users, long idHighWaterMark) {
+    }
+}
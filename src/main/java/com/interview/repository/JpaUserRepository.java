@@ -0,0 +1,733 @@
+package com.interview.repository;
+
+import com.interview.exception.ConcurrentUpdateException;
+import com.interview.metrics.TimedOperations;
+import com.interview.model.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PersistenceException;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.StaleStateException;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Keeps users in the configured database through the JPA mapping of {@link User}.
+ * <p>
+ * Username and email uniqueness is enforced by unique indexes on their normalized keys, which
+ * also serve the lookups. Id order and id cursors seek on the primary key, and createdAt and
+ * updatedAt orders have their own indexes; name order and email domain filters are evaluated by
+ * the database without an index. New users take ids from a sequence fetched in blocks, so
+ * {@link #insertAll} goes out as JDBC batches of {@code hibernate.jdbc.batch_size} rows.
+ * <p>
+ * Every call runs in its own short transaction and returns detached, frozen users.
+ * {@link #modificationVersion()} and the change listener only see writes made through this
+ * instance, so with response caches or change feeds the database must not be written by other
+ * application instances. Changes are reported after their commit, so concurrent writes to the
+ * same user may be reported in either order; their versions tell which is newer.
+ * <p>
+ * A plain component rather than a {@code @Repository}: failures are translated here, and Spring's
+ * persistence exception translation would wrap the {@link IllegalArgumentException} for taken keys.
+ */
+@Component
+@ConditionalOnProperty(name = "users.storage.backend", havingValue = "jpa")
+// Every call is a database round trip, so each one is timed
+@TimedOperations(value = "users.repository", description = "Time spent in UserRepository operations")
+public class JpaUserRepository implements UserRepository {
+
+    // Rows fetched per query while search candidates are checked word by word, and while streaming
+    private static final int SEARCH_CHUNK_SIZE = 512;
+    private static final int STREAM_CHUNK_SIZE = 1_000;
+    // Keeps IN lists within what every database accepts
+    private static final int MAX_IN_PARAMETERS = 1_000;
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final int batchSize;
+    // Bumped after every committed write, so a reader that sees a version also sees its write
+    private final AtomicLong modificationVersion = new AtomicLong();
+    private volatile UserChangeListener changeListener = UserChangeListener.NONE;
+    // Recently deleted users, reported by delta queries
+    private final UserTombstones tombstones;
+    // Stamps updatedAt before each transaction, so delta queries can stop below uncommitted writes
+    private final UserWriteClock writeClock = new UserWriteClock();
+
+    @Autowired
+    public JpaUserRepository(EntityManagerFactory entityManagerFactory,
+                             @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}") int batchSize,
+                             @Value("${users.storage.tombstone-retention:24h}") Duration tombstoneRetention) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("JDBC batch size must be greater than 0");
+        }
+        this.entityManagerFactory = entityManagerFactory;
+        this.batchSize = batchSize;
+        this.tombstones = new UserTombstones(tombstoneRetention);
+    }
+
+    /**
+     * Seed an empty database with the same sample users as the in-memory backend.
+     */
+    @PostConstruct
+    void initializeSampleData() {
+        if (count() == 0) {
+            insertAll(List.of(
+                    new User("Leanne Graham", "Bret", "Sincere@april.biz", "1-770-736-8031 x56442", "hildegard.org"),
+                    new User("Ervin Howell", "Antonette", "Shanna@melissa.tv", "010-692-6593 x09125", "anastasia.net"),
+                    new User("Clementine Bauch", "Samantha", "Nathan@yesenia.net", "1-463-123-4447", "ramiro.info"),
+                    new User("Patricia Lebsack", "Karianne", "Julianne.OConner@kory.org", "493-170-9623 x156", "kale.biz"),
+                    new User("Chelsey Dietrich", "Kamren", "Lucio_Hettinger@annie.ca", "(254)954-1289", "demarco.info")
+            ), LocalDateTime.now(), (user, ex) -> {
+            });
+        }
+    }
+
+    @Override
+    public List<User> findAll() {
+        return read(em -> frozen(em.createQuery("select u from User u order by u.id", User.class).getResultList()));
+    }
+
+    @Override
+    public List<User> findPage(long offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit must not be negative");
+        }
+        if (limit == 0 || offset > Integer.MAX_VALUE) {
+            return Collections.emptyList();
+        }
+        return read(em -> frozen(em.createQuery("select u from User u order by u.id", User.class)
+                .setFirstResult((int) offset)
+                .setMaxResults(limit)
+                .getResultList()));
+    }
+
+    @Override
+    public List<User> findAfter(Long afterId, int limit) {
+        return findAfterId(afterId, limit);
+    }
+
+    /**
+     * A delta query stops below the oldest write not yet committed; see {@link UserWriteClock}.
+     */
+    @Override
+    public List<User> findPage(UserQuery requested, long offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit must not be negative");
+        }
+        UserQuery query = writeClock.settled(requested);
+        if (query == null || limit == 0 || offset > Integer.MAX_VALUE) {
+            return Collections.emptyList();
+        }
+        if (query.isDelta()) {
+            // Rows and tombstones interleave, so both are read from the start of the range
+            long window = Math.min(offset + limit, Integer.MAX_VALUE);
+            List<User> rows = read(em -> frozen(sortedQuery(em, query, null, 0)
+                    .setMaxResults((int) window)
+                    .getResultList()));
+            return page(tombstones.mergeInto(rows.iterator(), query, null, 0), query, offset, limit);
+        }
+        return read(em -> frozen(sortedQuery(em, query, null, 0)
+                .setFirstResult((int) offset)
+                .setMaxResults(limit)
+                .getResultList()));
+    }
+
+    /**
+     * Keyset page: the position is turned into a range condition on (sort value, id),
+     * so the database seeks instead of skipping rows.
+     */
+    @Override
+    public List<User> findAfter(UserQuery requested, Comparable<?> afterValue, long afterId, int limit) {
+        UserQuery query = writeClock.settled(requested);
+        if (query == null) {
+            return Collections.emptyList();
+        }
+        List<User> rows = read(em -> frozen(sortedQuery(em, query, afterValue, afterId)
+                .setMaxResults(limit)
+                .getResultList()));
+        if (!query.isDelta()) {
+            return rows;
+        }
+        return page(tombstones.mergeInto(rows.iterator(), query, afterValue, afterId), query, 0, limit);
+    }
+
+    @Override
+    public long count(UserQuery requested) {
+        UserQuery query = writeClock.settled(requested);
+        if (query == null) {
+            return 0;
+        }
+        Map<String, Object> parameters = new HashMap<>();
+        String where = filters(query, parameters);
+        long rows = read(em -> {
+            TypedQuery<Long> count = em.createQuery("select count(u) from User u where " + where, Long.class);
+            parameters.forEach(count::setParameter);
+            return count.getSingleResult();
+        });
+        if (!query.isDelta()) {
+            return rows;
+        }
+        long deleted = 0;
+        Iterator<User> iterator = tombstones.range(query, null, 0);
+        while (iterator.hasNext()) {
+            if (query.matches(iterator.next())) {
+                deleted++;
+            }
+        }
+        return rows + deleted;
+    }
+
+    /**
+     * Search by scanning in id order: the database narrows the rows to those containing every
+     * word anywhere in name, username or email, and each candidate's words are then checked
+     * here for the prefix match. Matches are returned in id order.
+     */
+    @Override
+    public List<User> search(String query, int maxMatches) {
+        String[] terms = UserSearchIndex.tokenize(query);
+        if (terms.length == 0) {
+            throw new IllegalArgumentException("Search query must contain a letter or digit");
+        }
+        StringBuilder jpql = new StringBuilder("select u from User u where u.id > :afterId");
+        for (int i = 0; i < terms.length; i++) {
+            jpql.append(" and (lower(u.name) like :term").append(i)
+                    .append(" or u.usernameKey like :term").append(i)
+                    .append(" or u.emailKey like :term").append(i).append(')');
+        }
+        jpql.append(" order by u.id");
+
+        List<User> matches = new ArrayList<>();
+        long afterId = Long.MIN_VALUE;
+        while (matches.size() < maxMatches) {
+            long chunkAfter = afterId;
+            List<User> candidates = read(em -> {
+                TypedQuery<User> chunk = em.createQuery(jpql.toString(), User.class)
+                        .setParameter("afterId", chunkAfter)
+                        .setMaxResults(SEARCH_CHUNK_SIZE);
+                for (int i = 0; i < terms.length; i++) {
+                    // Terms are letters and digits only, so they need no LIKE escaping
+                    chunk.setParameter("term" + i, "%" + terms[i] + "%");
+                }
+                return chunk.getResultList();
+            });
+            for (User candidate : candidates) {
+                String[] tokens = UserSearchIndex.tokenize(candidate.getName(), candidate.getUsername(), candidate.getEmail());
+                if (matches.size() < maxMatches && UserSearchIndex.matches(tokens, terms)) {
+                    candidate.freeze();
+                    matches.add(candidate);
+                }
+            }
+            if (candidates.size() < SEARCH_CHUNK_SIZE) {
+                break;
+            }
+            afterId = candidates.get(candidates.size() - 1).getId();
+        }
+        return matches;
+    }
+
+    /**
+     * Stream all users in id order, read in chunks so no connection is held while it is consumed.
+     */
+    @Override
+    public Stream<User> streamAll() {
+        Iterator<User> iterator = new Iterator<>() {
+            private List<User> chunk = findAfterId(null, STREAM_CHUNK_SIZE);
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                if (position == chunk.size() && chunk.size() == STREAM_CHUNK_SIZE) {
+                    chunk = findAfterId(chunk.get(chunk.size() - 1).getId(), STREAM_CHUNK_SIZE);
+                    position = 0;
+                }
+                return position < chunk.size();
+            }
+
+            @Override
+            public User next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return chunk.get(position++);
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    @Override
+    public long count() {
+        return read(em -> em.createQuery("select count(u) from User u", Long.class).getSingleResult());
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return Optional.ofNullable(read(em -> em.find(User.class, id))).map(JpaUserRepository::frozen);
+    }
+
+    @Override
+    public Optional<User> findByUsername(String username) {
+        return findByKey("usernameKey", username);
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return findByKey("emailKey", email);
+    }
+
+    /**
+     * New users are persisted with a sequence id and {@code @PrePersist} timestamps. Existing users
+     * are updated on the loaded row, whose version column turns a concurrent write into a
+     * {@link ConcurrentUpdateException}. The version is bumped on every save, as in memory.
+     */
+    @Override
+    public User save(User user) {
+        User saved;
+        if (user.getId() == null) {
+            user.setCreatedAt(null);
+            persist(user);
+            saved = user;
+        } else {
+            saved = update(user);
+        }
+        modificationVersion.incrementAndGet();
+        saved.freeze();
+        changeListener.userSaved(saved).publish();
+        return saved;
+    }
+
+    /**
+     * Persist all users in one transaction, flushed every batch size rows. Taken usernames and
+     * emails are looked up for the whole list first. If a concurrent writer claims one of them
+     * before the commit, the transaction is rolled back and the users are inserted one at a time.
+     */
+    @Override
+    public void insertAll(List<User> users, LocalDateTime createdAt,
+                          BiConsumer<User, IllegalArgumentException> onConflict) {
+        if (users.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<User, IllegalArgumentException>> conflicts = new ArrayList<>();
+        List<User> persisted = new ArrayList<>(users.size());
+        // The rows become visible together at commit, so they share one stamp
+        LocalDateTime stamp = writeClock.begin();
+        boolean conflicted = false;
+        try {
+            write(em -> {
+                Set<String> takenUsernames = new HashSet<>();
+                Set<String> takenEmails = new HashSet<>();
+                findTakenKeys(em, users, takenUsernames, takenEmails);
+                for (User user : users) {
+                    IllegalArgumentException conflict = claim(user, takenUsernames, takenEmails);
+                    if (conflict != null) {
+                        conflicts.add(Map.entry(user, conflict));
+                        continue;
+                    }
+                    user.setCreatedAt(createdAt);
+                    user.setUpdatedAt(stamp);
+                    em.persist(user);
+                    persisted.add(user);
+                    if (persisted.size() % batchSize == 0) {
+                        em.flush();
+                        em.clear();
+                    }
+                }
+                return null;
+            });
+        } catch (PersistenceException ex) {
+            if (!isConstraintViolation(ex)) {
+                throw ex;
+            }
+            conflicted = true;
+        } finally {
+            writeClock.end(stamp);
+        }
+        if (conflicted) {
+            insertOneByOne(users, createdAt, onConflict);
+            return;
+        }
+        persisted.forEach(User::freeze);
+        if (!persisted.isEmpty()) {
+            modificationVersion.incrementAndGet();
+        }
+        persisted.forEach(user -> changeListener.userSaved(user).publish());
+        conflicts.forEach(conflict -> onConflict.accept(conflict.getKey(), conflict.getValue()));
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        // Loaded first, as its tombstone keeps the fields delta queries filter on
+        LocalDateTime stamp = writeClock.begin();
+        User deleted;
+        try {
+            deleted = write(em -> {
+                User current = em.find(User.class, id);
+                if (current != null) {
+                    em.remove(current);
+                }
+                return current;
+            });
+            if (deleted != null) {
+                tombstones.add(deleted.tombstone(stamp));
+            }
+        } finally {
+            writeClock.end(stamp);
+        }
+        if (deleted != null) {
+            modificationVersion.incrementAndGet();
+            changeListener.userDeleted(id).publish();
+        }
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return read(em -> !em.createQuery("select u.id from User u where u.id = :id", Long.class)
+                .setParameter("id", id)
+                .getResultList()
+                .isEmpty());
+    }
+
+    /**
+     * Tombstones are kept by this instance, in memory, so deletes made before it started are unknown.
+     */
+    @Override
+    public LocalDateTime deletionsTrackedSince() {
+        return tombstones.trackedSince();
+    }
+
+    @Override
+    public void setChangeListener(UserChangeListener listener) {
+        this.changeListener = listener == null ? UserChangeListener.NONE : listener;
+    }
+
+    @Override
+    public long modificationVersion() {
+        return modificationVersion.get();
+    }
+
+    private List<User> findAfterId(Long afterId, int limit) {
+        return read(em -> frozen(em.createQuery(
+                        "select u from User u where u.id > :afterId order by u.id", User.class)
+                .setParameter("afterId", afterId == null ? Long.MIN_VALUE : afterId)
+                .setMaxResults(limit)
+                .getResultList()));
+    }
+
+    private Optional<User> findByKey(String keyField, String value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        return read(em -> em.createQuery("select u from User u where u." + keyField + " = :key", User.class)
+                .setParameter("key", User.normalizeKey(value))
+                .getResultStream()
+                .findFirst()
+                .map(JpaUserRepository::frozen));
+    }
+
+    private void persist(User user) {
+        LocalDateTime stamp = writeClock.begin();
+        try {
+            if (user.getCreatedAt() == null) {
+                user.setCreatedAt(stamp);
+            }
+            user.setUpdatedAt(stamp);
+            write(em -> {
+                checkKeysAvailable(em, user);
+                em.persist(user);
+                return null;
+            });
+        } catch (PersistenceException ex) {
+            // Nothing was stored, so the generated id and version are not the user's
+            user.setId(null);
+            user.setVersion(null);
+            throw translate(ex, user);
+        } finally {
+            writeClock.end(stamp);
+        }
+    }
+
+    private User update(User user) {
+        Long id = user.getId();
+        LocalDateTime stamp = writeClock.begin();
+        try {
+            return write(em -> {
+                User current = em.find(User.class, id);
+                Long expectedVersion = user.getVersion();
+                if (current == null) {
+                    throw new ConcurrentUpdateException("User " + id + " was deleted concurrently");
+                }
+                if (expectedVersion != null && !expectedVersion.equals(current.getVersion())) {
+                    throw new ConcurrentUpdateException("User " + id + " was modified concurrently");
+                }
+                checkKeysAvailable(em, user);
+                current.setName(user.getName());
+                current.setUsername(user.getUsername());
+                current.setEmail(user.getEmail());
+                current.setPhone(user.getPhone());
+                current.setWebsite(user.getWebsite());
+                // Stamps are unique, so this makes the row dirty even when nothing else changed
+                // and the version always moves
+                current.setUpdatedAt(stamp);
+                return current;
+            });
+        } catch (PersistenceException ex) {
+            throw translate(ex, user);
+        } finally {
+            writeClock.end(stamp);
+        }
+    }
+
+    private void insertOneByOne(List<User> users, LocalDateTime createdAt,
+                                BiConsumer<User, IllegalArgumentException> onConflict) {
+        for (User user : users) {
+            user.setId(null);
+            user.setVersion(null);
+            user.setCreatedAt(createdAt);
+            try {
+                persist(user);
+                user.freeze();
+                modificationVersion.incrementAndGet();
+                changeListener.userSaved(user).publish();
+            } catch (IllegalArgumentException ex) {
+                onConflict.accept(user, ex);
+            }
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if another user owns the user's username or email
+     */
+    private static void checkKeysAvailable(EntityManager em, User user) {
+        // One query per key: an OR across the two unique indexes is planned as a table scan
+        if (isOwnedByOther(em, "usernameKey", user.getUsername(), user.getId())) {
+            throw new IllegalArgumentException("Username '" + user.getUsername() + "' already exists");
+        }
+        if (isOwnedByOther(em, "emailKey", user.getEmail(), user.getId())) {
+            throw new IllegalArgumentException("Email '" + user.getEmail() + "' already exists");
+        }
+    }
+
+    private static boolean isOwnedByOther(EntityManager em, String keyAttribute, String value, Long id) {
+        return em.createQuery("select u.id from User u where u." + keyAttribute + " = :key", Long.class)
+                .setParameter("key", User.normalizeKey(value))
+                .getResultStream()
+                .anyMatch(owner -> !owner.equals(id));
+    }
+
+    private static void findTakenKeys(EntityManager em, List<User> users, Set<String> takenUsernames, Set<String> takenEmails) {
+        takenUsernames.addAll(findTaken(em, "usernameKey", users.stream().map(User::getUsername).toList()));
+        takenEmails.addAll(findTaken(em, "emailKey", users.stream().map(User::getEmail).toList()));
+    }
+
+    private static List<String> findTaken(EntityManager em, String keyAttribute, List<String> values) {
+        List<String> taken = new ArrayList<>();
+        for (int from = 0; from < values.size(); from += MAX_IN_PARAMETERS) {
+            List<String> keys = values.subList(from, Math.min(values.size(), from + MAX_IN_PARAMETERS)).stream()
+                    .map(User::normalizeKey)
+                    .toList();
+            taken.addAll(em.createQuery(
+                            "select u." + keyAttribute + " from User u where u." + keyAttribute + " in :keys", String.class)
+                    .setParameter("keys", keys)
+                    .getResultList());
+        }
+        return taken;
+    }
+
+    /**
+     * Claim the user's keys against those already taken, or return why it cannot have them.
+     */
+    private static IllegalArgumentException claim(User user, Set<String> takenUsernames, Set<String> takenEmails) {
+        String username = User.normalizeKey(user.getUsername());
+        String email = User.normalizeKey(user.getEmail());
+        if (takenUsernames.contains(username)) {
+            return new IllegalArgumentException("Username '" + user.getUsername() + "' already exists");
+        }
+        if (takenEmails.contains(email)) {
+            return new IllegalArgumentException("Email '" + user.getEmail() + "' already exists");
+        }
+        takenUsernames.add(username);
+        takenEmails.add(email);
+        return null;
+    }
+
+    /**
+     * Turn a failed write into the exception the repository contract promises.
+     */
+    private RuntimeException translate(PersistenceException ex, User user) {
+        if (ex instanceof OptimisticLockException || hasCause(ex, StaleStateException.class)) {
+            return new ConcurrentUpdateException("User " + user.getId() + " was modified concurrently");
+        }
+        if (isConstraintViolation(ex)) {
+            // Lost a race for a key; find out which one for the message
+            try {
+                read(em -> {
+                    checkKeysAvailable(em, user);
+                    return null;
+                });
+            } catch (IllegalArgumentException conflict) {
+                return conflict;
+            }
+            return new IllegalArgumentException("Username or email already exists");
+        }
+        return ex;
+    }
+
+    private static boolean isConstraintViolation(Throwable ex) {
+        return hasCause(ex, ConstraintViolationException.class);
+    }
+
+    private static boolean hasCause(Throwable ex, Class<? extends Throwable> type) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (type.isInstance(cause)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Query in {@code query} order with its filters, starting after a position if one is given.
+     */
+    private static TypedQuery<User> sortedQuery(EntityManager em, UserQuery query, Comparable<?> afterValue, long afterId) {
+        Map<String, Object> parameters = new HashMap<>();
+        StringBuilder jpql = new StringBuilder("select u from User u where ").append(filters(query, parameters));
+        String sortExpression = sortExpression(query.sortField());
+        String after = query.descending() ? " < " : " > ";
+        String atOrAfter = query.descending() ? " <= " : " >= ";
+        if (query.sortField() != UserSortField.ID) {
+            // Users without a value are not part of this order, as with the in-memory indexes
+            jpql.append(" and ").append(sortExpression).append(" is not null");
+            if (afterValue != null) {
+                // The bound on the value alone lets the (value, id) index seek; the row comparison
+                // then steps past ties without scanning them
+                jpql.append(" and ").append(sortExpression).append(atOrAfter).append(":afterValue")
+                        .append(" and (").append(sortExpression).append(", u.id)").append(after).append("(:afterValue, :afterId)");
+                parameters.put("afterValue", afterValue);
+                parameters.put("afterId", afterId);
+            }
+        } else if (afterValue != null) {
+            jpql.append(" and u.id").append(after).append(":afterId");
+            parameters.put("afterId", afterId);
+        }
+        String direction = query.descending() ? " desc" : "";
+        jpql.append(" order by ");
+        if (query.sortField() != UserSortField.ID) {
+            jpql.append(sortExpression).append(direction).append(", ");
+        }
+        jpql.append("u.id").append(direction);
+
+        TypedQuery<User> typed = em.createQuery(jpql.toString(), User.class);
+        parameters.forEach(typed::setParameter);
+        return typed;
+    }
+
+    private static String filters(UserQuery query, Map<String, Object> parameters) {
+        StringBuilder where = new StringBuilder("1 = 1");
+        if (query.emailDomain() != null) {
+            where.append(" and u.emailKey like :emailSuffix escape '\\'");
+            parameters.put("emailSuffix", "%@" + query.emailDomain()
+                    .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_"));
+        }
+        if (query.createdFrom() != null) {
+            where.append(" and u.createdAt >= :createdFrom");
+            parameters.put("createdFrom", query.createdFrom());
+        }
+        if (query.createdTo() != null) {
+            where.append(" and u.createdAt <= :createdTo");
+            parameters.put("createdTo", query.createdTo());
+        }
+        if (query.updatedSince() != null) {
+            where.append(" and u.updatedAt >= :updatedSince");
+            parameters.put("updatedSince", query.updatedSince());
+        }
+        if (query.updatedBefore() != null) {
+            where.append(" and u.updatedAt < :updatedBefore");
+            parameters.put("updatedBefore", query.updatedBefore());
+        }
+        return where.toString();
+    }
+
+    /**
+     * Column expression with the same order as {@link UserSortField#valueOf}.
+     */
+    private static String sortExpression(UserSortField field) {
+        return switch (field) {
+            case ID -> "u.id";
+            case NAME -> "lower(trim(u.name))";
+            case USERNAME -> "u.usernameKey";
+            case CREATED_AT -> "u.createdAt";
+            case UPDATED_AT -> "u.updatedAt";
+        };
+    }
+
+    /**
+     * Skip {@code offset} users that pass the query's filters and return up to {@code limit} more.
+     */
+    private static List<User> page(Iterator<User> users, UserQuery query, long offset, int limit) {
+        List<User> page = new ArrayList<>(Math.min(limit, 1024));
+        long skipped = 0;
+        while (page.size() < limit && users.hasNext()) {
+            User user = users.next();
+            if (!query.matches(user)) {
+                continue;
+            }
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                page.add(user);
+            }
+        }
+        return page;
+    }
+
+    private <T> T read(Function<EntityManager, T> work) {
+        try (EntityManager em = entityManagerFactory.createEntityManager()) {
+            return work.apply(em);
+        }
+    }
+
+    /**
+     * Run {@code work} in a transaction, flushing before the commit so that constraint and
+     * version failures surface as their own exceptions rather than as a failed commit.
+     */
+    private <T> T write(Function<EntityManager, T> work) {
+        try (EntityManager em = entityManagerFactory.createEntityManager()) {
+            EntityTransaction transaction = em.getTransaction();
+            transaction.begin();
+            try {
+                T result = work.apply(em);
+                em.flush();
+                transaction.commit();
+                return result;
+            } catch (RuntimeException ex) {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+                throw ex;
+            }
+        }
+    }
+
+    private static User frozen(User user) {
+        user.freeze();
+        return user;
+    }
+
+    private static List<User> frozen(List<User> users) {
+        users.forEach(User::freeze);
+        return users;
+    }
+}
@@ -0,0 +1,55 @@
+package com.interview.repository;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Merges iterators that are each sorted by the same order into one sorted iterator, holding only
+ * the current head of each. Costs {@code O(log k)} per element for {@code k} sources.
+ */
+final class MergingIterator<T> implements Iterator<T> {
+
+    private final PriorityQueue<Head<T>> heads;
+
+    private MergingIterator(List<? extends Iterator<? extends T>> sources, Comparator<? super T> order) {
+        this.heads = new PriorityQueue<>(Math.max(1, sources.size()), (a, b) -> order.compare(a.value, b.value));
+        for (Iterator<? extends T> source : sources) {
+            advance(source);
+        }
+    }
+
+    /**
+     * Merge the sources, returning a single source as is.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Iterator<T> of(List<? extends Iterator<? extends T>> sources, Comparator<? super T> order) {
+        return sources.size() == 1 ? (Iterator<T>) sources.get(0) : new MergingIterator<>(sources, order);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !heads.isEmpty();
+    }
+
+    @Override
+    public T next() {
+        Head<T> head = heads.poll();
+        if (head == null) {
+            throw new NoSuchElementException();
+        }
+        advance(head.source);
+        return head.value;
+    }
+
+    private void advance(Iterator<? extends T> source) {
+        if (source.hasNext()) {
+            heads.add(new Head<>(source.next(), source));
+        }
+    }
+
+    private record Head<T>(T value, Iterator<? extends T> source) {
+    }
+}
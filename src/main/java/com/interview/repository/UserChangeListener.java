@@ -0,0 +1,59 @@
+package com.interview.repository;
+
+import com.interview.model.User;
+
+/**
+ * Notification hook for {@link UserRepository}. Called on the writing thread once a save or
+ * delete is applied, in the order writes to each user are applied, so implementations must
+ * return quickly and never block.
+ * <p>
+ * The returned {@link PendingChange} holds the change's place in that order without making it
+ * visible. The repository publishes it once the write is durable, or discards it if the write
+ * fails, so listeners never report a write the caller was told had failed.
+ */
+public interface UserChangeListener {
+
+    /**
+     * Listener that ignores every change; used when nothing is subscribed.
+     */
+    UserChangeListener NONE = new UserChangeListener() {
+    };
+
+    /**
+     * A user was created or replaced.
+     *
+     * @param user The stored, frozen snapshot
+     */
+    default PendingChange userSaved(User user) {
+        return PendingChange.NONE;
+    }
+
+    /**
+     * A user was deleted.
+     */
+    default PendingChange userDeleted(Long id) {
+        return PendingChange.NONE;
+    }
+
+    /**
+     * A change that has been ordered but not yet released. Exactly one of {@link #publish()}
+     * and {@link #discard()} must be called, from any thread; changes ordered after it are
+     * held back until it is.
+     */
+    interface PendingChange {
+
+        PendingChange NONE = new PendingChange() {
+            @Override
+            public void publish() {
+            }
+
+            @Override
+            public void discard() {
+            }
+        };
+
+        void publish();
+
+        void discard();
+    }
+}
@@ -0,0 +1,53 @@
+package com.interview.repository;
+
+import com.interview.model.User;
+
+/**
+ * Durability hook for {@link UserRepository}. Every save and delete is appended while the
+ * per-id write is in progress, so the log order matches the order writes are applied,
+ * and the caller then waits for durability outside the write.
+ */
+public interface UserMutationLog {
+
+    /**
+     * Log that keeps nothing; used when persistence is disabled.
+     */
+    UserMutationLog NONE = new UserMutationLog() {
+    };
+
+    /**
+     * Called before a write starts applying.
+     */
+    default void beginMutation() {
+    }
+
+    /**
+     * Called after a write has been applied, whether or not it succeeded.
+     */
+    default void endMutation() {
+    }
+
+    /**
+     * Append the full state of a saved user.
+     *
+     * @return Log position to pass to {@link #awaitDurable(long)}
+     */
+    default long logSave(User user) {
+        return 0;
+    }
+
+    /**
+     * Append the deletion of a user.
+     *
+     * @return Log position to pass to {@link #awaitDurable(long)}
+     */
+    default long logDelete(Long id) {
+        return 0;
+    }
+
+    /**
+     * Block until everything up to the given position is as durable as the log's policy promises.
+     */
+    default void awaitDurable(long position) {
+    }
+}
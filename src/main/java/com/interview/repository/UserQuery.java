@@ -0,0 +1,162 @@
+package com.interview.repository;
+
+import com.interview.model.User;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * Order and filters for listing users.
+ *
+ * @param sortField Field to order by
+ * @param descending Whether to reverse the order
+ * @param emailDomain Only users whose email is at this domain, or null for any
+ * @param createdFrom Only users created at or after this time, or null
+ * @param createdTo Only users created at or before this time, or null
+ * @param updatedSince Only users updated at or after this time, or null. A query with an
+ *                     updatedAt bound is a delta query: it also returns users deleted within
+ *                     the bounds, as tombstones
+ * @param updatedBefore Only users updated before this time, or null
+ */
+public record UserQuery(UserSortField sortField, boolean descending, String emailDomain,
+                        LocalDateTime createdFrom, LocalDateTime createdTo,
+                        LocalDateTime updatedSince, LocalDateTime updatedBefore) {
+
+    /**
+     * All users in ascending id order.
+     */
+    public static final UserQuery DEFAULT = new UserQuery(UserSortField.ID, false, null, null, null);
+
+    public UserQuery {
+        if (sortField == null) {
+            throw new IllegalArgumentException("Sort field must not be null");
+        }
+        if (createdFrom != null && createdTo != null && createdFrom.isAfter(createdTo)) {
+            throw new IllegalArgumentException("createdFrom must not be after createdTo");
+        }
+        if (updatedSince != null && updatedBefore != null && !updatedSince.isBefore(updatedBefore)) {
+            throw new IllegalArgumentException("updatedSince must be before updatedBefore");
+        }
+        if ((updatedSince != null || updatedBefore != null) && sortField != UserSortField.UPDATED_AT) {
+            // Deltas are walked on the updatedAt index, so their cost follows the number of changes
+            throw new IllegalArgumentException("updatedSince and updatedBefore require sorting by updatedAt");
+        }
+        emailDomain = emailDomain == null || emailDomain.isBlank() ? null : User.normalizeKey(emailDomain);
+    }
+
+    public UserQuery(UserSortField sortField, boolean descending, String emailDomain,
+                     LocalDateTime createdFrom, LocalDateTime createdTo) {
+        this(sortField, descending, emailDomain, createdFrom, createdTo, null, null);
+    }
+
+    /**
+     * Build a query from request parameters, any of which may be null.
+     *
+     * @param sort Field name optionally followed by {@code ,asc} or {@code ,desc}, e.g. {@code name,desc}
+     * @param emailDomain Domain part of the email, e.g. {@code example.com}
+     * @param createdFrom ISO-8601 local date-time
+     * @param createdTo ISO-8601 local date-time
+     * @throws IllegalArgumentException if a parameter is malformed
+     */
+    public static UserQuery of(String sort, String emailDomain, String createdFrom, String createdTo) {
+        return of(sort, emailDomain, createdFrom, createdTo, null, null);
+    }
+
+    /**
+     * Build a query from request parameters, any of which may be null. With an updatedAt bound
+     * and no sort, users are ordered by updatedAt.
+     *
+     * @param updatedSince ISO-8601 local date-time
+     * @param updatedBefore ISO-8601 local date-time
+     * @throws IllegalArgumentException if a parameter is malformed
+     */
+    public static UserQuery of(String sort, String emailDomain, String createdFrom, String createdTo,
+                               String updatedSince, String updatedBefore) {
+        LocalDateTime since = parseTime("updatedSince", updatedSince);
+        LocalDateTime before = parseTime("updatedBefore", updatedBefore);
+        UserSortField sortField = since != null || before != null ? UserSortField.UPDATED_AT : UserSortField.ID;
+        boolean descending = false;
+        if (sort != null && !sort.isBlank()) {
+            String[] parts = sort.split(",", -1);
+            if (parts.length > 2) {
+                throw new IllegalArgumentException("Invalid sort: " + sort);
+            }
+            sortField = UserSortField.fromParameter(parts[0].trim());
+            if (parts.length == 2) {
+                descending = switch (parts[1].trim().toLowerCase(Locale.ROOT)) {
+                    case "asc" -> false;
+                    case "desc" -> true;
+                    default -> throw new IllegalArgumentException("Invalid sort direction: " + parts[1]);
+                };
+            }
+        }
+        return new UserQuery(sortField, descending, emailDomain,
+                parseTime("createdFrom", createdFrom), parseTime("createdTo", createdTo), since, before);
+    }
+
+    /**
+     * True for plain ascending id order without filters.
+     */
+    public boolean isDefault() {
+        return equals(DEFAULT);
+    }
+
+    /**
+     * True if the query has an updatedAt bound, and so also returns tombstones of deleted users.
+     */
+    public boolean isDelta() {
+        return updatedSince != null || updatedBefore != null;
+    }
+
+    /**
+     * This query with a different upper updatedAt bound.
+     */
+    UserQuery withUpdatedBefore(LocalDateTime before) {
+        return new UserQuery(sortField, descending, emailDomain, createdFrom, createdTo, updatedSince, before);
+    }
+
+    /**
+     * True if the user passes every filter.
+     */
+    public boolean matches(User user) {
+        if (emailDomain != null && !emailDomain.equals(emailDomainOf(user.getEmail()))) {
+            return false;
+        }
+        LocalDateTime createdAt = user.getCreatedAt();
+        if (createdFrom != null && (createdAt == null || createdAt.isBefore(createdFrom))) {
+            return false;
+        }
+        if (createdTo != null && (createdAt == null || createdAt.isAfter(createdTo))) {
+            return false;
+        }
+        LocalDateTime updatedAt = user.getUpdatedAt();
+        if (updatedSince != null && (updatedAt == null || updatedAt.isBefore(updatedSince))) {
+            return false;
+        }
+        return updatedBefore == null || (updatedAt != null && updatedAt.isBefore(updatedBefore));
+    }
+
+    /**
+     * Normalized domain of an email address, or null if it has none.
+     */
+    public static String emailDomainOf(String email) {
+        if (email == null) {
+            return null;
+        }
+        int at = email.lastIndexOf('@');
+        String domain = at < 0 ? null : User.normalizeKey(email.substring(at + 1));
+        return domain == null || domain.isEmpty() ? null : domain;
+    }
+
+    private static LocalDateTime parseTime(String name, String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+}
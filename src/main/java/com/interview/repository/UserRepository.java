@@ -1,104 +1,125 @@
 package com.interview.repository;
 
+import com.interview.exception.ConcurrentUpdateException;
 import com.interview.model.User;
-import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
-import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
-
-@Repository
-public class UserRepository {
-
-    private final Map<Long, User> users = new ConcurrentHashMap<>();
-    private final AtomicLong idGenerator = new AtomicLong(5);
-
-    public UserRepository() {
-        // Initialize with sample data from JSONPlaceholder
-        initializeSampleData();
-    }
-
-    private void initializeSampleData() {
-        createSampleUser(1L, "Leanne Graham", "Bret", "Sincere@april.biz", "1-770-736-8031 x56442", "hildegard.org");
-        createSampleUser(2L, "Ervin Howell", "Antonette", "Shanna@melissa.tv", "010-692-6593 x09125", "anastasia.net");
-        createSampleUser(3L, "Clementine Bauch", "Samantha", "Nathan@yesenia.net", "1-463-123-4447", "ramiro.info");
-        createSampleUser(4L, "Patricia Lebsack", "Karianne", "Julianne.OConner@kory.org", "493-170-9623 x156", "kale.biz");
-        createSampleUser(5L, "Chelsey Dietrich", "Kamren", "Lucio_Hettinger@annie.ca", "(254)954-1289", "demarco.info");
-    }
-
-    private void createSampleUser(Long id, String name, String username, String email, String phone, String website) {
-        User user = new User(name, username, email, phone, website);
-        user.setId(id);
-        // Set timestamps manually for sample data
-        try {
-            java.lang.reflect.Field createdAtField = user.getClass().getSuperclass().getDeclaredField("createdAt");
-            createdAtField.setAccessible(true);
-            createdAtField.set(user, LocalDateTime.now());
-
-            java.lang.reflect.Field updatedAtField = user.getClass().getSuperclass().getDeclaredField("updatedAt");
-            updatedAtField.setAccessible(true);
-            updatedAtField.set(user, LocalDateTime.now());
-        } catch (Exception e) {
-            // Ignore reflection errors
-        }
-        users.put(id, user);
-    }
-
-    public List<User> findAll() {
-        return new ArrayList<>(users.values());
-    }
-
-    public Optional<User> findById(Long id) {
-        return Optional.ofNullable(users.get(id));
-    }
-
-    public Optional<User> findByUsername(String username) {
-        return users.values().stream()
-                .filter(user -> user.getUsername().equals(username))
-                .findFirst();
-    }
-
-    public Optional<User> findByEmail(String email) {
-        return users.values().stream()
-                .filter(user -> user.getEmail().equals(email))
-                .findFirst();
-    }
-
-    public User save(User user) {
-        if (user.getId() == null) {
-            user.setId(idGenerator.incrementAndGet());
-            // Set timestamps manually for new users
-            try {
-                java.lang.reflect.Field createdAtField = user.getClass().getSuperclass().getDeclaredField("createdAt");
-                createdAtField.setAccessible(true);
-                createdAtField.set(user, LocalDateTime.now());
-
-                java.lang.reflect.Field updatedAtField = user.getClass().getSuperclass().getDeclaredField("updatedAt");
-                updatedAtField.setAccessible(true);
-                updatedAtField.set(user, LocalDateTime.now());
-            } catch (Exception e) {
-                // Ignore reflection errors
-            }
-        } else {
-            // Update timestamp for existing users
-            try {
-                java.lang.reflect.Field updatedAtField = user.getClass().getSuperclass().getDeclaredField("updatedAt");
-                updatedAtField.setAccessible(true);
-                updatedAtField.set(user, LocalDateTime.now());
-            } catch (Exception e) {
-                // Ignore reflection errors
-            }
-        }
-        users.put(user.getId(), user);
-        return user;
-    }
-
-    public void deleteById(Long id) {
-        users.remove(id);
-    }
-
-    public boolean existsById(Long id) {
-        return users.containsKey(id);
-    }
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Storage of users, selected per deployment with {@code users.storage.backend}:
+ * {@link InMemoryUserRepository} keeps the dataset on the heap and {@link JpaUserRepository}
+ * keeps it in the configured database.
+ * <p>
+ * Users returned by any method are frozen snapshots. To change one, save a {@link User#copy()} of it.
+ */
+public interface UserRepository {
+
+    List<User> findAll();
+
+    /**
+     * Return one page of users in id order without copying the rest of the table.
+     *
+     * @param offset Number of users to skip
+     * @param limit Maximum number of users to return
+     * @return Users in the requested window
+     */
+    List<User> findPage(long offset, int limit);
+
+    /**
+     * Return up to {@code limit} users with ids greater than {@code afterId}, in id order.
+     * The cost does not depend on how deep the cursor is.
+     *
+     * @param afterId Last-seen id, or null to start from the first user
+     * @param limit Maximum number of users to return
+     * @return Users following the cursor
+     */
+    List<User> findAfter(Long afterId, int limit);
+
+    /**
+     * Return one page of users in query order, skipping {@code offset} matches. For a
+     * {@link UserQuery#isDelta() delta query}, users deleted within its updatedAt bounds are
+     * included as tombstones ({@link User#isDeleted()}) at their deletion time, as long as the
+     * deletion is still retained.
+     */
+    List<User> findPage(UserQuery query, long offset, int limit);
+
+    /**
+     * Return up to {@code limit} users following a position in query order.
+     *
+     * @param afterValue Sort value of the last-seen user, as given by {@link UserSortField#valueOf}
+     * @param afterId Id of the last-seen user
+     */
+    List<User> findAfter(UserQuery query, Comparable<?> afterValue, long afterId, int limit);
+
+    /**
+     * Number of users matching the query's filters, including tombstones for a delta query.
+     */
+    long count(UserQuery query);
+
+    /**
+     * Find users for a typeahead query. Every word of the query must be a prefix of a word in the
+     * user's name, username or email, case-insensitively.
+     *
+     * @param query Search text
+     * @param maxMatches Stop after this many matches
+     * @return Matching users in id order, the lowest ids first
+     * @throws IllegalArgumentException if the query contains no letters or digits
+     */
+    List<User> search(String query, int maxMatches);
+
+    /**
+     * Stream all users in id order. The stream is weakly consistent: writes made while it is
+     * consumed may or may not be seen.
+     */
+    Stream<User> streamAll();
+
+    long count();
+
+    Optional<User> findById(Long id);
+
+    Optional<User> findByUsername(String username);
+
+    Optional<User> findByEmail(String email);
+
+    /**
+     * Insert a new user or replace an existing one. A user carrying a version, as a
+     * {@link User#copy()} does, is only stored if that is still its current version.
+     *
+     * @return The stored snapshot
+     * @throws IllegalArgumentException if the username or email belongs to another user
+     * @throws ConcurrentUpdateException if the user was changed or deleted since its version was read
+     */
+    User save(User user);
+
+    /**
+     * Store new users, assigning their ids in list order and stamping all of them with
+     * {@code createdAt}. A user whose username or email belongs to someone else is skipped and
+     * handed to {@code onConflict}; every other user is stored and frozen in place.
+     */
+    void insertAll(List<User> users, LocalDateTime createdAt, BiConsumer<User, IllegalArgumentException> onConflict);
+
+    void deleteById(Long id);
+
+    boolean existsById(Long id);
+
+    /**
+     * Earliest updatedSince for which a delta query is guaranteed to report every delete.
+     * Deletes before it may have been forgotten, so a client that last synced earlier must reload.
+     */
+    LocalDateTime deletionsTrackedSince();
+
+    /**
+     * Notify {@code listener} of every save and delete from now on, replacing any earlier listener.
+     */
+    void setChangeListener(UserChangeListener listener);
+
+    /**
+     * Counter that changes whenever any user is saved or deleted. Read it before reading
+     * users to get a version that is never newer than the data read.
+     */
+    long modificationVersion();
 }
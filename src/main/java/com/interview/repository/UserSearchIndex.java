@@ -0,0 +1,165 @@
+package com.interview.repository;
+
+import com.interview.model.User;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Word-prefix index over user name, username and email.
+ * <p>
+ * Each field is split into lowercase runs of letters and digits ("john.doe@mail.com" gives
+ * {@code john}, {@code doe}, {@code mail}, {@code com}), and every (token, id) pair is kept in one
+ * ordered set, so all tokens starting with a prefix are a contiguous range. Updates for an id
+ * must be serialized by the caller; the repository does this inside its per-id map step.
+ */
+final class UserSearchIndex {
+
+    private final ConcurrentSkipListSet<Posting> postings = new ConcurrentSkipListSet<>();
+    // Tokens currently indexed per user, so an update can drop the ones that went away
+    private final Map<Long, String[]> tokensById = new ConcurrentHashMap<>();
+
+    /**
+     * Index the user's current fields, replacing whatever was indexed for its id before.
+     * New tokens are added before stale ones are removed, so concurrent searches never miss the user.
+     */
+    void index(Long id, User user) {
+        String[] tokens = tokenize(user.getName(), user.getUsername(), user.getEmail());
+        String[] previous = tokensById.put(id, tokens);
+        for (String token : tokens) {
+            if (previous == null || Arrays.binarySearch(previous, token) < 0) {
+                postings.add(new Posting(token, id));
+            }
+        }
+        if (previous != null) {
+            for (String token : previous) {
+                if (Arrays.binarySearch(tokens, token) < 0) {
+                    postings.remove(new Posting(token, id));
+                }
+            }
+        }
+    }
+
+    void remove(Long id) {
+        String[] previous = tokensById.remove(id);
+        if (previous != null) {
+            for (String token : previous) {
+                postings.remove(new Posting(token, id));
+            }
+        }
+    }
+
+    void clear() {
+        tokensById.clear();
+        postings.clear();
+    }
+
+    /**
+     * Postings of tokens starting with {@code prefix}, as one iterator per token. The postings of
+     * a token are in id order, so merging the runs by {@link #BY_ID} gives matches in id order,
+     * with a user's postings adjacent, while reading each run only as far as the caller does.
+     */
+    List<Iterator<Posting>> runsWithPrefix(String prefix) {
+        NavigableSet<Posting> range = range(prefix);
+        List<Iterator<Posting>> runs = new ArrayList<>();
+        Iterator<Posting> tokens = range.iterator();
+        Posting first = tokens.hasNext() ? tokens.next() : null;
+        while (first != null) {
+            Posting last = new Posting(first.token(), Long.MAX_VALUE);
+            runs.add(range.subSet(first, true, last, true).iterator());
+            first = range.higher(last);
+        }
+        return runs;
+    }
+
+    /**
+     * Number of postings under {@code prefix}, counting no further than {@code limit}.
+     */
+    long countWithPrefix(String prefix, long limit) {
+        long count = 0;
+        Iterator<Posting> range = range(prefix).iterator();
+        while (count < limit && range.hasNext()) {
+            range.next();
+            count++;
+        }
+        return count;
+    }
+
+    private NavigableSet<Posting> range(String prefix) {
+        return postings.subSet(new Posting(prefix, Long.MIN_VALUE), true,
+                new Posting(prefix + Character.MAX_VALUE, Long.MIN_VALUE), false);
+    }
+
+    /**
+     * True if the user with this id is indexed and every term is a prefix of one of its tokens.
+     */
+    boolean matches(Long id, String[] terms) {
+        String[] tokens = tokensById.get(id);
+        return tokens != null && matches(tokens, terms);
+    }
+
+    /**
+     * True if every term is a prefix of one of the tokens.
+     *
+     * @param tokens Sorted tokens, as returned by {@link #tokenize}
+     */
+    static boolean matches(String[] tokens, String[] terms) {
+        for (String term : terms) {
+            // Tokens are sorted, so the first token not below the term is the only candidate
+            int index = Arrays.binarySearch(tokens, term);
+            if (index < 0) {
+                index = -index - 1;
+                if (index == tokens.length || !tokens[index].startsWith(term)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Split values into lowercase letter/digit runs.
+     *
+     * @return Distinct tokens in sorted order
+     */
+    static String[] tokenize(String... values) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String value : values) {
+            if (value == null) {
+                continue;
+            }
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (Character.isLetterOrDigit(c)) {
+                    current.append(Character.toLowerCase(c));
+                } else if (!current.isEmpty()) {
+                    tokens.add(current.toString());
+                    current.setLength(0);
+                }
+            }
+            if (!current.isEmpty()) {
+                tokens.add(current.toString());
+                current.setLength(0);
+            }
+        }
+        return tokens.stream().distinct().sorted().toArray(String[]::new);
+    }
+
+    static final Comparator<Posting> BY_ID = Comparator.comparingLong(Posting::id);
+
+    record Posting(String token, long id) implements Comparable<Posting> {
+        @Override
+        public int compareTo(Posting other) {
+            int byToken = token.compareTo(other.token);
+            return byToken != 0 ? byToken : Long.compare(id, other.id);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.interview.repository;
+
+import com.interview.model.User;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Fields users can be listed by. Names and usernames sort case-insensitively; ties on any
+ * field are broken by id, so every order is total and stable across pages.
+ */
+public enum UserSortField {
+    ID("id"),
+    NAME("name"),
+    USERNAME("username"),
+    CREATED_AT("createdAt"),
+    UPDATED_AT("updatedAt");
+
+    private final String parameter;
+
+    UserSortField(String parameter) {
+        this.parameter = parameter;
+    }
+
+    /**
+     * Name of the field in the {@code sort} request parameter.
+     */
+    public String parameter() {
+        return parameter;
+    }
+
+    /**
+     * @throws IllegalArgumentException if no field has this parameter name
+     */
+    public static UserSortField fromParameter(String parameter) {
+        for (UserSortField field : values()) {
+            if (field.parameter.equals(parameter)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported sort field: " + parameter);
+    }
+
+    /**
+     * Sort key of the user for this field.
+     */
+    public Comparable<?> valueOf(User user) {
+        return switch (this) {
+            case ID -> user.getId();
+            case NAME -> normalize(user.getName());
+            case USERNAME -> normalize(user.getUsername());
+            case CREATED_AT -> user.getCreatedAt();
+            case UPDATED_AT -> user.getUpdatedAt();
+        };
+    }
+
+    /**
+     * Text form of a sort key, as carried in cursors.
+     */
+    public String format(Comparable<?> value) {
+        return value.toString();
+    }
+
+    /**
+     * Parse a sort key written by {@link #format}.
+     *
+     * @throws IllegalArgumentException if the text is not a key of this field
+     */
+    public Comparable<?> parse(String text) {
+        try {
+            return switch (this) {
+                case ID -> Long.parseLong(text);
+                case NAME, USERNAME -> text;
+                case CREATED_AT, UPDATED_AT -> LocalDateTime.parse(text);
+            };
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + parameter + " value: " + text);
+        }
+    }
+
+    private static String normalize(String value) {
+        String key = User.normalizeKey(value);
+        return key == null ? "" : key;
+    }
+}
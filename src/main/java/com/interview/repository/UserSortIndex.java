@@ -0,0 +1,178 @@
+package com.interview.repository;
+
+import com.interview.model.User;
+
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Ordered secondary indexes, one skip list per {@link UserSortField}.
+ * <p>
+ * Every user has one entry per field in the partition of its email domain, and one in the
+ * shared partition covering all users (except for {@link UserSortField#ID}, whose shared order
+ * is the repository's primary index). Within a partition entries are ordered by field value and
+ * then id, so a filtered and sorted page is a seek plus a walk of the page.
+ * Updates for an id must be serialized by the caller, as with {@link UserSearchIndex}, and
+ * pass the user as it was last indexed so its entries can be found without keeping a copy here.
+ */
+final class UserSortIndex {
+
+    private static final String ALL_USERS = "";
+
+    private final Map<UserSortField, ConcurrentSkipListSet<Key>> indexes = new EnumMap<>(UserSortField.class);
+
+    UserSortIndex() {
+        for (UserSortField field : UserSortField.values()) {
+            indexes.put(field, new ConcurrentSkipListSet<>());
+        }
+    }
+
+    /**
+     * Index the user's current values, replacing those of {@code previousUser}.
+     * New entries are added before stale ones are removed, so concurrent readers never miss the user.
+     *
+     * @param previousUser The user as last indexed, or null if it is new
+     */
+    void index(Long id, User previousUser, User user) {
+        Indexed current = Indexed.of(user);
+        Indexed previous = previousUser == null ? null : Indexed.of(previousUser);
+        for (UserSortField field : UserSortField.values()) {
+            Comparable<?> value = current.values.get(field);
+            boolean unchanged = previous != null && Objects.equals(previous.domain, current.domain)
+                    && Objects.equals(previous.values.get(field), value);
+            if (unchanged) {
+                continue;
+            }
+            add(field, current, id);
+            if (previous != null) {
+                remove(field, previous, id);
+            }
+        }
+    }
+
+    /**
+     * @param previousUser The user as last indexed
+     */
+    void remove(Long id, User previousUser) {
+        Indexed previous = Indexed.of(previousUser);
+        for (UserSortField field : UserSortField.values()) {
+            remove(field, previous, id);
+        }
+    }
+
+    void clear() {
+        indexes.values().forEach(ConcurrentSkipListSet::clear);
+    }
+
+    /**
+     * Entries in query order, starting strictly after the given position if there is one.
+     * Seeks to the email domain partition, and to the createdAt or updatedAt range when sorting
+     * by that field; other filters are left to the caller. Entries of the same query from several
+     * indexes compare in the same order, so they can be merged.
+     *
+     * @param afterValue Sort value of the last-seen user, or null to start at the beginning
+     * @param afterId Id of the last-seen user; ignored without {@code afterValue}
+     */
+    Iterator<Key> keys(UserQuery query, Comparable<?> afterValue, long afterId) {
+        if (query.sortField() == UserSortField.ID && query.emailDomain() == null) {
+            throw new IllegalArgumentException("Id order of all users is served by the primary index");
+        }
+        String partition = query.emailDomain() == null ? ALL_USERS : query.emailDomain();
+        Key from = Key.lowest(partition);
+        Key to = Key.highest(partition);
+        if (query.sortField() == UserSortField.CREATED_AT) {
+            if (query.createdFrom() != null) {
+                from = new Key(partition, 0, query.createdFrom(), Long.MIN_VALUE);
+            }
+            if (query.createdTo() != null) {
+                to = new Key(partition, 0, query.createdTo(), Long.MAX_VALUE);
+            }
+        } else if (query.sortField() == UserSortField.UPDATED_AT) {
+            if (query.updatedSince() != null) {
+                from = new Key(partition, 0, query.updatedSince(), Long.MIN_VALUE);
+            }
+            if (query.updatedBefore() != null) {
+                // Below every real entry at that time, so the bound is exclusive
+                to = new Key(partition, 0, query.updatedBefore(), Long.MIN_VALUE);
+            }
+        }
+        NavigableSet<Key> range = indexes.get(query.sortField()).subSet(from, true, to, true);
+        if (query.descending()) {
+            range = range.descendingSet();
+        }
+        if (afterValue != null) {
+            range = range.tailSet(new Key(partition, 0, afterValue, afterId), false);
+        }
+        return range.iterator();
+    }
+
+    private void add(UserSortField field, Indexed indexed, Long id) {
+        Comparable<?> value = indexed.values.get(field);
+        if (value == null) {
+            return;
+        }
+        ConcurrentSkipListSet<Key> index = indexes.get(field);
+        if (field != UserSortField.ID) {
+            index.add(new Key(ALL_USERS, 0, value, id));
+        }
+        if (indexed.domain != null) {
+            index.add(new Key(indexed.domain, 0, value, id));
+        }
+    }
+
+    private void remove(UserSortField field, Indexed indexed, Long id) {
+        Comparable<?> value = indexed.values.get(field);
+        if (value == null) {
+            return;
+        }
+        ConcurrentSkipListSet<Key> index = indexes.get(field);
+        index.remove(new Key(ALL_USERS, 0, value, id));
+        if (indexed.domain != null) {
+            index.remove(new Key(indexed.domain, 0, value, id));
+        }
+    }
+
+    private record Indexed(String domain, Map<UserSortField, Comparable<?>> values) {
+        static Indexed of(User user) {
+            Map<UserSortField, Comparable<?>> values = new EnumMap<>(UserSortField.class);
+            for (UserSortField field : UserSortField.values()) {
+                values.put(field, field.valueOf(user));
+            }
+            return new Indexed(UserQuery.emailDomainOf(user.getEmail()), values);
+        }
+    }
+
+    /**
+     * Index entry. {@code edge} is -1 or 1 for the open ends of a partition, which sort before
+     * and after every value in it; real entries have edge 0.
+     */
+    record Key(String partition, int edge, Comparable<?> value, long id) implements Comparable<Key> {
+
+        static Key lowest(String partition) {
+            return new Key(partition, -1, null, Long.MIN_VALUE);
+        }
+
+        static Key highest(String partition) {
+            return new Key(partition, 1, null, Long.MAX_VALUE);
+        }
+
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public int compareTo(Key other) {
+            int result = partition.compareTo(other.partition);
+            if (result != 0) {
+                return result;
+            }
+            if (edge != 0 || other.edge != 0) {
+                result = Integer.compare(edge, other.edge);
+            } else {
+                result = ((Comparable) value).compareTo(other.value);
+            }
+            return result != 0 ? result : Long.compare(id, other.id);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.interview.repository;
+
+import com.interview.model.User;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Primary storage of users by id: a hash map for lookups and a skip list for id order. Writes to
+ * the same id are serialized and never block readers; reads return the stored frozen snapshots
+ * without copying.
+ */
+final class UserStore {
+
+    private final Map<Long, User> users = new ConcurrentHashMap<>();
+    // Ordered by id, kept in step with users for stable paging
+    private final ConcurrentNavigableMap<Long, User> usersById = new ConcurrentSkipListMap<>();
+
+    /**
+     * @return The user, or null if absent
+     */
+    User get(long id) {
+        return users.get(id);
+    }
+
+    boolean contains(long id) {
+        return users.containsKey(id);
+    }
+
+    long size() {
+        return users.size();
+    }
+
+    /**
+     * Replace the user stored under {@code id} with the result of {@code update}, which receives the
+     * current user or null and returns the new user or null to remove it. Runs atomically with respect
+     * to other writes of the same id; if it throws, nothing changes.
+     */
+    void compute(long id, UnaryOperator<User> update) {
+        users.compute(id, (key, current) -> {
+            User next = update.apply(current);
+            if (next != null) {
+                usersById.put(key, next);
+            } else if (current != null) {
+                usersById.remove(key);
+            }
+            return next;
+        });
+    }
+
+    /**
+     * Users in ascending id order, starting after {@code afterId} if it is not null.
+     * Weakly consistent: writes made while iterating may or may not be seen.
+     */
+    Iterator<User> ascending(Long afterId) {
+        return (afterId == null ? usersById : usersById.tailMap(afterId, false)).values().iterator();
+    }
+
+    /**
+     * Users in descending id order, starting below {@code beforeId} if it is not null.
+     */
+    Iterator<User> descending(Long beforeId) {
+        ConcurrentNavigableMap<Long, User> descending = usersById.descendingMap();
+        return (beforeId == null ? descending : descending.tailMap(beforeId, false)).values().iterator();
+    }
+
+    void clear() {
+        users.clear();
+        usersById.clear();
+    }
+}
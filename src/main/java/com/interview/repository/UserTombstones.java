@@ -0,0 +1,117 @@
+package com.interview.repository;
+
+import com.interview.model.User;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Tombstones of recently deleted users, ordered by deletion time and then id like the updatedAt
+ * index, so delta queries can walk both over the same range and merge them.
+ * <p>
+ * Tombstones are kept for the retention period and only exist for deletes made since this
+ * instance started; {@link #trackedSince()} is the earliest time a delta query can start from
+ * and still see every delete.
+ */
+final class UserTombstones {
+
+    private final Clock clock;
+    private final Duration retention;
+    private final ConcurrentNavigableMap<Key, User> tombstones = new ConcurrentSkipListMap<>();
+    private volatile LocalDateTime trackingStarted;
+
+    UserTombstones(Duration retention) {
+        this(retention, Clock.systemDefaultZone());
+    }
+
+    UserTombstones(Duration retention, Clock clock) {
+        if (retention.isNegative()) {
+            throw new IllegalArgumentException("Tombstone retention must not be negative");
+        }
+        this.clock = clock;
+        this.retention = retention;
+        this.trackingStarted = LocalDateTime.now(clock);
+    }
+
+    /**
+     * Record a deleted user, dropping tombstones that have outlived the retention period.
+     *
+     * @param tombstone Tombstone of the user, as made by {@link User#tombstone}
+     */
+    void add(User tombstone) {
+        tombstones.put(new Key(tombstone.getUpdatedAt(), tombstone.getId()), tombstone);
+        prune();
+    }
+
+    /**
+     * Earliest updatedSince for which a delta query reports every delete.
+     */
+    LocalDateTime trackedSince() {
+        LocalDateTime horizon = LocalDateTime.now(clock).minus(retention);
+        return horizon.isAfter(trackingStarted) ? horizon : trackingStarted;
+    }
+
+    /**
+     * Tombstones within the query's updatedAt bounds in query order, starting strictly after the
+     * given position if there is one. Other filters are left to the caller.
+     *
+     * @param afterValue updatedAt of the last-seen user, or null to start at the beginning
+     * @param afterId Id of the last-seen user; ignored without {@code afterValue}
+     */
+    Iterator<User> range(UserQuery query, Comparable<?> afterValue, long afterId) {
+        ConcurrentNavigableMap<Key, User> range = tombstones;
+        if (query.updatedSince() != null) {
+            range = range.tailMap(new Key(query.updatedSince(), Long.MIN_VALUE), true);
+        }
+        if (query.updatedBefore() != null) {
+            range = range.headMap(new Key(query.updatedBefore(), Long.MIN_VALUE), false);
+        }
+        if (query.descending()) {
+            range = range.descendingMap();
+        }
+        if (afterValue != null) {
+            range = range.tailMap(new Key((LocalDateTime) afterValue, afterId), false);
+        }
+        return range.values().iterator();
+    }
+
+    /**
+     * Merge users read in a delta query's order with the tombstones in the same range.
+     */
+    Iterator<User> mergeInto(Iterator<User> users, UserQuery query, Comparable<?> afterValue, long afterId) {
+        Comparator<User> order = Comparator.comparing(User::getUpdatedAt).thenComparing(User::getId);
+        return MergingIterator.of(List.of(users, range(query, afterValue, afterId)),
+                query.descending() ? order.reversed() : order);
+    }
+
+    /**
+     * Forget all tombstones, as after the dataset was replaced; deletes before now are unknown.
+     */
+    void clear() {
+        tombstones.clear();
+        trackingStarted = LocalDateTime.now(clock);
+    }
+
+    private void prune() {
+        LocalDateTime expired = LocalDateTime.now(clock).minus(retention);
+        Map.Entry<Key, User> oldest;
+        while ((oldest = tombstones.firstEntry()) != null && oldest.getKey().deletedAt().isBefore(expired)) {
+            tombstones.remove(oldest.getKey(), oldest.getValue());
+        }
+    }
+
+    private record Key(LocalDateTime deletedAt, long id) implements Comparable<Key> {
+        @Override
+        public int compareTo(Key other) {
+            int byTime = deletedAt.compareTo(other.deletedAt);
+            return byTime != 0 ? byTime : Long.compare(id, other.id);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.interview.repository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.TreeSet;
+
+/**
+ * Source of updatedAt stamps for writes, which also tracks the writes that are not yet visible.
+ * <p>
+ * A write is stamped before it becomes visible to readers, so a delta query that read every
+ * stamp up to now could miss a write with an earlier stamp that lands after it, and a client
+ * continuing from the newest updatedAt it saw would never get it. Delta queries are therefore
+ * cut off at {@link #settledBefore()}: below it every write is visible, and every later write
+ * gets a later stamp. Stamps are strictly increasing, at the microsecond precision of the
+ * database column.
+ */
+final class UserWriteClock {
+
+    // Stamps of writes that have begun but are not yet visible, oldest first
+    private final TreeSet<LocalDateTime> inFlight = new TreeSet<>();
+    private LocalDateTime last = LocalDateTime.MIN;
+
+    /**
+     * Stamp a write that is about to be applied. Must be followed by {@link #end} once the write
+     * is visible to readers or has failed.
+     */
+    synchronized LocalDateTime begin() {
+        last = next();
+        inFlight.add(last);
+        return last;
+    }
+
+    synchronized void end(LocalDateTime stamp) {
+        inFlight.remove(stamp);
+    }
+
+    /**
+     * Time before which every write is visible: the stamp of the oldest write still in flight, or
+     * a fresh stamp that no write will be given if none is.
+     */
+    synchronized LocalDateTime settledBefore() {
+        if (!inFlight.isEmpty()) {
+            return inFlight.first();
+        }
+        last = next();
+        return last;
+    }
+
+    /**
+     * The query with its updatedAt range cut off at {@link #settledBefore()} if it is a delta
+     * query, or null if nothing in its range has settled yet. Other queries are returned as is.
+     */
+    UserQuery settled(UserQuery query) {
+        if (!query.isDelta()) {
+            return query;
+        }
+        LocalDateTime settled = settledBefore();
+        if (query.updatedBefore() != null && !settled.isBefore(query.updatedBefore())) {
+            return query;
+        }
+        if (query.updatedSince() != null && !query.updatedSince().isBefore(settled)) {
+            return null;
+        }
+        return query.withUpdatedBefore(settled);
+    }
+
+    private LocalDateTime next() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        return now.isAfter(last) ? now : last.plus(1, ChronoUnit.MICROS);
+    }
+}
@@ -0,0 +1,25 @@
+package com.interview.repository.persistence;
+
+/**
+ * When the write-ahead log forces appended records to stable storage.
+ */
+public enum FsyncPolicy {
+
+    /**
+     * Every write waits until its record is forced. Writers that arrive while a force is in
+     * progress are covered by the next one, so concurrent writes share fsync calls (group commit).
+     */
+    SYNC,
+
+    /**
+     * A background task forces the log at a fixed interval; writes do not wait.
+     * A power loss can drop the last interval of writes.
+     */
+    INTERVAL,
+
+    /**
+     * Records are handed to the operating system and never forced explicitly.
+     * Survives a process crash but not a power loss.
+     */
+    NONE
+}
@@ -0,0 +1,96 @@
+package com.interview.repository.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Sequential reader of framed records from a log segment or checkpoint file.
+ * Reading stops at the first incomplete or corrupt frame; {@link #validLength()} then tells
+ * where the intact prefix of the file ends.
+ */
+class RecordFileReader {
+
+    // Must hold the largest possible frame
+    private static final int BUFFER_BYTES = 2 * UserRecordCodec.MAX_BODY_BYTES;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+    private long validLength;
+    private boolean endOfFile;
+    private boolean torn;
+
+    RecordFileReader(FileChannel channel) {
+        this.channel = channel;
+        this.buffer.flip();
+    }
+
+    /**
+     * Read the next record.
+     *
+     * @return The decoded record, or null at the end of the intact prefix
+     */
+    UserRecordCodec.Entry next() throws IOException {
+        if (!fill(UserRecordCodec.FRAME_HEADER_BYTES)) {
+            return null;
+        }
+        int bodyLength = buffer.getInt(buffer.position());
+        int checksum = buffer.getInt(buffer.position() + 4);
+        if (bodyLength <= 0 || bodyLength > UserRecordCodec.MAX_BODY_BYTES) {
+            torn = true;
+            return null;
+        }
+        if (!fill(UserRecordCodec.FRAME_HEADER_BYTES + bodyLength)) {
+            return null;
+        }
+        int bodyStart = buffer.position() + UserRecordCodec.FRAME_HEADER_BYTES;
+        ByteBuffer body = buffer.slice(bodyStart, bodyLength);
+        if (UserRecordCodec.checksum(body) != checksum) {
+            torn = true;
+            return null;
+        }
+        UserRecordCodec.Entry entry;
+        try {
+            entry = UserRecordCodec.decodeBody(body);
+        } catch (RuntimeException e) {
+            torn = true;
+            return null;
+        }
+        buffer.position(bodyStart + bodyLength);
+        validLength += UserRecordCodec.FRAME_HEADER_BYTES + bodyLength;
+        return entry;
+    }
+
+    /**
+     * Length of the prefix made of complete, checksum-valid records.
+     */
+    long validLength() {
+        return validLength;
+    }
+
+    /**
+     * Whether reading stopped before the physical end of the file.
+     */
+    boolean isTruncated() {
+        return torn || buffer.hasRemaining() || !endOfFile;
+    }
+
+    /**
+     * Make sure at least {@code bytes} unread bytes are buffered.
+     *
+     * @return false if the file ends first
+     */
+    private boolean fill(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return true;
+        }
+        buffer.compact();
+        while (buffer.position() < bytes && !endOfFile) {
+            if (channel.read(buffer) < 0) {
+                endOfFile = true;
+            }
+        }
+        buffer.flip();
+        return buffer.remaining() >= bytes;
+    }
+}
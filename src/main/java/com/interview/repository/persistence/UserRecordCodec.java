@@ -0,0 +1,168 @@
+package com.interview.repository.persistence;
+
+import com.interview.model.User;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary encoding of user records shared by the write-ahead log and checkpoints.
+ * <p>
+ * A framed record is {@code [int bodyLength][int crc32c(body)][body]}; the body is
+ * {@code [byte type][long id]} followed, for {@link #PUT}, by both timestamps as
+ * epoch second and nano (UTC) and the five string fields as length-prefixed UTF-8.
+ */
+public final class UserRecordCodec {
+
+    public static final byte PUT = 1;
+    public static final byte DELETE = 2;
+    public static final byte ID_HIGH_WATER_MARK = 3;
+
+    public static final int FRAME_HEADER_BYTES = 8;
+
+    // Guards against reading a garbage length from a torn or corrupt frame
+    static final int MAX_BODY_BYTES = 1 << 20;
+
+    private static final int NULL_LENGTH = -1;
+    private static final long NULL_TIMESTAMP = Long.MIN_VALUE;
+
+    private UserRecordCodec() {
+    }
+
+    /**
+     * A decoded record. {@code user} is only set for {@link #PUT}.
+     */
+    public record Entry(byte type, long id, User user) {
+    }
+
+    public static byte[] encodePut(User user) {
+        byte[] name = utf8(user.getName());
+        byte[] username = utf8(user.getUsername());
+        byte[] email = utf8(user.getEmail());
+        byte[] phone = utf8(user.getPhone());
+        byte[] website = utf8(user.getWebsite());
+        int bodyLength = 1 + 8 + 2 * (8 + 4)
+                + stringBytes(name) + stringBytes(username) + stringBytes(email)
+                + stringBytes(phone) + stringBytes(website);
+
+        ByteBuffer buffer = frameBuffer(bodyLength);
+        buffer.put(PUT).putLong(user.getId());
+        putTimestamp(buffer, user.getCreatedAt());
+        putTimestamp(buffer, user.getUpdatedAt());
+        putString(buffer, name);
+        putString(buffer, username);
+        putString(buffer, email);
+        putString(buffer, phone);
+        putString(buffer, website);
+        return seal(buffer);
+    }
+
+    public static byte[] encodeDelete(long id) {
+        return encodeIdRecord(DELETE, id);
+    }
+
+    public static byte[] encodeIdHighWaterMark(long id) {
+        return encodeIdRecord(ID_HIGH_WATER_MARK, id);
+    }
+
+    /**
+     * Decode a record body, i.e. a frame without its length and checksum header.
+     *
+     * @throws IllegalArgumentException if the body is not a valid record
+     */
+    public static Entry decodeBody(ByteBuffer body) {
+        byte type = body.get();
+        long id = body.getLong();
+        if (type == DELETE || type == ID_HIGH_WATER_MARK) {
+            return new Entry(type, id, null);
+        }
+        if (type != PUT) {
+            throw new IllegalArgumentException("Unknown record type " + type);
+        }
+        LocalDateTime createdAt = getTimestamp(body);
+        LocalDateTime updatedAt = getTimestamp(body);
+        User user = new User(getString(body), getString(body), getString(body), getString(body), getString(body));
+        user.setId(id);
+        user.setCreatedAt(createdAt);
+        user.setUpdatedAt(updatedAt);
+        return new Entry(type, id, user);
+    }
+
+    /**
+     * Checksum of a record body as stored in its frame header.
+     */
+    public static int checksum(ByteBuffer body) {
+        CRC32C crc = new CRC32C();
+        crc.update(body.duplicate());
+        return (int) crc.getValue();
+    }
+
+    private static byte[] encodeIdRecord(byte type, long id) {
+        ByteBuffer buffer = frameBuffer(1 + 8);
+        buffer.put(type).putLong(id);
+        return seal(buffer);
+    }
+
+    private static ByteBuffer frameBuffer(int bodyLength) {
+        ByteBuffer buffer = ByteBuffer.allocate(FRAME_HEADER_BYTES + bodyLength);
+        buffer.putInt(bodyLength).putInt(0);
+        return buffer;
+    }
+
+    private static byte[] seal(ByteBuffer buffer) {
+        ByteBuffer body = buffer.duplicate().position(FRAME_HEADER_BYTES).limit(buffer.capacity());
+        buffer.putInt(4, checksum(body));
+        return buffer.array();
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int stringBytes(byte[] value) {
+        return 4 + (value == null ? 0 : value.length);
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(NULL_LENGTH);
+        } else {
+            buffer.putInt(value.length).put(value);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid string length " + length);
+        }
+        if (buffer.hasArray()) {
+            String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+            return value;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void putTimestamp(ByteBuffer buffer, LocalDateTime value) {
+        if (value == null) {
+            buffer.putLong(NULL_TIMESTAMP).putInt(0);
+        } else {
+            buffer.putLong(value.toEpochSecond(ZoneOffset.UTC)).putInt(value.getNano());
+        }
+    }
+
+    private static LocalDateTime getTimestamp(ByteBuffer buffer) {
+        long seconds = buffer.getLong();
+        int nanos = buffer.getInt();
+        return seconds == NULL_TIMESTAMP ? null : LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,194 @@
+package com.interview.repository.persistence;
+
+import com.interview.model.User;
+import com.interview.repository.InMemoryUserRepository;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact binary snapshot of the user repository for fast cold starts.
+ * <p>
+ * Layout: a fixed header {@code [int magic][int version][long userCount][long idHighWaterMark]
+ * [long createdAtEpochMillis]} followed by one {@link UserRecordCodec} PUT frame per user in id order.
+ * Reading memory-maps the file, cuts it into chunks with one pass over the frame lengths,
+ * and decodes the chunks in parallel.
+ */
+public final class UserSnapshotFile {
+
+    private static final int MAGIC = 0x55534E50; // "USNP"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 8;
+
+    // Decode work units: bounded by record count and by mapped size
+    private static final int CHUNK_RECORDS = 65_536;
+    private static final long CHUNK_BYTES = 64L << 20;
+
+    private UserSnapshotFile() {
+    }
+
+    /**
+     * Write the snapshot to a temporary file, force it, and atomically move it into place.
+     *
+     * @return Size of the written file in bytes
+     */
+    public static long write(Path target, InMemoryUserRepository.Snapshot snapshot) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                    .putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putLong(snapshot.users().size())
+                    .putLong(snapshot.idHighWaterMark())
+                    .putLong(System.currentTimeMillis())
+                    .flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
+            for (User user : snapshot.users()) {
+                out.write(UserRecordCodec.encodePut(user));
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return Files.size(target);
+    }
+
+    /**
+     * Read a snapshot written by {@link #write}.
+     *
+     * @throws IllegalStateException if the file is not a valid snapshot
+     */
+    public static InMemoryUserRepository.Snapshot read(Path source) throws IOException {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_BYTES) {
+                throw new IllegalStateException("Snapshot " + source + " is truncated");
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IllegalStateException("Snapshot " + source + " has an unknown format");
+            }
+            long userCount = header.getLong();
+            long idHighWaterMark = header.getLong();
+            if (userCount < 0 || userCount > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("Snapshot " + source + " has an invalid user count");
+            }
+
+            List<Chunk> chunks = planChunks(channel, fileSize, userCount, source);
+            User[] users = new User[(int) userCount];
+            chunks.parallelStream().forEach(chunk -> decode(channel, chunk, users, source));
+            return new InMemoryUserRepository.Snapshot(Arrays.asList(users), idHighWaterMark);
+        }
+    }
+
+    /**
+     * Walk the frame lengths once and split the records into independently decodable chunks.
+     */
+    private static List<Chunk> planChunks(FileChannel channel, long fileSize, long userCount, Path source)
+            throws IOException {
+        List<Chunk> chunks = new ArrayList<>();
+        MappedRegion region = new MappedRegion(channel, fileSize);
+        long position = HEADER_BYTES;
+        long chunkStart = position;
+        int chunkFirst = 0;
+        int chunkRecords = 0;
+        for (int index = 0; index < userCount; index++) {
+            if (position + UserRecordCodec.FRAME_HEADER_BYTES > fileSize) {
+                throw new IllegalStateException("Snapshot " + source + " is truncated");
+            }
+            int bodyLength = region.intAt(position);
+            if (bodyLength <= 0 || bodyLength > UserRecordCodec.MAX_BODY_BYTES) {
+                throw new IllegalStateException("Snapshot " + source + " is corrupt at byte " + position);
+            }
+            long frameLength = UserRecordCodec.FRAME_HEADER_BYTES + (long) bodyLength;
+            if (chunkRecords > 0 && (chunkRecords == CHUNK_RECORDS || position + frameLength - chunkStart > CHUNK_BYTES)) {
+                chunks.add(new Chunk(chunkStart, position - chunkStart, chunkFirst, chunkRecords));
+                chunkStart = position;
+                chunkFirst = index;
+                chunkRecords = 0;
+            }
+            position += frameLength;
+            chunkRecords++;
+        }
+        if (position > fileSize) {
+            throw new IllegalStateException("Snapshot " + source + " is truncated");
+        }
+        if (chunkRecords > 0) {
+            chunks.add(new Chunk(chunkStart, position - chunkStart, chunkFirst, chunkRecords));
+        }
+        return chunks;
+    }
+
+    private static void decode(FileChannel channel, Chunk chunk, User[] users, Path source) {
+        MappedByteBuffer buffer;
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunk.offset(), chunk.length());
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to map snapshot " + source, e);
+        }
+        int position = 0;
+        for (int i = 0; i < chunk.records(); i++) {
+            int bodyLength = buffer.getInt(position);
+            int checksum = buffer.getInt(position + 4);
+            ByteBuffer body = buffer.slice(position + UserRecordCodec.FRAME_HEADER_BYTES, bodyLength);
+            if (UserRecordCodec.checksum(body) != checksum) {
+                throw new IllegalStateException("Snapshot " + source + " has a bad checksum at byte "
+                        + (chunk.offset() + position));
+            }
+            UserRecordCodec.Entry entry = UserRecordCodec.decodeBody(body);
+            if (entry.type() != UserRecordCodec.PUT) {
+                throw new IllegalStateException("Snapshot " + source + " contains a non-user record");
+            }
+            users[chunk.firstIndex() + i] = entry.user();
+            position += UserRecordCodec.FRAME_HEADER_BYTES + bodyLength;
+        }
+    }
+
+    private record Chunk(long offset, long length, int firstIndex, int records) {
+    }
+
+    /**
+     * Sliding read-only mapping used to read frame lengths across a file of any size.
+     */
+    private static final class MappedRegion {
+        private static final long WINDOW_BYTES = 256L << 20;
+
+        private final FileChannel channel;
+        private final long fileSize;
+        private MappedByteBuffer window;
+        private long windowStart;
+
+        MappedRegion(FileChannel channel, long fileSize) {
+            this.channel = channel;
+            this.fileSize = fileSize;
+        }
+
+        int intAt(long position) throws IOException {
+            if (window == null || position < windowStart || position + 4 > windowStart + window.capacity()) {
+                windowStart = position;
+                window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_BYTES, fileSize - position));
+            }
+            return window.getInt((int) (position - windowStart));
+        }
+    }
+}
@@ -0,0 +1,419 @@
+package com.interview.repository.persistence;
+
+import com.interview.model.User;
+import com.interview.repository.UserMutationLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of user writes, kept as numbered segment files plus checkpoints.
+ * <p>
+ * Every save and delete is appended to the current segment through a {@link FileChannel}.
+ * A checkpoint rolls over to a new segment N, writes the live users to {@code checkpoint-N},
+ * and then deletes everything older, so recovery only reads the newest checkpoint and the
+ * segments from N on. Records are full user states, so replaying a write the checkpoint
+ * already contains is harmless.
+ */
+public class UserWriteAheadLog implements UserMutationLog, Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserWriteAheadLog.class);
+
+    private static final String SEGMENT_PREFIX = "users-";
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final String CHECKPOINT_PREFIX = "checkpoint-";
+    private static final String CHECKPOINT_SUFFIX = ".dat";
+    private static final String TMP_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final FsyncPolicy fsyncPolicy;
+    private final long groupCommitWindowNanos;
+
+    // Shared by writers from append until the map is updated; exclusive while rolling segments,
+    // so a checkpoint taken after a roll sees every write logged to the older segments
+    private final ReentrantReadWriteLock mutationLock = new ReentrantReadWriteLock();
+    // Lock order: mutationLock, then forceLock, then appendLock
+    private final Object forceLock = new Object();
+    private final Object appendLock = new Object();
+    private final Object checkpointLock = new Object();
+
+    private FileChannel channel;
+    private long segment;
+    // Logical byte count across all segments, used as the durability position
+    private long appendedBytes;
+    private long segmentStartBytes;
+    private volatile long durableBytes;
+    private volatile IOException failure;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * State rebuilt from the log.
+     *
+     * @param users Live users
+     * @param idHighWaterMark Highest id seen in any record
+     */
+    public record Recovery(Collection<User> users, long idHighWaterMark) {
+    }
+
+    public UserWriteAheadLog(Path directory, FsyncPolicy fsyncPolicy, Duration groupCommitWindow) {
+        this.directory = directory;
+        this.fsyncPolicy = fsyncPolicy;
+        this.groupCommitWindowNanos = groupCommitWindow.toNanos();
+    }
+
+    /**
+     * Rebuild the user set from the newest checkpoint and the segments after it, and open the
+     * log for appending. A torn record at the end of the last segment, left by a crash
+     * mid-append, is cut off; damage anywhere else fails recovery.
+     *
+     * @param seedUsers Users to start from when no checkpoint exists yet
+     */
+    public Recovery recover(Collection<User> seedUsers) throws IOException {
+        Files.createDirectories(directory);
+        deleteFiles(path -> path.getFileName().toString().endsWith(TMP_SUFFIX));
+
+        Map<Long, User> state = new HashMap<>();
+        long idHighWaterMark = 0;
+        long firstSegment = 1;
+
+        OptionalLong checkpoint = fileNumbers(CHECKPOINT_PREFIX, CHECKPOINT_SUFFIX).stream()
+                .mapToLong(Long::longValue).max();
+        if (checkpoint.isPresent()) {
+            firstSegment = checkpoint.getAsLong();
+            Path path = checkpointPath(firstSegment);
+            try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+                RecordFileReader reader = new RecordFileReader(in);
+                UserRecordCodec.Entry entry;
+                while ((entry = reader.next()) != null) {
+                    idHighWaterMark = apply(state, entry, idHighWaterMark);
+                }
+                if (reader.isTruncated()) {
+                    throw new IllegalStateException("Checkpoint " + path + " is corrupt");
+                }
+            }
+        } else {
+            seedUsers.forEach(user -> state.put(user.getId(), user));
+        }
+
+        long startSegment = firstSegment;
+        List<Long> segments = fileNumbers(SEGMENT_PREFIX, SEGMENT_SUFFIX).stream()
+                .filter(number -> number >= startSegment)
+                .toList();
+        for (int i = 0; i < segments.size(); i++) {
+            Path path = segmentPath(segments.get(i));
+            boolean last = i == segments.size() - 1;
+            try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                RecordFileReader reader = new RecordFileReader(in);
+                UserRecordCodec.Entry entry;
+                while ((entry = reader.next()) != null) {
+                    idHighWaterMark = apply(state, entry, idHighWaterMark);
+                }
+                if (reader.isTruncated()) {
+                    if (!last) {
+                        throw new IllegalStateException("Log segment " + path + " is corrupt");
+                    }
+                    logger.warn("Truncating torn tail of {} at byte {}", path, reader.validLength());
+                    in.truncate(reader.validLength());
+                    in.force(true);
+                }
+            }
+        }
+
+        deleteFiles(path -> isOlderThan(path, startSegment));
+        synchronized (appendLock) {
+            segment = segments.isEmpty() ? startSegment : segments.get(segments.size() - 1);
+            channel = openSegment(segment);
+        }
+        logger.info("Recovered {} users from {} (checkpoint: {}, segments: {})",
+                state.size(), directory, checkpoint.isPresent() ? checkpoint.getAsLong() : "none", segments.size());
+        return new Recovery(state.values(), idHighWaterMark);
+    }
+
+    /**
+     * Start background fsync (for {@link FsyncPolicy#INTERVAL}) and periodic checkpoints.
+     *
+     * @param liveUsers Source of the current users for checkpoints
+     * @param idHighWaterMark Source of the repository's id high-water mark
+     * @param fsyncInterval Interval between background forces
+     * @param checkpointInterval How often to consider taking a checkpoint
+     * @param checkpointMinBytes Log growth since the last checkpoint needed to take a new one
+     */
+    public void startBackgroundTasks(Supplier<Stream<User>> liveUsers, LongSupplier idHighWaterMark,
+                                     Duration fsyncInterval, Duration checkpointInterval, long checkpointMinBytes) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-wal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+            long millis = fsyncInterval.toMillis();
+            scheduler.scheduleWithFixedDelay(this::forceQuietly, millis, millis, TimeUnit.MILLISECONDS);
+        }
+        long millis = checkpointInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                if (bytesSinceCheckpoint() >= checkpointMinBytes) {
+                    checkpoint(liveUsers, idHighWaterMark);
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.error("User log checkpoint failed", e);
+            }
+        }, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Roll to a new segment, write the live users as a checkpoint for it, and delete older files.
+     */
+    public void checkpoint(Supplier<Stream<User>> liveUsers, LongSupplier idHighWaterMark) throws IOException {
+        synchronized (checkpointLock) {
+            long number = rollSegment();
+            Path tmp = directory.resolve(CHECKPOINT_PREFIX + number + CHECKPOINT_SUFFIX + TMP_SUFFIX);
+            long written = 0;
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                 Stream<User> users = liveUsers.get()) {
+                OutputStream stream = new BufferedOutputStream(Channels.newOutputStream(out), 1 << 16);
+                stream.write(UserRecordCodec.encodeIdHighWaterMark(idHighWaterMark.getAsLong()));
+                Iterator<User> iterator = users.iterator();
+                while (iterator.hasNext()) {
+                    stream.write(UserRecordCodec.encodePut(iterator.next()));
+                    written++;
+                }
+                stream.flush();
+                out.force(true);
+            }
+            Files.move(tmp, checkpointPath(number), StandardCopyOption.ATOMIC_MOVE);
+            syncDirectory();
+            deleteFiles(path -> isOlderThan(path, number));
+            logger.info("Wrote user log checkpoint {} with {} users", number, written);
+        }
+    }
+
+    @Override
+    public void beginMutation() {
+        mutationLock.readLock().lock();
+    }
+
+    @Override
+    public void endMutation() {
+        mutationLock.readLock().unlock();
+    }
+
+    @Override
+    public long logSave(User user) {
+        return append(UserRecordCodec.encodePut(user));
+    }
+
+    @Override
+    public long logDelete(Long id) {
+        return append(UserRecordCodec.encodeDelete(id));
+    }
+
+    /**
+     * Under {@link FsyncPolicy#SYNC}, wait until the position is forced. The first waiter forces
+     * everything appended so far on behalf of all writers queued behind it.
+     */
+    @Override
+    public void awaitDurable(long position) {
+        if (fsyncPolicy != FsyncPolicy.SYNC || durableBytes >= position) {
+            return;
+        }
+        synchronized (forceLock) {
+            if (durableBytes >= position) {
+                return;
+            }
+            if (groupCommitWindowNanos > 0) {
+                // Give concurrent writers a moment to join this force
+                LockSupport.parkNanos(groupCommitWindowNanos);
+            }
+            force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        synchronized (forceLock) {
+            synchronized (appendLock) {
+                if (channel != null && channel.isOpen()) {
+                    if (fsyncPolicy != FsyncPolicy.NONE && failure == null) {
+                        channel.force(false);
+                    }
+                    channel.close();
+                }
+            }
+        }
+    }
+
+    private long append(byte[] record) {
+        synchronized (appendLock) {
+            if (failure != null) {
+                throw new UncheckedIOException("User log is unavailable after an earlier failure", failure);
+            }
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(record);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                // A partial record may now sit at the tail; refuse further appends
+                failure = e;
+                throw new UncheckedIOException("Failed to append to user log", e);
+            }
+            appendedBytes += record.length;
+            return appendedBytes;
+        }
+    }
+
+    /**
+     * Force the current segment. Caller must hold {@link #forceLock}.
+     */
+    private void force() {
+        FileChannel target;
+        long upTo;
+        synchronized (appendLock) {
+            target = channel;
+            upTo = appendedBytes;
+        }
+        try {
+            target.force(false);
+        } catch (IOException e) {
+            failure = e;
+            throw new UncheckedIOException("Failed to force user log", e);
+        }
+        durableBytes = upTo;
+    }
+
+    private void forceQuietly() {
+        try {
+            synchronized (forceLock) {
+                force();
+            }
+        } catch (RuntimeException e) {
+            logger.error("Background fsync of user log failed", e);
+        }
+    }
+
+    private long rollSegment() throws IOException {
+        mutationLock.writeLock().lock();
+        try {
+            synchronized (forceLock) {
+                synchronized (appendLock) {
+                    if (fsyncPolicy != FsyncPolicy.NONE) {
+                        channel.force(false);
+                        durableBytes = appendedBytes;
+                    }
+                    channel.close();
+                    segment++;
+                    channel = openSegment(segment);
+                    segmentStartBytes = appendedBytes;
+                    return segment;
+                }
+            }
+        } finally {
+            mutationLock.writeLock().unlock();
+        }
+    }
+
+    private long bytesSinceCheckpoint() {
+        synchronized (appendLock) {
+            return appendedBytes - segmentStartBytes;
+        }
+    }
+
+    private FileChannel openSegment(long number) throws IOException {
+        FileChannel opened = FileChannel.open(segmentPath(number), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        opened.position(opened.size());
+        syncDirectory();
+        return opened;
+    }
+
+    private static long apply(Map<Long, User> state, UserRecordCodec.Entry entry, long idHighWaterMark) {
+        switch (entry.type()) {
+            case UserRecordCodec.PUT -> state.put(entry.id(), entry.user());
+            case UserRecordCodec.DELETE -> state.remove(entry.id());
+            default -> {
+                // ID_HIGH_WATER_MARK only moves the counter
+            }
+        }
+        return Math.max(idHighWaterMark, entry.id());
+    }
+
+    private Path segmentPath(long number) {
+        return directory.resolve(SEGMENT_PREFIX + number + SEGMENT_SUFFIX);
+    }
+
+    private Path checkpointPath(long number) {
+        return directory.resolve(CHECKPOINT_PREFIX + number + CHECKPOINT_SUFFIX);
+    }
+
+    private boolean isOlderThan(Path path, long number) {
+        Long segmentNumber = parseNumber(path, SEGMENT_PREFIX, SEGMENT_SUFFIX);
+        Long checkpointNumber = parseNumber(path, CHECKPOINT_PREFIX, CHECKPOINT_SUFFIX);
+        return (segmentNumber != null && segmentNumber < number)
+                || (checkpointNumber != null && checkpointNumber < number);
+    }
+
+    private List<Long> fileNumbers(String prefix, String suffix) throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Long number = parseNumber(file, prefix, suffix);
+                if (number != null) {
+                    numbers.add(number);
+                }
+            }
+        }
+        Collections.sort(numbers);
+        return numbers;
+    }
+
+    private static Long parseNumber(Path path, String prefix, String suffix) {
+        String name = path.getFileName().toString();
+        if (!name.startsWith(prefix) || !name.endsWith(suffix)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void deleteFiles(Predicate<Path> filter) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                if (filter.test(file)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private void syncDirectory() {
+        // Makes file creation and renames durable; not supported on every platform
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            logger.debug("Directory fsync not supported for {}", directory);
+        }
+    }
+}
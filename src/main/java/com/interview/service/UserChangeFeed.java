@@ -0,0 +1,393 @@
+package com.interview.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.interview.dto.UserChangeEvent;
+import com.interview.dto.UserResponse;
+import com.interview.model.User;
+import com.interview.repository.UserChangeListener;
+import com.interview.repository.UserRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Feed of user creates, updates and deletes for clients that keep a copy of the users in sync.
+ * <p>
+ * The repository reports every write as it is applied, which numbers it with the next sequence
+ * number and puts it into a fixed-size ring buffer without locking, so writers never wait for
+ * subscribers. The change stays hidden until the repository publishes it once the write is
+ * durable; subscribers only read up to the newest sequence whose predecessors are all published
+ * or discarded, so they see changes in write order and never one that might still fail.
+ * Each subscriber follows the ring from its own position on its own virtual thread, so a slow
+ * one only delays itself, and a single notifier thread wakes them, so a writer signals at most
+ * one thread. A subscriber that falls behind by more than the buffer, or resumes
+ * from a position the buffer no longer holds, gets a {@code reset} event and continues from
+ * the newest change.
+ */
+@Service
+public class UserChangeFeed implements UserChangeListener, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(UserChangeFeed.class);
+
+    // Events sent to one subscriber before it checks whether it has fallen behind
+    private static final int SEND_BATCH_SIZE = 256;
+
+    // States of a change
+    private static final int PENDING = 0;
+    private static final int PUBLISHED = 1;
+    private static final int DISCARDED = 2;
+
+    private final ObjectWriter writer;
+    private final AtomicReferenceArray<Change> ring;
+    private final int mask;
+    private final long heartbeatNanos;
+    // Sequences start above any an earlier run could have reached (fewer than 1024 changes per
+    // millisecond of uptime), so a client resuming across a restart is reset instead of skipping
+    private final long firstSequence = (System.currentTimeMillis() << 10) + 1;
+    // Highest sequence handed to a write
+    private final AtomicLong reservedSequence = new AtomicLong(firstSequence - 1);
+    // Highest sequence up to which every change is published or discarded; what readers see
+    private final AtomicLong publishedSequence = new AtomicLong(firstSequence - 1);
+    // Subscriber threads parked until the next change
+    private final Set<Thread> waiting = ConcurrentHashMap.newKeySet();
+    private final Thread notifier;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final LongAdder resets = new LongAdder();
+    private volatile boolean closed;
+
+    @Autowired
+    public UserChangeFeed(UserRepository userRepository, ObjectMapper objectMapper,
+                          @Value("${users.changes.buffer-size:65536}") int bufferSize,
+                          @Value("${users.changes.heartbeat-interval:15s}") Duration heartbeatInterval) {
+        if (bufferSize <= 0 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("Change buffer size must be a power of two");
+        }
+        if (heartbeatInterval.isNegative() || heartbeatInterval.isZero()) {
+            throw new IllegalArgumentException("Change heartbeat interval must be positive");
+        }
+        this.writer = objectMapper.writerFor(UserChangeEvent.class);
+        this.ring = new AtomicReferenceArray<>(bufferSize);
+        this.mask = bufferSize - 1;
+        this.heartbeatNanos = heartbeatInterval.toNanos();
+        this.notifier = Thread.ofVirtual().name("user-changes-notifier").start(this::wakeSubscribers);
+        userRepository.setChangeListener(this);
+    }
+
+    @Override
+    public PendingChange userSaved(User user) {
+        return reserve(user.getVersion() == 0 ? UserChangeEvent.CREATED : UserChangeEvent.UPDATED, user.getId(), user);
+    }
+
+    @Override
+    public PendingChange userDeleted(Long id) {
+        return reserve(UserChangeEvent.DELETED, id, null);
+    }
+
+    private PendingChange reserve(String type, Long userId, User user) {
+        long sequence = reservedSequence.incrementAndGet();
+        Change change = new Change(sequence, type, userId, user);
+        int slot = (int) sequence & mask;
+        Change current = ring.get(slot);
+        // A writer that stalled between its two steps must not replace a newer change
+        while ((current == null || current.sequence < sequence) && !ring.compareAndSet(slot, current, change)) {
+            current = ring.get(slot);
+        }
+        return new Pending(change);
+    }
+
+    /**
+     * Move the published sequence past every resolved change, and wake the subscribers if it moved.
+     * Every resolving writer runs this after marking its change, so the last one to resolve a run
+     * of changes moves past all of them.
+     */
+    private void advance() {
+        boolean advanced = false;
+        long published = publishedSequence.get();
+        while (true) {
+            long next = published + 1;
+            Change change = ring.get((int) next & mask);
+            // Not stored yet, or stored and still pending; a newer change in its slot means it was
+            // overwritten, and readers needing it are reset anyway
+            if (change == null || change.sequence < next || (change.sequence == next && change.state == PENDING)) {
+                break;
+            }
+            if (publishedSequence.compareAndSet(published, next)) {
+                advanced = true;
+                published = next;
+            } else {
+                published = publishedSequence.get();
+            }
+        }
+        if (advanced && !waiting.isEmpty()) {
+            LockSupport.unpark(notifier);
+        }
+    }
+
+    /**
+     * Runs on the notifier thread: each signal from a writer wakes every parked subscriber, so
+     * writers never iterate the subscribers themselves.
+     */
+    private void wakeSubscribers() {
+        while (!closed) {
+            LockSupport.park(this);
+            for (Thread thread : waiting) {
+                LockSupport.unpark(thread);
+            }
+        }
+    }
+
+    /**
+     * Sequence number of the newest visible change, or of the start of the feed if there is none yet.
+     */
+    public long lastSequence() {
+        return publishedSequence.get();
+    }
+
+    /**
+     * Changes with sequence numbers greater than {@code after}, oldest first.
+     *
+     * @param max Maximum number of changes to return
+     * @return The changes, or null if some of them are no longer held, or {@code after} is not
+     *         a position of this feed
+     */
+    public List<Change> changesAfter(long after, int max) {
+        List<Change> changes = new ArrayList<>();
+        return read(after, max, changes) < 0 ? null : changes;
+    }
+
+    /**
+     * Add published changes with sequence numbers greater than {@code after} to {@code changes},
+     * at most {@code max} of them, passing over discarded ones.
+     *
+     * @return Sequence number read up to, or -1 if some of the changes are no longer held, or
+     *         {@code after} is not a position of this feed
+     */
+    private long read(long after, int max, List<Change> changes) {
+        long last = publishedSequence.get();
+        if (after < firstSequence - 1 || after > last || last - after > ring.length()) {
+            return -1;
+        }
+        long sequence = after;
+        while (sequence < last && changes.size() < max) {
+            Change change = ring.get((int) (sequence + 1) & mask);
+            if (change == null || change.sequence != sequence + 1) {
+                return -1;
+            }
+            sequence++;
+            if (change.state == PUBLISHED) {
+                changes.add(change);
+            }
+        }
+        return sequence;
+    }
+
+    /**
+     * Start streaming changes to a new subscriber as server-sent events, each with its sequence
+     * number as event id.
+     *
+     * @param after Sequence number of the last change the client has seen, or null for
+     *              changes from now on
+     */
+    public SseEmitter subscribe(Long after) {
+        // Streams end when the client disconnects or the application stops, not on a timer
+        SseEmitter emitter = new SseEmitter(0L);
+        Subscriber subscriber = new Subscriber(emitter, after == null ? publishedSequence.get() : after);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(ex -> subscriber.close());
+        subscribers.add(subscriber);
+        subscriber.thread = Thread.ofVirtual().name("user-changes").start(subscriber::run);
+        return emitter;
+    }
+
+    @PreDestroy
+    void close() {
+        closed = true;
+        LockSupport.unpark(notifier);
+        subscribers.forEach(subscriber -> {
+            subscriber.emitter.complete();
+            subscriber.close();
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("users.changes.subscribers", subscribers, Set::size)
+                .description("Clients streaming user changes")
+                .register(registry);
+        FunctionCounter.builder("users.changes.resets", resets, LongAdder::sum)
+                .description("Subscribers told to reload because changes they needed were dropped")
+                .register(registry);
+    }
+
+    /**
+     * One create, update or delete. Serialized once, by the first subscriber that sends it.
+     */
+    public static final class Change {
+        private final long sequence;
+        private final String type;
+        private final Long userId;
+        private final User user;
+        private volatile int state = PENDING;
+        private volatile String json;
+
+        Change(long sequence, String type, Long userId, User user) {
+            this.sequence = sequence;
+            this.type = type;
+            this.userId = userId;
+            this.user = user;
+        }
+
+        public long sequence() {
+            return sequence;
+        }
+
+        public String type() {
+            return type;
+        }
+
+        public Long userId() {
+            return userId;
+        }
+
+        /**
+         * @return The saved user, or null for a delete
+         */
+        public User user() {
+            return user;
+        }
+
+        String json(ObjectWriter writer) throws JsonProcessingException {
+            String serialized = json;
+            if (serialized == null) {
+                serialized = writer.writeValueAsString(new UserChangeEvent(sequence, type, userId,
+                        user == null ? null : user.getVersion(), user == null ? null : new UserResponse(user)));
+                json = serialized;
+            }
+            return serialized;
+        }
+    }
+
+    /**
+     * The repository's handle on a change until it is published or discarded.
+     */
+    private final class Pending implements PendingChange {
+        private final Change change;
+
+        Pending(Change change) {
+            this.change = change;
+        }
+
+        @Override
+        public void publish() {
+            change.state = PUBLISHED;
+            advance();
+        }
+
+        @Override
+        public void discard() {
+            change.state = DISCARDED;
+            advance();
+        }
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private long position;
+        private volatile Thread thread;
+        private volatile boolean done;
+
+        Subscriber(SseEmitter emitter, long position) {
+            this.emitter = emitter;
+            this.position = position;
+        }
+
+        void run() {
+            try {
+                while (!done && !closed) {
+                    List<Change> changes = new ArrayList<>();
+                    long read = read(position, SEND_BATCH_SIZE, changes);
+                    if (read < 0) {
+                        reset();
+                    } else if (read > position) {
+                        for (Change change : changes) {
+                            emitter.send(SseEmitter.event()
+                                    .id(Long.toString(change.sequence))
+                                    .name(change.type)
+                                    .data(change.json(writer), MediaType.APPLICATION_JSON));
+                        }
+                        // Past any discarded changes too, which have nothing to send
+                        position = read;
+                    } else if (!awaitChange()) {
+                        emitter.send(SseEmitter.event().comment("keepalive"));
+                    }
+                }
+            } catch (IOException | IllegalStateException ex) {
+                // The client went away, or the emitter was completed by close()
+                log.debug("User change stream ended: {}", ex.getMessage());
+            } finally {
+                close();
+            }
+        }
+
+        private void reset() throws IOException {
+            resets.increment();
+            long last = publishedSequence.get();
+            emitter.send(SseEmitter.event()
+                    .id(Long.toString(last))
+                    .name(UserChangeEvent.RESET)
+                    .data(writer.writeValueAsString(new UserChangeEvent(last, UserChangeEvent.RESET, null, null, null)),
+                            MediaType.APPLICATION_JSON));
+            position = last;
+        }
+
+        /**
+         * Park until a change is published or the heartbeat interval passes.
+         *
+         * @return Whether there is a change to send
+         */
+        private boolean awaitChange() {
+            waiting.add(Thread.currentThread());
+            try {
+                // Checked after registering, so a change published in between still wakes us
+                if (publishedSequence.get() == position) {
+                    LockSupport.parkNanos(heartbeatNanos);
+                }
+            } finally {
+                waiting.remove(Thread.currentThread());
+            }
+            return publishedSequence.get() != position;
+        }
+
+        void close() {
+            done = true;
+            subscribers.remove(this);
+            Thread current = thread;
+            if (current != null) {
+                LockSupport.unpark(current);
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.interview.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.interview.dto.UserProjection;
+import com.interview.dto.UserResponse;
+import com.interview.model.User;
+import com.interview.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+/**
+ * Streams the full user set as newline-delimited JSON.
+ */
+@Service
+public class UserExportService {
+
+    // Push buffered bytes to the client every this many users
+    private static final int FLUSH_INTERVAL = 512;
+
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public UserExportService(UserRepository userRepository, ObjectMapper objectMapper) {
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Write every user as one JSON line, reading straight from the repository's ordered index.
+     * Only one user is materialized at a time, so memory use does not grow with the dataset,
+     * and the first line is flushed as soon as it is written.
+     *
+     * @param out Destination stream, left open
+     * @return Number of users written
+     */
+    public long exportUsers(OutputStream out) throws IOException {
+        return exportUsers(out, null);
+    }
+
+    /**
+     * Write every user as one JSON line holding only the projection's fields.
+     *
+     * @param projection Fields to write, or null for all of them
+     * @return Number of users written
+     */
+    public long exportUsers(OutputStream out, UserProjection projection) throws IOException {
+        // Flushing is driven by FLUSH_INTERVAL, not by every value
+        ObjectWriter writer = objectMapper.writerFor(UserResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long written = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            Iterator<User> users = userRepository.streamAll().iterator();
+            while (users.hasNext()) {
+                if (projection == null) {
+                    writer.writeValue(generator, new UserResponse(users.next()));
+                } else {
+                    projection.write(users.next(), generator);
+                }
+                generator.writeRaw('\n');
+                if (++written == 1 || written % FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
+            }
+            generator.flush();
+        }
+        return written;
+    }
+}
@@ -0,0 +1,181 @@
+package com.interview.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.interview.dto.BatchItemResult;
+import com.interview.dto.BatchResult;
+import com.interview.dto.ImportEvent;
+import com.interview.dto.UserRequest;
+import com.interview.dto.UserResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Imports users from a streamed request body, either newline-delimited JSON or a JSON array.
+ * Records are parsed one at a time and applied in bounded batches through
+ * {@link UserService#createUsers(List)}, so the payload is never held in memory.
+ */
+@Service
+public class UserImportService {
+
+    private final UserService userService;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    @Autowired
+    public UserImportService(UserService userService, ObjectMapper objectMapper,
+                             @Value("${users.import.batch-size:1000}") int batchSize) {
+        if (batchSize <= 0 || batchSize > UserService.MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Import batch size must be between 1 and " + UserService.MAX_BATCH_SIZE);
+        }
+        this.userService = userService;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Import newline-delimited JSON, one {@link UserRequest} per line. Blank lines are skipped;
+     * a malformed line is reported and the import continues with the next one.
+     *
+     * @param in Request body
+     * @param out Destination for the NDJSON progress stream
+     * @return Final counters
+     */
+    public ImportEvent importNdjson(InputStream in, OutputStream out) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(UserRequest.class);
+        try (ImportRun run = new ImportRun(out)) {
+            BufferedReader lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String text;
+            long lineNumber = 0;
+            while ((text = lines.readLine()) != null) {
+                lineNumber++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                try {
+                    run.add(lineNumber, reader.readValue(text));
+                } catch (JsonProcessingException e) {
+                    run.reject(lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+                }
+            }
+            return run.finish();
+        }
+    }
+
+    /**
+     * Import a JSON array of {@link UserRequest} objects, streaming element by element.
+     * A syntax error leaves the parser unusable, so it is reported and ends the import;
+     * records applied before it are kept.
+     *
+     * @param in Request body
+     * @param out Destination for the NDJSON progress stream
+     * @return Final counters
+     */
+    public ImportEvent importJsonArray(InputStream in, OutputStream out) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(UserRequest.class);
+        try (ImportRun run = new ImportRun(out);
+             JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            long line = 1;
+            try {
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    run.reject(line, "Expected a JSON array of users");
+                    return run.finish();
+                }
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    line = parser.currentTokenLocation().getLineNr();
+                    run.add(line, reader.readValue(parser));
+                }
+                if (parser.currentToken() != JsonToken.END_ARRAY) {
+                    run.reject(parser.currentTokenLocation().getLineNr(), "Expected a JSON object");
+                }
+            } catch (JsonProcessingException e) {
+                run.reject(e.getLocation() != null ? e.getLocation().getLineNr() : line,
+                        "Malformed JSON: " + e.getOriginalMessage());
+            }
+            return run.finish();
+        }
+    }
+
+    /**
+     * State of one import: the pending batch, the counters and the progress writer.
+     */
+    private class ImportRun implements Closeable {
+        private final JsonGenerator generator;
+        private final ObjectWriter writer;
+        private final List<UserRequest> pending = new ArrayList<>(batchSize);
+        private final List<Long> pendingLines = new ArrayList<>(batchSize);
+        private long processed;
+        private long imported;
+        private long failed;
+
+        ImportRun(OutputStream out) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.writer = objectMapper.writerFor(ImportEvent.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        }
+
+        void add(long line, UserRequest request) throws IOException {
+            pending.add(request);
+            pendingLines.add(line);
+            if (pending.size() >= batchSize) {
+                flushBatch();
+            }
+        }
+
+        void reject(long line, String error) throws IOException {
+            processed++;
+            failed++;
+            emit(ImportEvent.error(line, error));
+        }
+
+        ImportEvent finish() throws IOException {
+            if (!pending.isEmpty()) {
+                flushBatch();
+            }
+            ImportEvent summary = ImportEvent.progress(ImportEvent.SUMMARY, processed, imported, failed);
+            emit(summary);
+            generator.flush();
+            return summary;
+        }
+
+        private void flushBatch() throws IOException {
+            BatchResult<UserResponse> result = userService.createUsers(pending);
+            for (BatchItemResult<UserResponse> item : result.getResults()) {
+                if (!item.isSuccess()) {
+                    emit(ImportEvent.error(pendingLines.get(item.getIndex()), item.getError()));
+                }
+            }
+            processed += result.getTotal();
+            imported += result.getSucceeded();
+            failed += result.getFailed();
+            pending.clear();
+            pendingLines.clear();
+
+            emit(ImportEvent.progress(ImportEvent.PROGRESS, processed, imported, failed));
+            generator.flush();
+        }
+
+        private void emit(ImportEvent event) throws IOException {
+            writer.writeValue(generator, event);
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+}
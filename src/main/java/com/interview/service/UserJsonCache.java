@@ -0,0 +1,178 @@
+package com.interview.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.interview.dto.ApiResponse;
+import com.interview.dto.UserResponse;
+import com.interview.exception.ResourceNotFoundException;
+import com.interview.model.User;
+import com.interview.repository.UserRepository;
+import com.interview.util.ETagUtil;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * Serialized {@code ApiResponse<UserResponse>} bodies for single-user reads.
+ * <p>
+ * Each body is stored with the version of the user it was built from and is served only while
+ * the stored user still has that version, so the first read after a save rebuilds it.
+ * The cache is split into stripes, each an access-ordered map holding an equal share of the
+ * byte budget; the least recently read bodies in a stripe are evicted when it is over budget.
+ */
+@Service
+public class UserJsonCache implements MeterBinder {
+
+    private static final String CACHE_NAME = "userJson";
+    private static final int STRIPES = 16;
+
+    private final UserRepository userRepository;
+    private final ObjectWriter writer;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Autowired
+    public UserJsonCache(UserRepository userRepository, ObjectMapper objectMapper,
+                         @Value("${users.cache.json.max-size:32MB}") DataSize maxSize) {
+        if (maxSize.isNegative()) {
+            throw new IllegalArgumentException("JSON cache size must not be negative");
+        }
+        this.userRepository = userRepository;
+        this.writer = objectMapper.writerFor(new TypeReference<ApiResponse<UserResponse>>() {});
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(maxSize.toBytes() / STRIPES);
+        }
+    }
+
+    /**
+     * Serialized success response for one user, built only if the cached body is missing or stale.
+     *
+     * @throws ResourceNotFoundException if the user does not exist
+     */
+    public SerializedUser get(Long id) {
+        Stripe stripe = stripes[Long.hashCode(id) & (STRIPES - 1)];
+        User user = userRepository.findById(id).orElse(null);
+        if (user == null) {
+            stripe.remove(id);
+            throw new ResourceNotFoundException("User", "id", id);
+        }
+        SerializedUser cached = stripe.get(id);
+        if (cached != null && Objects.equals(cached.version(), user.getVersion())) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        SerializedUser serialized = serialize(user);
+        stripe.put(id, serialized);
+        return serialized;
+    }
+
+    private SerializedUser serialize(User user) {
+        try {
+            byte[] json = writer.writeValueAsBytes(ApiResponse.success(new UserResponse(user)));
+            return new SerializedUser(json, ETagUtil.forUser(user.getId(), user.getVersion()), user.getVersion());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize user " + user.getId(), e);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .tag("cache", CACHE_NAME).tag("result", "hit")
+                .description("Serialized user hits")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .tag("cache", CACHE_NAME).tag("result", "miss")
+                .description("Serialized user misses, including bodies rebuilt after a save")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, LongAdder::sum)
+                .tag("cache", CACHE_NAME)
+                .description("Serialized users evicted to stay within the byte budget")
+                .register(registry);
+        Gauge.builder("cache.size", this, cache -> cache.sum(Stripe::size))
+                .tag("cache", CACHE_NAME)
+                .description("Number of cached serialized users")
+                .register(registry);
+        Gauge.builder("cache.bytes", this, cache -> cache.sum(Stripe::bytes))
+                .tag("cache", CACHE_NAME)
+                .description("Bytes held by cached serialized users")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    private double sum(ToLongFunction<Stripe> metric) {
+        long total = 0;
+        for (Stripe stripe : stripes) {
+            total += metric.applyAsLong(stripe);
+        }
+        return total;
+    }
+
+    /**
+     * @param json Complete response body
+     * @param etag Strong ETag of the user the body was built from
+     * @param version Version of that user
+     */
+    public record SerializedUser(byte[] json, String etag, Long version) {
+    }
+
+    private final class Stripe {
+        private final long maxBytes;
+        private final LinkedHashMap<Long, SerializedUser> entries = new LinkedHashMap<>(64, 0.75f, true);
+        private long bytes;
+
+        Stripe(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        synchronized SerializedUser get(Long id) {
+            return entries.get(id);
+        }
+
+        synchronized void put(Long id, SerializedUser value) {
+            if (value.json().length > maxBytes) {
+                return;
+            }
+            SerializedUser previous = entries.put(id, value);
+            bytes += value.json().length - (previous == null ? 0 : previous.json().length);
+            Iterator<Map.Entry<Long, SerializedUser>> eldest = entries.entrySet().iterator();
+            while (bytes > maxBytes) {
+                bytes -= eldest.next().getValue().json().length;
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+
+        synchronized void remove(Long id) {
+            SerializedUser previous = entries.remove(id);
+            if (previous != null) {
+                bytes -= previous.json().length;
+            }
+        }
+
+        synchronized long size() {
+            return entries.size();
+        }
+
+        synchronized long bytes() {
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.interview.service;
+
+import com.interview.dto.PagedResponse;
+import com.interview.dto.UserResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of offset pages from {@link UserService#getAllUsers}, keyed by (page, size).
+ * <p>
+ * Each page is stored with the repository modification version read before it was built and is
+ * only served while that is still the current version, so any completed save or delete makes
+ * every cached page a miss. When full, the least recently used page is evicted. Statistics are
+ * published with Micrometer's standard cache meter names under {@code cache=userPages}.
+ */
+@Component
+public class UserPageCache implements MeterBinder {
+
+    private static final String CACHE_NAME = "userPages";
+    // Recency is refreshed at most this often per entry, so hot pages are not written on every hit
+    private static final long ACCESS_GRANULARITY_NANOS = 1_000_000L;
+
+    private final int maxEntries;
+    private final Map<PageKey, Entry> entries = new ConcurrentHashMap<>();
+    private final Object evictionLock = new Object();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public UserPageCache(@Value("${users.cache.pages.max-entries:256}") int maxEntries) {
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException("Page cache size must not be negative");
+        }
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @param version Current repository modification version
+     * @return The cached page, or null if absent or built from an older version
+     */
+    public PagedResponse<UserResponse> get(int page, int size, long version) {
+        Entry entry = maxEntries == 0 ? null : entries.get(new PageKey(page, size));
+        if (entry == null || entry.version != version) {
+            misses.increment();
+            return null;
+        }
+        long now = System.nanoTime();
+        if (now - entry.lastAccess > ACCESS_GRANULARITY_NANOS) {
+            entry.lastAccess = now;
+        }
+        hits.increment();
+        return entry.page;
+    }
+
+    /**
+     * @param version Repository modification version read before the page was built
+     */
+    public void put(int page, int size, long version, PagedResponse<UserResponse> value) {
+        if (maxEntries == 0) {
+            return;
+        }
+        // Never replace a page with one built from an older version
+        entries.merge(new PageKey(page, size), new Entry(version, value),
+                (current, candidate) -> candidate.version >= current.version ? candidate : current);
+        if (entries.size() > maxEntries) {
+            evictLeastRecentlyUsed();
+        }
+    }
+
+    private void evictLeastRecentlyUsed() {
+        synchronized (evictionLock) {
+            while (entries.size() > maxEntries) {
+                Map.Entry<PageKey, Entry> oldest = null;
+                for (Map.Entry<PageKey, Entry> candidate : entries.entrySet()) {
+                    if (oldest == null || candidate.getValue().lastAccess < oldest.getValue().lastAccess) {
+                        oldest = candidate;
+                    }
+                }
+                if (oldest == null) {
+                    return;
+                }
+                if (entries.remove(oldest.getKey(), oldest.getValue())) {
+                    evictions.increment();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .tag("cache", CACHE_NAME).tag("result", "hit")
+                .description("Page cache hits")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .tag("cache", CACHE_NAME).tag("result", "miss")
+                .description("Page cache misses, including pages invalidated by a write")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, LongAdder::sum)
+                .tag("cache", CACHE_NAME)
+                .description("Pages evicted because the cache was full")
+                .register(registry);
+        Gauge.builder("cache.size", entries, Map::size)
+                .tag("cache", CACHE_NAME)
+                .description("Number of cached pages")
+                .register(registry);
+    }
+
+    private record PageKey(int page, int size) {
+    }
+
+    private static final class Entry {
+        final long version;
+        final PagedResponse<UserResponse> page;
+        volatile long lastAccess = System.nanoTime();
+
+        Entry(long version, PagedResponse<UserResponse> page) {
+            this.version = version;
+            this.page = page;
+        }
+    }
+}
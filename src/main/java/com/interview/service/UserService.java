@@ -1,111 +1,556 @@
 package com.interview.service;
 
+import com.interview.dto.BatchItemResult;
+import com.interview.dto.BatchResult;
 import com.interview.dto.PagedResponse;
 import com.interview.dto.PaginationMeta;
 import com.interview.dto.UserRequest;
 import com.interview.dto.UserResponse;
+import com.interview.dto.UserUpdateRequest;
+import com.interview.exception.ConcurrentUpdateException;
+import com.interview.exception.PreconditionFailedException;
 import com.interview.exception.ResourceNotFoundException;
+import com.interview.metrics.TimedOperations;
 import com.interview.model.User;
+import com.interview.repository.UserQuery;
 import com.interview.repository.UserRepository;
+import com.interview.repository.UserSortField;
+import com.interview.util.ETagUtil;
 import com.interview.util.PaginationUtil;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
+@TimedOperations(value = "users.service", description = "Time spent in UserService methods", sampleInterval = 8)
 public class UserService {
 
+    /**
+     * Maximum number of items accepted by a single batch request.
+     */
+    public static final int MAX_BATCH_SIZE = 10_000;
+
+    /**
+     * Maximum number of matches a search collects; pages beyond them are empty.
+     */
+    public static final int MAX_SEARCH_RESULTS = 1_000;
+
+    // An update that keeps losing to concurrent writes on the same user gives up with 409
+    private static final int MAX_UPDATE_ATTEMPTS = 8;
+
     private final UserRepository userRepository;
+    private final Validator validator;
+    private final UserPageCache pageCache;
 
     @Autowired
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, Validator validator, UserPageCache pageCache) {
         this.userRepository = userRepository;
+        this.validator = validator;
+        this.pageCache = pageCache;
     }
 
     public PagedResponse<UserResponse> getAllUsers(int page, int size) {
-        List<User> allUsers = userRepository.findAll();
-        int totalElements = allUsers.size();
+        PaginationUtil.validatePageSize(size);
+        // Read the version first: a page built afterwards may be newer than it, never older
+        long version = userRepository.modificationVersion();
+        PagedResponse<UserResponse> cached = pageCache.get(page, size, version);
+        if (cached != null) {
+            return cached;
+        }
+
+        long totalElements = userRepository.count();
         int totalPages = PaginationUtil.calculateTotalPages(totalElements, size);
 
-        // Calculate start and end index for pagination
-        int startIndex = PaginationUtil.calculateStartIndex(page, size);
+        // Calculate start index for pagination
+        long startIndex = PaginationUtil.calculateStartIndex(page, size);
 
-        // Get paginated users
-        List<UserResponse> paginatedUsers = allUsers.stream()
-                .skip(startIndex)
-                .limit(size)
+        // Fetch only the requested window from the ordered index
+        List<UserResponse> paginatedUsers = userRepository.findPage(startIndex, size).stream()
                 .map(UserResponse::new)
                 .collect(Collectors.toList());
 
         // Create pagination metadata
         PaginationMeta pagination = new PaginationMeta(page, size, totalElements, totalPages);
 
-        return new PagedResponse<>(paginatedUsers, pagination);
+        // Hand out a cursor so clients can continue in keyset mode
+        String nextCursor = null;
+        if (!paginatedUsers.isEmpty() && startIndex + paginatedUsers.size() < totalElements) {
+            nextCursor = PaginationUtil.encodeCursor(paginatedUsers.get(paginatedUsers.size() - 1).getId());
+        }
+
+        PagedResponse<UserResponse> result = new PagedResponse<>(paginatedUsers, pagination, nextCursor);
+        pageCache.put(page, size, version, result);
+        return result;
+    }
+
+    /**
+     * Offset pagination in the query's order. Plain id order without filters goes through
+     * {@link #getAllUsers(int, int)} and its page cache.
+     */
+    public PagedResponse<UserResponse> getAllUsers(int page, int size, UserQuery query) {
+        if (query.isDefault()) {
+            return getAllUsers(page, size);
+        }
+        return getAllUsers(page, size, query, UserResponse::new);
+    }
+
+    /**
+     * Offset pagination in the query's order, with each user turned into a response item by
+     * {@code view}, e.g. a {@link com.interview.dto.UserProjection}. Not cached.
+     */
+    public <T> PagedResponse<T> getAllUsers(int page, int size, UserQuery query, Function<User, T> view) {
+        requireDeletionsTracked(query);
+        PaginationUtil.validatePageSize(size);
+        long totalElements = userRepository.count(query);
+        int totalPages = PaginationUtil.calculateTotalPages(totalElements, size);
+        long startIndex = PaginationUtil.calculateStartIndex(page, size);
+
+        List<User> users = userRepository.findPage(query, startIndex, size);
+        List<T> content = users.stream()
+                .map(view)
+                .collect(Collectors.toList());
+
+        PaginationMeta pagination = new PaginationMeta(page, size, totalElements, totalPages);
+        String nextCursor = null;
+        if (!users.isEmpty() && startIndex + users.size() < totalElements) {
+            nextCursor = nextCursor(query, users.get(users.size() - 1));
+        }
+        return new PagedResponse<>(content, pagination, nextCursor);
+    }
+
+    /**
+     * Keyset pagination in the query's order. Cursors are tied to the sort field they were issued for.
+     *
+     * @param cursor Opaque cursor from a previous page of the same query, or blank for the first page
+     */
+    public PagedResponse<UserResponse> getUsersAfter(String cursor, int size, UserQuery query) {
+        return getUsersAfter(cursor, size, query, UserResponse::new);
+    }
+
+    /**
+     * Keyset pagination in the query's order, with each user turned into a response item by {@code view}.
+     */
+    public <T> PagedResponse<T> getUsersAfter(String cursor, int size, UserQuery query, Function<User, T> view) {
+        if (query.isDefault()) {
+            return getUsersAfter(cursor, size, view);
+        }
+        requireDeletionsTracked(query);
+        PaginationUtil.validatePageSize(size);
+        UserSortField sortField = query.sortField();
+        PaginationUtil.SortCursor position = PaginationUtil.decodeSortCursor(cursor, sortField.parameter());
+
+        List<User> users = position == null
+                ? userRepository.findPage(query, 0, size + 1)
+                : userRepository.findAfter(query, sortField.parse(position.sortValue()), position.lastId(), size + 1);
+        boolean hasNext = users.size() > size;
+        if (hasNext) {
+            users = users.subList(0, size);
+        }
+
+        List<T> content = users.stream()
+                .map(view)
+                .collect(Collectors.toList());
+        String nextCursor = hasNext ? sortCursor(query, users.get(size - 1)) : null;
+
+        return new PagedResponse<>(content, null, nextCursor);
+    }
+
+    /**
+     * Keyset pagination: return the users after the given cursor.
+     *
+     * @param cursor Opaque cursor from a previous page, or blank for the first page
+     * @param size Page size
+     * @return Page of users with the cursor for the next page, or a null cursor on the last page
+     */
+    public PagedResponse<UserResponse> getUsersAfter(String cursor, int size) {
+        return getUsersAfter(cursor, size, UserResponse::new);
+    }
+
+    private <T> PagedResponse<T> getUsersAfter(String cursor, int size, Function<User, T> view) {
+        PaginationUtil.validatePageSize(size);
+        Long afterId = PaginationUtil.decodeCursor(cursor);
+
+        // Fetch one extra user to learn whether another page follows
+        List<User> users = userRepository.findAfter(afterId, size + 1);
+        boolean hasNext = users.size() > size;
+        if (hasNext) {
+            users = users.subList(0, size);
+        }
+
+        List<T> content = users.stream()
+                .map(view)
+                .collect(Collectors.toList());
+        String nextCursor = hasNext ? PaginationUtil.encodeCursor(users.get(size - 1).getId()) : null;
+
+        return new PagedResponse<>(content, null, nextCursor);
+    }
+
+    /**
+     * Typeahead search over name, username and email, paged like {@link #getAllUsers}.
+     * Totals count at most {@link #MAX_SEARCH_RESULTS} matches.
+     */
+    public PagedResponse<UserResponse> searchUsers(String query, int page, int size) {
+        return searchUsers(query, page, size, UserResponse::new);
+    }
+
+    /**
+     * Search like {@link #searchUsers(String, int, int)}, with each match turned into a response item by {@code view}.
+     */
+    public <T> PagedResponse<T> searchUsers(String query, int page, int size, Function<User, T> view) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be blank");
+        }
+        PaginationUtil.validatePageSize(size);
+        long startIndex = PaginationUtil.calculateStartIndex(page, size);
+
+        List<User> matches = userRepository.search(query, MAX_SEARCH_RESULTS);
+        int from = (int) Math.min(startIndex, matches.size());
+        int to = (int) Math.min(startIndex + size, matches.size());
+        List<T> content = matches.subList(from, to).stream()
+                .map(view)
+                .collect(Collectors.toList());
+
+        PaginationMeta pagination = new PaginationMeta(page, size, matches.size(),
+                PaginationUtil.calculateTotalPages(matches.size(), size));
+        return new PagedResponse<>(content, pagination);
+    }
+
+    /**
+     * A delta query can only report deletes the repository still has tombstones for; one that
+     * starts earlier would silently miss some, so the client has to reload all users instead.
+     */
+    private void requireDeletionsTracked(UserQuery query) {
+        LocalDateTime trackedSince = userRepository.deletionsTrackedSince();
+        if (query.updatedSince() != null && query.updatedSince().isBefore(trackedSince)) {
+            throw new IllegalArgumentException("updatedSince must not be before " + trackedSince
+                    + "; deletes before then are no longer known, reload all users instead");
+        }
+    }
+
+    /**
+     * Cursor for the page after {@code last}, in the form the matching getUsersAfter expects.
+     */
+    private static String nextCursor(UserQuery query, User last) {
+        return query.isDefault() ? PaginationUtil.encodeCursor(last.getId()) : sortCursor(query, last);
+    }
+
+    private static String sortCursor(UserQuery query, User last) {
+        UserSortField sortField = query.sortField();
+        return PaginationUtil.encodeSortCursor(sortField.parameter(), sortField.format(sortField.valueOf(last)), last.getId());
+    }
+
+    /**
+     * ETag of a single user, computed without building its response.
+     */
+    public String getUserETag(Long id) {
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
+        return ETagUtil.forUser(user.getId(), user.getVersion());
+    }
+
+    /**
+     * ETag shared by all user list pages; changes whenever any user is saved or deleted.
+     * Read it before building a page so the tag is never newer than the page.
+     */
+    public String getUsersETag() {
+        return ETagUtil.forVersion(userRepository.modificationVersion());
     }
 
     public UserResponse getUserById(Long id) {
+        return getUserById(id, UserResponse::new);
+    }
+
+    /**
+     * One user, turned into a response by {@code view}.
+     *
+     * @throws ResourceNotFoundException if the user does not exist
+     */
+    public <T> T getUserById(Long id, Function<User, T> view) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
-        return new UserResponse(user);
+        return view.apply(user);
     }
 
     public UserResponse createUser(UserRequest request) {
-        // Check if username already exists
-        if (userRepository.findByUsername(request.getUsername()).isPresent()) {
-            throw new IllegalArgumentException("Username '" + request.getUsername() + "' already exists");
+        ensureUsernameAvailable(request.getUsername(), null);
+        ensureEmailAvailable(request.getEmail(), null);
+
+        User user = toUser(request);
+
+        // save() claims username/email atomically, so a concurrent signup that slipped
+        // past the checks above is still rejected
+        User savedUser = userRepository.save(user);
+        return new UserResponse(savedUser);
+    }
+
+    public UserResponse updateUser(Long id, UserRequest request) {
+        return updateUser(id, request, null);
+    }
+
+    /**
+     * Update a user if it still matches the version the client last saw.
+     * <p>
+     * The change is made on a copy of the stored snapshot and saved as a compare-and-set on its
+     * version. If another write lands in between, the update is re-read and re-applied, and the
+     * If-Match check is repeated against the newer version.
+     *
+     * @param ifMatch {@code If-Match} header value, or null to update unconditionally
+     * @throws PreconditionFailedException if the user has changed since the client read it
+     * @throws ConcurrentUpdateException if every attempt lost to a concurrent write
+     */
+    public UserResponse updateUser(Long id, UserRequest request, String ifMatch) {
+        for (int attempt = 1; ; attempt++) {
+            User existingUser = userRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
+            if (!ETagUtil.matchesIfMatch(ifMatch, ETagUtil.forUser(existingUser.getId(), existingUser.getVersion()))) {
+                throw new PreconditionFailedException("User " + id + " has been modified since it was read");
+            }
+
+            ensureUsernameAvailable(request.getUsername(), id);
+            ensureEmailAvailable(request.getEmail(), id);
+
+            User changedUser = existingUser.copy();
+            changedUser.setName(request.getName());
+            changedUser.setUsername(request.getUsername());
+            changedUser.setEmail(request.getEmail());
+            changedUser.setPhone(request.getPhone());
+            changedUser.setWebsite(request.getWebsite());
+
+            try {
+                return new UserResponse(userRepository.save(changedUser));
+            } catch (ConcurrentUpdateException ex) {
+                if (attempt == MAX_UPDATE_ATTEMPTS) {
+                    throw ex;
+                }
+            }
+        }
+    }
+
+    public void deleteUser(Long id) {
+        if (!userRepository.existsById(id)) {
+            throw new ResourceNotFoundException("User", "id", id);
+        }
+        userRepository.deleteById(id);
+    }
+
+    /**
+     * Create many users in one call. Every item is validated and checked for uniqueness against
+     * the repository and the rest of the batch before any write; the accepted items are then stored
+     * with one {@link UserRepository#insertAll} call and share one creation timestamp.
+     *
+     * @param requests Users to create
+     * @return Per-item results in request order
+     */
+    public BatchResult<UserResponse> createUsers(List<UserRequest> requests) {
+        checkBatchSize(requests);
+        List<BatchItemResult<UserResponse>> results = new ArrayList<>(Collections.nCopies(requests.size(), null));
+        Map<String, Integer> batchUsernames = new HashMap<>();
+        Map<String, Integer> batchEmails = new HashMap<>();
+        List<Integer> accepted = new ArrayList<>(requests.size());
+
+        for (int i = 0; i < requests.size(); i++) {
+            UserRequest request = requests.get(i);
+            String error = validate(request);
+            if (error == null) {
+                error = findExistingConflict(request, null);
+            }
+            if (error == null) {
+                error = findBatchConflict(request, i, batchUsernames, batchEmails);
+            }
+            if (error != null) {
+                results.set(i, BatchItemResult.failure(i, error));
+            } else {
+                accepted.add(i);
+            }
         }
 
-        // Check if email already exists
-        if (userRepository.findByEmail(request.getEmail()).isPresent()) {
-            throw new IllegalArgumentException("Email '" + request.getEmail() + "' already exists");
+        if (!accepted.isEmpty()) {
+            List<User> users = new ArrayList<>(accepted.size());
+            Map<User, Integer> indexes = new IdentityHashMap<>(accepted.size());
+            for (int index : accepted) {
+                User user = toUser(requests.get(index));
+                users.add(user);
+                indexes.put(user, index);
+            }
+            // A concurrent writer may have claimed a username or email after the checks above
+            userRepository.insertAll(users, LocalDateTime.now(), (user, ex) -> {
+                int index = indexes.get(user);
+                results.set(index, BatchItemResult.failure(index, ex.getMessage()));
+            });
+            for (User user : users) {
+                int index = indexes.get(user);
+                if (results.get(index) == null) {
+                    results.set(index, BatchItemResult.success(index, new UserResponse(user)));
+                }
+            }
         }
+        return new BatchResult<>(results);
+    }
 
-        User user = new User(
+    /**
+     * Update many users in one call. Items are validated and checked for duplicate ids, usernames and
+     * emails within the batch up front, then applied in order with the same checks as {@link #updateUser}.
+     *
+     * @param requests Updates, each carrying the target user id
+     * @return Per-item results in request order
+     */
+    public BatchResult<UserResponse> updateUsers(List<UserUpdateRequest> requests) {
+        checkBatchSize(requests);
+        List<BatchItemResult<UserResponse>> results = new ArrayList<>(requests.size());
+        Set<Long> batchIds = new HashSet<>();
+        Map<String, Long> batchUsernames = new HashMap<>();
+        Map<String, Long> batchEmails = new HashMap<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            UserUpdateRequest request = requests.get(i);
+            String error = validate(request);
+            if (error == null && !batchIds.add(request.getId())) {
+                error = "User " + request.getId() + " appears more than once in the batch";
+            }
+            if (error == null) {
+                error = findBatchOwnerConflict(batchUsernames, "Username", request.getUsername(), request.getId());
+            }
+            if (error == null) {
+                error = findBatchOwnerConflict(batchEmails, "Email", request.getEmail(), request.getId());
+            }
+            if (error == null) {
+                try {
+                    results.add(BatchItemResult.success(i, updateUser(request.getId(), request)));
+                    continue;
+                } catch (ResourceNotFoundException | IllegalArgumentException | ConcurrentUpdateException ex) {
+                    error = ex.getMessage();
+                }
+            }
+            results.add(BatchItemResult.failure(i, error));
+        }
+        return new BatchResult<>(results);
+    }
+
+    /**
+     * Delete many users in one call.
+     *
+     * @param ids Ids of the users to delete
+     * @return Per-item results carrying the deleted id
+     */
+    public BatchResult<Long> deleteUsers(List<Long> ids) {
+        checkBatchSize(ids);
+        List<BatchItemResult<Long>> results = new ArrayList<>(ids.size());
+        Set<Long> batchIds = new HashSet<>();
+
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            if (id == null) {
+                results.add(BatchItemResult.failure(i, "Id is required"));
+            } else if (!batchIds.add(id)) {
+                results.add(BatchItemResult.failure(i, "User " + id + " appears more than once in the batch"));
+            } else if (!userRepository.existsById(id)) {
+                results.add(BatchItemResult.failure(i, new ResourceNotFoundException("User", "id", id).getMessage()));
+            } else {
+                userRepository.deleteById(id);
+                results.add(BatchItemResult.success(i, id));
+            }
+        }
+        return new BatchResult<>(results);
+    }
+
+    private User toUser(UserRequest request) {
+        return new User(
                 request.getName(),
                 request.getUsername(),
                 request.getEmail(),
                 request.getPhone(),
                 request.getWebsite()
         );
+    }
 
-        User savedUser = userRepository.save(user);
-        return new UserResponse(savedUser);
+    private void checkBatchSize(List<?> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("Batch must contain at least one item");
+        }
+        if (items.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch must not contain more than " + MAX_BATCH_SIZE + " items");
+        }
     }
 
-    public UserResponse updateUser(Long id, UserRequest request) {
-        User existingUser = userRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
+    /**
+     * Run bean validation on a batch item.
+     *
+     * @return Violations joined into one message, or null when the item is valid
+     */
+    private String validate(UserRequest request) {
+        if (request == null) {
+            return "Item is required";
+        }
+        Set<ConstraintViolation<UserRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
 
-        // Check if username is being changed and if it already exists
-        if (!existingUser.getUsername().equals(request.getUsername())) {
-            if (userRepository.findByUsername(request.getUsername()).isPresent()) {
-                throw new IllegalArgumentException("Username '" + request.getUsername() + "' already exists");
-            }
+    private String findExistingConflict(UserRequest request, Long ownerId) {
+        try {
+            ensureUsernameAvailable(request.getUsername(), ownerId);
+            ensureEmailAvailable(request.getEmail(), ownerId);
+            return null;
+        } catch (IllegalArgumentException ex) {
+            return ex.getMessage();
         }
+    }
 
-        // Check if email is being changed and if it already exists
-        if (!existingUser.getEmail().equals(request.getEmail())) {
-            if (userRepository.findByEmail(request.getEmail()).isPresent()) {
-                throw new IllegalArgumentException("Email '" + request.getEmail() + "' already exists");
-            }
+    private String findBatchConflict(UserRequest request, int index,
+                                     Map<String, Integer> batchUsernames, Map<String, Integer> batchEmails) {
+        String username = User.normalizeKey(request.getUsername());
+        String email = User.normalizeKey(request.getEmail());
+        Integer usernameOwner = batchUsernames.get(username);
+        if (usernameOwner != null) {
+            return "Username '" + request.getUsername() + "' is already used by item " + usernameOwner + " of the batch";
         }
+        Integer emailOwner = batchEmails.get(email);
+        if (emailOwner != null) {
+            return "Email '" + request.getEmail() + "' is already used by item " + emailOwner + " of the batch";
+        }
+        batchUsernames.put(username, index);
+        batchEmails.put(email, index);
+        return null;
+    }
 
-        existingUser.setName(request.getName());
-        existingUser.setUsername(request.getUsername());
-        existingUser.setEmail(request.getEmail());
-        existingUser.setPhone(request.getPhone());
-        existingUser.setWebsite(request.getWebsite());
+    private String findBatchOwnerConflict(Map<String, Long> batchKeys, String fieldName, String value, Long id) {
+        Long owner = batchKeys.putIfAbsent(User.normalizeKey(value), id);
+        if (owner != null && !owner.equals(id)) {
+            return fieldName + " '" + value + "' is already used by user " + owner + " in the batch";
+        }
+        return null;
+    }
 
-        User updatedUser = userRepository.save(existingUser);
-        return new UserResponse(updatedUser);
+    /**
+     * Check that the username is free or already owned by the given user.
+     */
+    private void ensureUsernameAvailable(String username, Long ownerId) {
+        userRepository.findByUsername(username)
+                .filter(user -> !user.getId().equals(ownerId))
+                .ifPresent(user -> {
+                    throw new IllegalArgumentException("Username '" + username + "' already exists");
+                });
     }
 
-    public void deleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new ResourceNotFoundException("User", "id", id);
-        }
-        userRepository.deleteById(id);
+    /**
+     * Check that the email is free or already owned by the given user.
+     */
+    private void ensureEmailAvailable(String email, Long ownerId) {
+        userRepository.findByEmail(email)
+                .filter(user -> !user.getId().equals(ownerId))
+                .ifPresent(user -> {
+                    throw new IllegalArgumentException("Email '" + email + "' already exists");
+                });
     }
 }
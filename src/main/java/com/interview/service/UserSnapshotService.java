@@ -0,0 +1,112 @@
+package com.interview.service;
+
+import com.interview.dto.SnapshotInfo;
+import com.interview.repository.InMemoryUserRepository;
+import com.interview.repository.persistence.UserSnapshotFile;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes binary snapshots of the user repository on demand or on a schedule,
+ * and loads the latest one at startup.
+ */
+@Service
+@ConditionalOnProperty(name = "users.snapshot.enabled", havingValue = "true")
+public class UserSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserSnapshotService.class);
+
+    private final InMemoryUserRepository userRepository;
+    private final Path path;
+    private final boolean loadOnStartup;
+    private final Duration interval;
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public UserSnapshotService(InMemoryUserRepository userRepository,
+                               @Value("${users.snapshot.path:data/users.snapshot}") Path path,
+                               @Value("${users.snapshot.load-on-startup:true}") boolean loadOnStartup,
+                               @Value("${users.snapshot.interval:0s}") Duration interval) {
+        this.userRepository = userRepository;
+        this.path = path;
+        this.loadOnStartup = loadOnStartup;
+        this.interval = interval;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        if (loadOnStartup && Files.exists(path)) {
+            loadSnapshot();
+        }
+        if (!interval.isZero() && !interval.isNegative()) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "user-snapshot");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long millis = interval.toMillis();
+            scheduler.scheduleWithFixedDelay(() -> {
+                try {
+                    writeSnapshot();
+                } catch (RuntimeException e) {
+                    logger.error("Scheduled user snapshot failed", e);
+                }
+            }, millis, millis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Replace the repository contents with the snapshot on disk.
+     */
+    public SnapshotInfo loadSnapshot() throws IOException {
+        long started = System.nanoTime();
+        InMemoryUserRepository.Snapshot snapshot = UserSnapshotFile.read(path);
+        userRepository.restoreAll(snapshot.users(), snapshot.idHighWaterMark());
+        SnapshotInfo info = info(snapshot, Files.size(path), started);
+        logger.info("Loaded {} users from snapshot {} in {} ms", info.getUsers(), path, info.getDurationMillis());
+        return info;
+    }
+
+    /**
+     * Write a point-in-time snapshot of the repository.
+     */
+    public synchronized SnapshotInfo writeSnapshot() {
+        long started = System.nanoTime();
+        InMemoryUserRepository.Snapshot snapshot = userRepository.snapshot();
+        try {
+            long bytes = UserSnapshotFile.write(path, snapshot);
+            SnapshotInfo info = info(snapshot, bytes, started);
+            logger.info("Wrote {} users to snapshot {} in {} ms", info.getUsers(), path, info.getDurationMillis());
+            return info;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write user snapshot " + path, e);
+        }
+    }
+
+    private SnapshotInfo info(InMemoryUserRepository.Snapshot snapshot, long bytes, long started) {
+        return new SnapshotInfo(path.toString(), snapshot.users().size(), bytes, snapshot.idHighWaterMark(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+}
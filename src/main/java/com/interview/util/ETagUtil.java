@@ -0,0 +1,80 @@
+package com.interview.util;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+public class ETagUtil {
+
+    // Identifies this process in every ETag, since versions may start over after a restart:
+    // the in-memory counters restart at zero, and restored users start a new version history
+    private static final String EPOCH = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+
+    private ETagUtil() {
+    }
+
+    /**
+     * Build the strong ETag of a single user from its id and version, which changes on every
+     * save. Unlike a timestamp it cannot repeat when the clock steps back or two saves fall in
+     * the same tick.
+     *
+     * @param id User id
+     * @param version Version of the stored user, may be null for one never saved
+     * @return Quoted ETag value
+     */
+    public static String forUser(Long id, Long version) {
+        return "\"" + EPOCH + "-" + id + "-" + Long.toString(version == null ? 0L : version, 36) + "\"";
+    }
+
+    /**
+     * Build the strong ETag of a collection from a modification version.
+     *
+     * @param version Collection-wide modification version
+     * @return Quoted ETag value
+     */
+    public static String forVersion(long version) {
+        return "\"" + EPOCH + "-" + Long.toString(version, 36) + "\"";
+    }
+
+    /**
+     * Evaluate an {@code If-None-Match} header with weak comparison.
+     *
+     * @param header Header value, may be null
+     * @param etag Current ETag of the resource
+     * @return true if the client's copy is current and a 304 can be sent
+     */
+    public static boolean matchesIfNoneMatch(String header, String etag) {
+        return matches(header, etag, true);
+    }
+
+    /**
+     * Evaluate an {@code If-Match} header with strong comparison.
+     *
+     * @param header Header value, may be null
+     * @param etag Current ETag of the resource
+     * @return true if the header is absent or names the current ETag
+     */
+    public static boolean matchesIfMatch(String header, String etag) {
+        return header == null || matches(header, etag, false);
+    }
+
+    private static boolean matches(String header, String etag, boolean weak) {
+        if (header == null || header.isBlank()) {
+            return false;
+        }
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                if (!weak) {
+                    continue;
+                }
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
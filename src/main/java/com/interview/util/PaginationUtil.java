@@ -1,7 +1,18 @@
 package com.interview.util;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
 public class PaginationUtil {
 
+    /**
+     * Largest page size a request may ask for.
+     */
+    public static final int MAX_PAGE_SIZE = 1_000;
+
+    private static final String CURSOR_PREFIX = "id:";
+    private static final String SORT_CURSOR_PREFIX = "key:";
+
     private PaginationUtil() {
     }
 
@@ -12,7 +23,7 @@ public class PaginationUtil {
      * @param size Page size
      * @return Total number of pages
      */
-    public static int calculateTotalPages(int totalElements, int size) {
+    public static int calculateTotalPages(long totalElements, int size) {
         if (size <= 0) {
             throw new IllegalArgumentException("Page size must be greater than 0");
         }
@@ -26,8 +37,106 @@ public class PaginationUtil {
      * @param size Page size
      * @return Start index
      */
-    public static int calculateStartIndex(int page, int size) {
-        return page * size;
+    public static long calculateStartIndex(int page, int size) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Page number must not be negative");
+        }
+        return (long) page * size;
+    }
+
+    /**
+     * Validate a requested page size. The upper bound keeps a single request from materializing
+     * the whole dataset, and leaves room for the one extra row keyset pages fetch.
+     *
+     * @param size Page size
+     */
+    public static void validatePageSize(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Page size must be greater than 0");
+        }
+        if (size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must not be greater than " + MAX_PAGE_SIZE);
+        }
+    }
+
+    /**
+     * Encode the last-seen id as an opaque cursor for keyset pagination.
+     *
+     * @param lastId Id of the last element on the current page
+     * @return URL-safe cursor string
+     */
+    public static String encodeCursor(long lastId) {
+        byte[] raw = (CURSOR_PREFIX + lastId).getBytes(StandardCharsets.US_ASCII);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    /**
+     * Decode a cursor produced by {@link #encodeCursor(long)}.
+     *
+     * @param cursor Cursor string, or blank to start from the beginning
+     * @return Last-seen id, or null when the cursor is blank
+     */
+    public static Long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            if (!raw.startsWith(CURSOR_PREFIX)) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return Long.parseLong(raw.substring(CURSOR_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            // Covers both malformed Base64 and NumberFormatException
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    /**
+     * Encode the last-seen position in a sorted listing as an opaque cursor.
+     *
+     * @param sortField Name of the field the listing is sorted by
+     * @param sortValue Text form of that field's value for the last element
+     * @param lastId Id of the last element, which breaks ties between equal values
+     * @return URL-safe cursor string
+     */
+    public static String encodeSortCursor(String sortField, String sortValue, long lastId) {
+        byte[] raw = (SORT_CURSOR_PREFIX + sortField + ":" + lastId + ":" + sortValue).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
     }
 
+    /**
+     * Decode a cursor produced by {@link #encodeSortCursor}.
+     *
+     * @param cursor Cursor string, or blank to start from the beginning
+     * @param sortField Field the listing is sorted by; the cursor must have been issued for it
+     * @return Last-seen position, or null when the cursor is blank
+     */
+    public static SortCursor decodeSortCursor(String cursor, String sortField) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String prefix = SORT_CURSOR_PREFIX + sortField + ":";
+            int idEnd = raw.indexOf(':', prefix.length());
+            if (!raw.startsWith(prefix) || idEnd < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            long lastId = Long.parseLong(raw.substring(prefix.length(), idEnd));
+            return new SortCursor(raw.substring(idEnd + 1), lastId);
+        } catch (IllegalArgumentException e) {
+            // Covers both malformed Base64 and NumberFormatException
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    /**
+     * Position decoded from a sorted-listing cursor.
+     *
+     * @param sortValue Text form of the last element's sort value
+     * @param lastId Id of the last element
+     */
+    public record SortCursor(String sortValue, long lastId) {
+    }
 }
@@ -0,0 +1,81 @@
+package com.interview.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitFilterTest {
+
+    private ConcurrencyLimitFilter filter;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        filter = new ConcurrencyLimitFilter(1, Duration.ZERO, new ObjectMapper(), List.of("/users/export"));
+        registry = new SimpleMeterRegistry();
+        filter.bindTo(registry);
+    }
+
+    @Test
+    void doFilter_WhenLimitReached_ShouldRejectWith503() throws Exception {
+        // Arrange
+        MockHttpServletResponse inner = new MockHttpServletResponse();
+        MockHttpServletResponse outer = new MockHttpServletResponse();
+
+        // Act: the second request arrives while the first still holds the only permit
+        filter.doFilter(new MockHttpServletRequest("GET", "/users"), outer, (request, response) -> {
+            assertEquals(1.0, registry.get("users.http.in.flight").gauge().value());
+            filter.doFilter(new MockHttpServletRequest("GET", "/users/1"), inner, (r, s) -> fail("Should be rejected"));
+        });
+
+        // Assert
+        assertEquals(200, outer.getStatus());
+        assertEquals(503, inner.getStatus());
+        assertEquals("1", inner.getHeader("Retry-After"));
+        assertTrue(inner.getContentAsString().contains("\"success\":false"));
+        assertEquals(1.0, registry.get("users.http.rejected").functionCounter().count());
+        assertEquals(0.0, registry.get("users.http.in.flight").gauge().value());
+    }
+
+    @Test
+    void doFilter_WhenChainThrows_ShouldReleasePermit() throws Exception {
+        // Arrange
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        assertThrows(IllegalStateException.class, () -> filter.doFilter(new MockHttpServletRequest("GET", "/users"),
+                new MockHttpServletResponse(), (r, s) -> {
+                    throw new IllegalStateException("boom");
+                }));
+        filter.doFilter(new MockHttpServletRequest("GET", "/users"), response, (r, s) -> {
+        });
+
+        // Assert
+        assertEquals(200, response.getStatus());
+        assertEquals(0.0, registry.get("users.http.rejected").functionCounter().count());
+    }
+
+    @Test
+    void doFilter_OnUnlimitedPath_ShouldPassWithoutPermit() throws Exception {
+        // Arrange
+        MockHttpServletResponse export = new MockHttpServletResponse();
+        boolean[] exported = new boolean[1];
+
+        // Act: an export starts while another request holds the only permit
+        filter.doFilter(new MockHttpServletRequest("GET", "/users"), new MockHttpServletResponse(), (request, response) ->
+                filter.doFilter(new MockHttpServletRequest("GET", "/users/export"), export, (r, s) -> exported[0] = true));
+
+        // Assert
+        assertTrue(exported[0]);
+        assertEquals(200, export.getStatus());
+        assertEquals(0.0, registry.get("users.http.rejected").functionCounter().count());
+    }
+}
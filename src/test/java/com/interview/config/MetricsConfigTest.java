@@ -0,0 +1,26 @@
+package com.interview.config;
+
+import com.interview.repository.InMemoryUserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsConfigTest {
+
+    @Test
+    void inMemoryUserRepositoryGauges_ShouldReportSizes() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        InMemoryUserRepository repository = new InMemoryUserRepository();
+
+        // Act
+        new MetricsConfig().inMemoryUserRepositoryGauges(repository).bindTo(registry);
+        repository.deleteById(1L);
+
+        // Assert
+        assertEquals(4.0, registry.get("users.repository.size").gauge().value());
+        assertEquals(4.0, registry.get("users.repository.index.size").tag("index", "username").gauge().value());
+        assertEquals(4.0, registry.get("users.repository.index.size").tag("index", "email").gauge().value());
+    }
+}
@@ -1,24 +1,53 @@
 package com.interview.controller;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interview.config.WebConfig;
+import com.interview.dto.ApiResponse;
+import com.interview.dto.BatchItemResult;
+import com.interview.dto.BatchResult;
 import com.interview.dto.PagedResponse;
 import com.interview.dto.PaginationMeta;
 import com.interview.dto.UserRequest;
 import com.interview.dto.UserResponse;
+import com.interview.exception.PreconditionFailedException;
+import com.interview.model.User;
+import com.interview.repository.UserQuery;
+import com.interview.repository.UserSortField;
+import com.interview.service.UserChangeFeed;
+import com.interview.service.UserExportService;
+import com.interview.service.UserImportService;
+import com.interview.service.UserJsonCache;
 import com.interview.service.UserService;
+import com.interview.util.ETagUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Function;
 
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -35,6 +64,18 @@ class UserControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private UserExportService userExportService;
+
+    @MockBean
+    private UserImportService userImportService;
+
+    @MockBean
+    private UserJsonCache userJsonCache;
+
+    @MockBean
+    private UserChangeFeed userChangeFeed;
+
     private UserResponse testUserResponse;
 
     @BeforeEach
@@ -54,13 +95,15 @@ class UserControllerTest {
         List<UserResponse> users = Arrays.asList(testUserResponse);
         PaginationMeta pagination = new PaginationMeta(0, 10, 1, 1);
         PagedResponse<UserResponse> pagedResponse = new PagedResponse<>(users, pagination);
-        when(userService.getAllUsers(0, 10)).thenReturn(pagedResponse);
+        when(userService.getAllUsers(0, 10, UserQuery.DEFAULT)).thenReturn(pagedResponse);
+        when(userService.getUsersETag()).thenReturn("\"e-1\"");
 
         // Act & Assert
         mockMvc.perform(get("/users")
                         .param("page", "0")
                         .param("size", "10"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"e-1\""))
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.data.content[0].name").value("John Doe"))
                 .andExpect(jsonPath("$.data.content[0].username").value("johndoe"))
@@ -70,19 +113,148 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.data.pagination.totalPages").value(1));
     }
 
+    @Test
+    void getUsersAfter_ShouldReturnPageWithNextCursor() throws Exception {
+        // Arrange
+        PagedResponse<UserResponse> pagedResponse = new PagedResponse<>(List.of(testUserResponse), null, "bmV4dA");
+        when(userService.getUsersAfter("", 1, UserQuery.DEFAULT)).thenReturn(pagedResponse);
+
+        // Act & Assert
+        mockMvc.perform(get("/users")
+                        .param("after", "")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content[0].username").value("johndoe"))
+                .andExpect(jsonPath("$.data.nextCursor").value("bmV4dA"));
+    }
+
+    @Test
+    void getAllUsers_WithSortAndFilters_ShouldPassQueryToService() throws Exception {
+        // Arrange
+        UserQuery query = new UserQuery(UserSortField.NAME, true, "example.com",
+                LocalDateTime.of(2024, 1, 1, 0, 0), null);
+        PagedResponse<UserResponse> pagedResponse = new PagedResponse<>(List.of(testUserResponse),
+                new PaginationMeta(0, 10, 1, 1));
+        when(userService.getAllUsers(0, 10, query)).thenReturn(pagedResponse);
+        when(userService.getUsersETag()).thenReturn("\"e-1\"");
+
+        // Act & Assert
+        mockMvc.perform(get("/users")
+                        .param("sort", "name,desc")
+                        .param("emailDomain", "Example.com")
+                        .param("createdFrom", "2024-01-01T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content[0].name").value("John Doe"));
+    }
+
+    @Test
+    void getAllUsers_WithUnknownSortField_ShouldReturnBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/users").param("sort", "password"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Unsupported sort field: password"));
+    }
+
+    @Test
+    void getAllUsers_WithFields_ShouldWriteOnlyThoseFields() throws Exception {
+        // Arrange
+        User user = new User("John Doe", "johndoe", "john@example.com", "1234567890", "johndoe.com");
+        user.setId(1L);
+        user.setCreatedAt(LocalDateTime.of(2024, 1, 2, 3, 4, 5, 600_000_000));
+        when(userService.getAllUsers(eq(0), eq(10), eq(UserQuery.DEFAULT), any())).thenAnswer(invocation -> {
+            Function<User, ?> view = invocation.getArgument(3);
+            return new PagedResponse<>(List.of(view.apply(user)), new PaginationMeta(0, 10, 1, 1));
+        });
+        when(userService.getUsersETag()).thenReturn("\"e-1\"");
+
+        // Act & Assert
+        mockMvc.perform(get("/users").param("fields", "createdAt, ID,username"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content[0].id").value(1))
+                .andExpect(jsonPath("$.data.content[0].username").value("johndoe"))
+                .andExpect(jsonPath("$.data.content[0].createdAt").value("2024-01-02T03:04:05.6"))
+                .andExpect(jsonPath("$.data.content[0].name").doesNotExist())
+                .andExpect(jsonPath("$.data.content[0].email").doesNotExist())
+                .andExpect(jsonPath("$.data.pagination.totalElements").value(1));
+        verify(userService, never()).getAllUsers(anyInt(), anyInt(), any(UserQuery.class));
+    }
+
+    @Test
+    void getUserById_WithFields_ShouldWriteOnlyThoseFieldsAndRejectUnknownOnes() throws Exception {
+        // Arrange
+        User user = new User("John Doe", "johndoe", "john@example.com", null, null);
+        user.setId(1L);
+        user.setUpdatedAt(LocalDateTime.of(2024, 1, 2, 3, 4));
+        user.setVersion(3L);
+        when(userService.getUserById(eq(1L), any())).thenAnswer(invocation -> {
+            Function<User, ?> view = invocation.getArgument(1);
+            return view.apply(user);
+        });
+
+        // Act & Assert
+        mockMvc.perform(get("/users/1").param("fields", "email"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", ETagUtil.forUser(1L, 3L)))
+                .andExpect(content().json("{\"success\":true,\"message\":\"Success\",\"data\":{\"email\":\"john@example.com\"}}", true));
+        mockMvc.perform(get("/users/1").param("fields", "id,password"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Unknown field: password"));
+        verify(userJsonCache, never()).get(any());
+    }
+
+    @Test
+    void searchUsers_ShouldReturnPagedMatches() throws Exception {
+        // Arrange
+        PagedResponse<UserResponse> pagedResponse = new PagedResponse<>(List.of(testUserResponse),
+                new PaginationMeta(0, 10, 1, 1));
+        when(userService.searchUsers("john", 0, 10)).thenReturn(pagedResponse);
+
+        // Act & Assert
+        mockMvc.perform(get("/users/search").param("q", "john"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content[0].username").value("johndoe"))
+                .andExpect(jsonPath("$.data.pagination.totalElements").value(1));
+    }
+
     @Test
     void getUserById_ShouldReturnUser() throws Exception {
         // Arrange
-        when(userService.getUserById(1L)).thenReturn(testUserResponse);
+        byte[] json = objectMapper.writeValueAsBytes(ApiResponse.success(testUserResponse));
+        when(userJsonCache.get(1L)).thenReturn(new UserJsonCache.SerializedUser(json, "\"1-abc\"", null));
 
         // Act & Assert
         mockMvc.perform(get("/users/1"))
                 .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string("ETag", "\"1-abc\""))
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.data.name").value("John Doe"))
                 .andExpect(jsonPath("$.data.email").value("john@example.com"));
     }
 
+    @Test
+    void getUserById_WithCurrentETag_ShouldReturnNotModified() throws Exception {
+        // Arrange
+        when(userJsonCache.get(1L)).thenReturn(new UserJsonCache.SerializedUser(new byte[0], "\"1-abc\"", null));
+
+        // Act & Assert
+        mockMvc.perform(get("/users/1").header("If-None-Match", "\"1-abc\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"1-abc\""))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void getAllUsers_WithCurrentETag_ShouldReturnNotModified() throws Exception {
+        // Arrange
+        when(userService.getUsersETag()).thenReturn("\"e-7\"");
+
+        // Act & Assert
+        mockMvc.perform(get("/users").header("If-None-Match", "W/\"e-7\""))
+                .andExpect(status().isNotModified());
+        verify(userService, never()).getAllUsers(anyInt(), anyInt(), any());
+    }
+
     @Test
     void createUser_WithValidData_ShouldReturnCreatedUser() throws Exception {
         // Arrange
@@ -99,6 +271,126 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.data.name").value("John Doe"));
     }
 
+    @Test
+    void createUser_WithCborBodyAndSmileAccept_ShouldDecodeAndEncodeBinary() throws Exception {
+        // Arrange
+        ObjectMapper cbor = Jackson2ObjectMapperBuilder.cbor().build();
+        ObjectMapper smile = Jackson2ObjectMapperBuilder.smile().build();
+        UserRequest request = new UserRequest("John Doe", "johndoe", "john@example.com", "1234567890", "johndoe.com");
+        when(userService.createUser(any(UserRequest.class))).thenReturn(testUserResponse);
+
+        // Act
+        byte[] body = mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(WebConfig.APPLICATION_SMILE)
+                        .content(cbor.writeValueAsBytes(request)))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(WebConfig.APPLICATION_SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Assert
+        ApiResponse<UserResponse> response = smile.readValue(body, new TypeReference<>() {});
+        assertEquals("User created successfully", response.getMessage());
+        assertEquals("johndoe", response.getData().getUsername());
+        verify(userService).createUser(argThat(decoded -> "john@example.com".equals(decoded.getEmail())));
+    }
+
+    @Test
+    void getUsers_WithCborAccept_ShouldEncodeCborAndKeepJsonDefault() throws Exception {
+        // Arrange
+        ObjectMapper cbor = Jackson2ObjectMapperBuilder.cbor().build();
+        when(userService.getAllUsers(0, 10, UserQuery.DEFAULT))
+                .thenReturn(new PagedResponse<>(List.of(testUserResponse), new PaginationMeta(0, 10, 1, 1)));
+        when(userService.getUserById(1L)).thenReturn(testUserResponse);
+
+        // Act
+        byte[] page = mockMvc.perform(get("/users").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] user = mockMvc.perform(get("/users/1").header("Accept", "application/cbor, application/json;q=0.5"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Assert
+        PagedResponse<UserResponse> decoded = cbor.<ApiResponse<PagedResponse<UserResponse>>>readValue(page,
+                new TypeReference<>() {}).getData();
+        assertEquals("johndoe", decoded.getContent().get(0).getUsername());
+        assertEquals(1, decoded.getPagination().getTotalElements());
+        assertEquals("John Doe", cbor.readTree(user).get("data").get("name").asText());
+        verify(userJsonCache, never()).get(any());
+        mockMvc.perform(get("/users").header("Accept", "application/json, application/cbor;q=0.5"))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.data.content[0].username").value("johndoe"));
+    }
+
+    @Test
+    void negotiatedResponses_ShouldVaryOnAcceptAndTagEachEncodingSeparately() throws Exception {
+        // Arrange
+        testUserResponse.setVersion(3L);
+        when(userService.getUsersETag()).thenReturn("\"e-1\"");
+        when(userService.getAllUsers(0, 10, UserQuery.DEFAULT))
+                .thenReturn(new PagedResponse<>(List.of(testUserResponse), new PaginationMeta(0, 10, 1, 1)));
+        when(userService.getUserById(1L)).thenReturn(testUserResponse);
+        when(userJsonCache.get(1L)).thenReturn(new UserJsonCache.SerializedUser(
+                objectMapper.writeValueAsBytes(ApiResponse.success(testUserResponse)), ETagUtil.forUser(1L, 3L), 3L));
+        String userTag = ETagUtil.forUser(1L, 3L);
+        String smileUserTag = userTag.substring(0, userTag.length() - 1) + "-smile\"";
+
+        // Act & Assert
+        mockMvc.perform(get("/users"))
+                .andExpect(header().string("ETag", "\"e-1\""))
+                .andExpect(header().stringValues("Vary", hasItem("Accept")));
+        mockMvc.perform(get("/users").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string("ETag", "\"e-1-cbor\""))
+                .andExpect(header().stringValues("Vary", hasItem("Accept")));
+        // The JSON page's tag does not validate the CBOR page
+        mockMvc.perform(get("/users").accept(MediaType.APPLICATION_CBOR).header("If-None-Match", "\"e-1\""))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/users").accept(MediaType.APPLICATION_CBOR).header("If-None-Match", "\"e-1-cbor\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"e-1-cbor\""))
+                .andExpect(header().stringValues("Vary", hasItem("Accept")));
+        mockMvc.perform(get("/users/1"))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string("ETag", userTag))
+                .andExpect(header().stringValues("Vary", hasItem("Accept")));
+        mockMvc.perform(get("/users/1").accept(WebConfig.APPLICATION_SMILE))
+                .andExpect(content().contentType(WebConfig.APPLICATION_SMILE))
+                .andExpect(header().string("ETag", smileUserTag))
+                .andExpect(header().stringValues("Vary", hasItem("Accept")));
+        mockMvc.perform(get("/users/1").accept(WebConfig.APPLICATION_SMILE).header("If-None-Match", userTag))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/users/1").accept(WebConfig.APPLICATION_SMILE).header("If-None-Match", smileUserTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", smileUserTag));
+        // Mapped to the binary handler, but the client ranks JSON higher
+        mockMvc.perform(get("/users/1").header("Accept", "application/json, application/cbor;q=0.5"))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string("ETag", userTag));
+    }
+
+    @Test
+    void updateUser_WithIfMatchOfBinaryEncoding_ShouldCompareVersionOnly() throws Exception {
+        // Arrange
+        UserRequest request = new UserRequest("John Updated", "johndoe", "john@example.com", "1234567890", "johndoe.com");
+        testUserResponse.setVersion(4L);
+        when(userService.updateUser(eq(1L), any(UserRequest.class), eq("\"1-old\""))).thenReturn(testUserResponse);
+        String updatedTag = ETagUtil.forUser(1L, 4L);
+
+        // Act & Assert
+        mockMvc.perform(put("/users/1")
+                        .header("If-Match", "\"1-old-cbor\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string("ETag", updatedTag.substring(0, updatedTag.length() - 1) + "-cbor\""));
+    }
+
     @Test
     void createUser_WithInvalidData_ShouldReturnBadRequest() throws Exception {
         // Arrange - Empty name
@@ -116,7 +408,7 @@ class UserControllerTest {
     void updateUser_WithValidData_ShouldReturnUpdatedUser() throws Exception {
         // Arrange
         UserRequest request = new UserRequest("John Updated", "johndoe", "john@example.com", "1234567890", "johndoe.com");
-        when(userService.updateUser(eq(1L), any(UserRequest.class))).thenReturn(testUserResponse);
+        when(userService.updateUser(eq(1L), any(UserRequest.class), isNull())).thenReturn(testUserResponse);
 
         // Act & Assert
         mockMvc.perform(put("/users/1")
@@ -127,6 +419,22 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.message").value("User updated successfully"));
     }
 
+    @Test
+    void updateUser_WithStaleIfMatch_ShouldReturnPreconditionFailed() throws Exception {
+        // Arrange
+        UserRequest request = new UserRequest("John Updated", "johndoe", "john@example.com", "1234567890", "johndoe.com");
+        when(userService.updateUser(eq(1L), any(UserRequest.class), eq("\"1-old\"")))
+                .thenThrow(new PreconditionFailedException("User 1 has been modified since it was read"));
+
+        // Act & Assert
+        mockMvc.perform(put("/users/1")
+                        .header("If-Match", "\"1-old\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
     @Test
     void deleteUser_ShouldReturnSuccess() throws Exception {
         // Act & Assert
@@ -135,4 +443,67 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.message").value("User deleted successfully"));
     }
+
+    @Test
+    void createUsers_ShouldReturnPerItemResults() throws Exception {
+        // Arrange
+        List<UserRequest> requests = List.of(
+                new UserRequest("John Doe", "johndoe", "john@example.com", "1234567890", "johndoe.com"),
+                new UserRequest("", "blank", "blank@example.com", null, null));
+        BatchResult<UserResponse> result = new BatchResult<>(List.of(
+                BatchItemResult.success(0, testUserResponse),
+                BatchItemResult.failure(1, "name: Name is required")));
+        when(userService.createUsers(anyList())).thenReturn(result);
+
+        // Act & Assert
+        mockMvc.perform(post("/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("1 of 2 users created"))
+                .andExpect(jsonPath("$.data.succeeded").value(1))
+                .andExpect(jsonPath("$.data.results[0].data.username").value("johndoe"))
+                .andExpect(jsonPath("$.data.results[1].error").value("name: Name is required"));
+    }
+
+    @Test
+    void deleteUsers_ShouldReturnPerItemResults() throws Exception {
+        // Arrange
+        BatchResult<Long> result = new BatchResult<>(List.of(BatchItemResult.success(0, 1L)));
+        when(userService.deleteUsers(anyList())).thenReturn(result);
+
+        // Act & Assert
+        mockMvc.perform(delete("/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("1 of 1 users deleted"));
+    }
+
+    @Test
+    void exportUsers_ShouldStreamNdjson() throws Exception {
+        // Arrange
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(0);
+            out.write("{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8));
+            return 2L;
+        }).when(userExportService).exportUsers(any(OutputStream.class));
+
+        // Act & Assert
+        mockMvc.perform(get("/users/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
+    }
+
+    @Test
+    void streamChanges_ShouldResumeFromLastEventIdOverSince() throws Exception {
+        // Arrange
+        when(userChangeFeed.subscribe(42L)).thenReturn(new SseEmitter());
+
+        // Act & Assert
+        mockMvc.perform(get("/users/changes").param("since", "7").header("Last-Event-ID", "42"))
+                .andExpect(request().asyncStarted());
+        verify(userChangeFeed).subscribe(42L);
+    }
 }
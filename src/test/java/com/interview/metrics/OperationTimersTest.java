@@ -0,0 +1,67 @@
+package com.interview.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OperationTimersTest {
+
+    private static final List<String> OPERATIONS = List.of("findById", "save");
+    private static final int FIND_BY_ID = 0;
+    private static final int SAVE = 1;
+
+    @Test
+    void stop_WithoutSampling_ShouldTimeEveryCall() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        OperationTimers timers = new OperationTimers("test.ops", "Test", OPERATIONS, 1);
+        timers.bindTo(registry);
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            timers.stop(FIND_BY_ID, timers.start());
+        }
+
+        // Assert
+        assertEquals(3, registry.get("test.ops").tag("operation", "findById").timer().count());
+        assertEquals(3.0, registry.get("test.ops.calls").tag("operation", "findById").functionCounter().count());
+        assertEquals(0, registry.get("test.ops").tag("operation", "save").timer().count());
+    }
+
+    @Test
+    void stop_WithSampling_ShouldCountEveryCallAndTimeSome() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        OperationTimers timers = new OperationTimers("test.ops", "Test", OPERATIONS, 4);
+        timers.bindTo(registry);
+
+        // Act
+        for (int i = 0; i < 1000; i++) {
+            timers.stop(SAVE, timers.start());
+        }
+
+        // Assert
+        long timed = registry.get("test.ops").tag("operation", "save").timer().count();
+        assertEquals(1000.0, registry.get("test.ops.calls").tag("operation", "save").functionCounter().count());
+        assertTrue(timed > 0 && timed < 1000, "timed " + timed);
+    }
+
+    @Test
+    void start_WhenNotBound_ShouldSkipTheClock() {
+        // Arrange
+        OperationTimers timers = new OperationTimers("test.ops", "Test", OPERATIONS, 1);
+
+        // Act & Assert
+        assertEquals(0L, timers.start());
+    }
+
+    @Test
+    void constructor_WithNonPowerOfTwoInterval_ShouldThrow() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> new OperationTimers("test.ops", "Test", OPERATIONS, 3));
+    }
+}
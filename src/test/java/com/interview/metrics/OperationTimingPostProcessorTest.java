@@ -0,0 +1,57 @@
+package com.interview.metrics;
+
+import com.interview.model.User;
+import com.interview.repository.InMemoryUserRepository;
+import com.interview.repository.UserQuery;
+import com.interview.service.UserPageCache;
+import com.interview.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.support.AopUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OperationTimingPostProcessorTest {
+
+    @Test
+    void postProcess_ShouldCountAndTimeCallsThroughTheProxy() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        OperationTimingPostProcessor timing = new OperationTimingPostProcessor();
+        InMemoryUserRepository repository = (InMemoryUserRepository)
+                timing.postProcessAfterInitialization(new InMemoryUserRepository(), "userRepository");
+        timing.bindTo(registry);
+
+        // Act
+        repository.findById(1L);
+        repository.findById(2L);
+        repository.save(new User("New", "newuser", "new@example.com", null, null));
+        repository.size();
+
+        // Assert
+        assertTrue(AopUtils.isAopProxy(repository));
+        assertEquals(2.0, registry.get("users.repository.calls").tag("operation", "findById").functionCounter().count());
+        assertEquals(1.0, registry.get("users.repository.calls").tag("operation", "save").functionCounter().count());
+        assertTrue(registry.get("users.repository").tag("operation", "findById").timer().count() <= 2);
+        // Not part of the UserRepository contract, so not an operation
+        assertNull(registry.find("users.repository.calls").tag("operation", "size").functionCounter());
+    }
+
+    @Test
+    void postProcess_ShouldMeasureNestedCallsOnTheSameBeanOnce() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        OperationTimingPostProcessor timing = new OperationTimingPostProcessor();
+        timing.bindTo(registry);
+        UserService userService = (UserService) timing.postProcessAfterInitialization(new UserService(
+                new InMemoryUserRepository(), Validation.buildDefaultValidatorFactory().getValidator(),
+                new UserPageCache(16)), "userService");
+
+        // Act: the default query delegates to getAllUsers(page, size) on the same instance
+        userService.getAllUsers(0, 10, UserQuery.of(null, null, null, null));
+
+        // Assert
+        assertEquals(1.0, registry.get("users.service.calls").tag("operation", "getAllUsers").functionCounter().count());
+    }
+}
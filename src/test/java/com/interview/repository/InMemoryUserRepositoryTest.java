@@ -0,0 +1,460 @@
+package com.interview.repository;
+
+import com.interview.exception.ConcurrentUpdateException;
+import com.interview.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryUserRepositoryTest {
+
+    private InMemoryUserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = new InMemoryUserRepository();
+    }
+
+    @Test
+    void findByUsername_ShouldMatchNormalizedKey() {
+        // Act & Assert
+        assertEquals(1L, userRepository.findByUsername("Bret").orElseThrow().getId());
+        assertEquals(1L, userRepository.findByUsername(" bret ").orElseThrow().getId());
+        assertEquals(1L, userRepository.findByEmail("SINCERE@april.biz").orElseThrow().getId());
+        assertTrue(userRepository.findByUsername("unknown").isEmpty());
+    }
+
+    @Test
+    void save_WithDuplicateUsername_ShouldThrowAndKeepIndexesIntact() {
+        // Arrange
+        User duplicate = new User("Other", "BRET", "other@example.com", null, null);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> userRepository.save(duplicate));
+        assertEquals(1L, userRepository.findByUsername("Bret").orElseThrow().getId());
+        assertTrue(userRepository.findByEmail("other@example.com").isEmpty());
+    }
+
+    @Test
+    void save_WithDuplicateEmail_ShouldReleaseClaimedUsername() {
+        // Arrange
+        User duplicate = new User("Other", "newname", "shanna@melissa.tv", null, null);
+
+        // Act
+        assertThrows(IllegalArgumentException.class, () -> userRepository.save(duplicate));
+
+        // Assert
+        assertTrue(userRepository.findByUsername("newname").isEmpty());
+        userRepository.save(new User("Other", "newname", "other@example.com", null, null));
+        assertTrue(userRepository.findByUsername("newname").isPresent());
+    }
+
+    @Test
+    void save_WhenUsernameChanges_ShouldReleaseOldKey() {
+        // Arrange
+        User user = userRepository.findById(1L).orElseThrow().copy();
+        user.setUsername("Leanne");
+
+        // Act
+        userRepository.save(user);
+
+        // Assert
+        assertTrue(userRepository.findByUsername("Bret").isEmpty());
+        assertEquals(1L, userRepository.findByUsername("leanne").orElseThrow().getId());
+    }
+
+    @Test
+    void deleteById_ShouldReleaseKeys() {
+        // Act
+        userRepository.deleteById(2L);
+
+        // Assert
+        assertTrue(userRepository.findByUsername("Antonette").isEmpty());
+        assertTrue(userRepository.findByEmail("Shanna@melissa.tv").isEmpty());
+    }
+
+    @Test
+    void findPage_ShouldReturnWindowInIdOrder() {
+        // Arrange
+        for (int i = 0; i < 20; i++) {
+            userRepository.save(new User("User " + i, "user" + i, "user" + i + "@example.com", null, null));
+        }
+
+        // Act
+        List<User> page = userRepository.findPage(10, 5);
+
+        // Assert
+        assertEquals(25, userRepository.count());
+        assertEquals(List.of(11L, 12L, 13L, 14L, 15L), page.stream().map(User::getId).toList());
+        assertTrue(userRepository.findPage(25, 5).isEmpty());
+        assertEquals(5, userRepository.findPage(20, 10).size());
+    }
+
+    @Test
+    void findPage_AfterDelete_ShouldSkipRemovedUser() {
+        // Act
+        userRepository.deleteById(2L);
+
+        // Assert
+        assertEquals(List.of(1L, 3L), userRepository.findPage(0, 2).stream().map(User::getId).toList());
+        assertEquals(4, userRepository.count());
+    }
+
+    @Test
+    void findAfter_ShouldSeekPastLastSeenId() {
+        // Arrange
+        userRepository.deleteById(3L);
+
+        // Act & Assert
+        assertEquals(List.of(1L, 2L), userRepository.findAfter(null, 2).stream().map(User::getId).toList());
+        assertEquals(List.of(4L, 5L), userRepository.findAfter(2L, 5).stream().map(User::getId).toList());
+        assertTrue(userRepository.findAfter(5L, 5).isEmpty());
+    }
+
+    @Test
+    void insert_WithAllocatedIds_ShouldStoreUsersWithSharedTimestamp() {
+        // Arrange
+        long firstId = userRepository.allocateIds(2);
+        LocalDateTime createdAt = LocalDateTime.now();
+        User first = new User("First", "first", "first@example.com", null, null);
+        first.setId(firstId);
+        User second = new User("Second", "second", "second@example.com", null, null);
+        second.setId(firstId + 1);
+
+        // Act
+        userRepository.insert(first, createdAt);
+        userRepository.insert(second, createdAt);
+
+        // Assert
+        assertEquals(6L, firstId);
+        assertEquals(createdAt, userRepository.findById(7L).orElseThrow().getCreatedAt());
+        assertEquals(8L, userRepository.save(new User("Third", "third", "third@example.com", null, null)).getId());
+    }
+
+    @Test
+    void save_WithConcurrentSignups_ShouldAcceptOnlyOneOwner() throws Exception {
+        // Arrange
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            String email = "racer" + i + "@example.com";
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    userRepository.save(new User("Racer", "racer", email, null, null));
+                    accepted.incrementAndGet();
+                } catch (IllegalArgumentException ex) {
+                    // Lost the race
+                }
+                return null;
+            }));
+        }
+
+        // Act
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(1, accepted.get());
+        assertEquals(6, userRepository.findAll().size());
+    }
+
+    @Test
+    void modificationVersion_ShouldChangeOnlyOnSuccessfulWrites() {
+        // Arrange
+        long initial = userRepository.modificationVersion();
+
+        // Act
+        userRepository.save(new User("New", "newuser", "new@example.com", null, null));
+        long afterSave = userRepository.modificationVersion();
+        assertThrows(IllegalArgumentException.class,
+                () -> userRepository.save(new User("Dup", "newuser", "dup@example.com", null, null)));
+        userRepository.deleteById(999L);
+        long afterFailedWrites = userRepository.modificationVersion();
+        userRepository.deleteById(1L);
+
+        // Assert
+        assertTrue(afterSave > initial);
+        assertEquals(afterSave, afterFailedWrites);
+        assertTrue(userRepository.modificationVersion() > afterSave);
+    }
+
+    @Test
+    void search_ShouldFollowSavesAndDeletes() {
+        // Arrange
+        User user = new User("John Smith", "jsmith", "john.smith@mail.example", null, null);
+        userRepository.save(user);
+
+        // Act
+        List<User> byNamePrefix = userRepository.search("jo", 10);
+        List<User> byTwoWords = userRepository.search("SMI mail", 10);
+        User renamed = user.copy();
+        renamed.setName("Jane Smith");
+        userRepository.save(renamed);
+        List<User> afterRename = userRepository.search("john", 10);
+        userRepository.deleteById(user.getId());
+        List<User> afterDelete = userRepository.search("smith", 10);
+
+        // Assert
+        assertEquals(List.of(user), byNamePrefix);
+        assertEquals(List.of(user), byTwoWords);
+        assertEquals(List.of(renamed), afterRename); // still matched through the email
+        assertTrue(afterDelete.isEmpty());
+        assertTrue(userRepository.search("jsmith", 10).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> userRepository.search("@.", 10));
+    }
+
+    @Test
+    void findPage_WithSortAndDomain_ShouldFollowIndexedOrderAndUpdates() {
+        // Arrange
+        User carol = userRepository.save(new User("carol", "carol", "carol@corp.example", null, null));
+        User alice = userRepository.save(new User("Alice", "alice", "alice@corp.example", null, null));
+        User bob = userRepository.save(new User("Bob", "bob", "bob@other.example", null, null));
+        UserQuery byNameInCorp = new UserQuery(UserSortField.NAME, false, "CORP.example", null, null);
+
+        // Act
+        List<User> corp = userRepository.findPage(byNameInCorp, 0, 10);
+        User movedBob = bob.copy();
+        movedBob.setEmail("bob@corp.example");
+        userRepository.save(movedBob);
+        List<User> afterMove = userRepository.findAfter(byNameInCorp, "alice", alice.getId(), 10);
+        List<User> descending = userRepository.findPage(
+                new UserQuery(UserSortField.NAME, true, null, null, null), 0, 2);
+
+        // Assert
+        assertEquals(List.of(alice, carol), corp);
+        assertEquals(List.of(movedBob, carol), afterMove);
+        assertEquals(3, userRepository.count(byNameInCorp));
+        // Patricia Lebsack and Leanne Graham from the sample data sort last by name
+        assertEquals(List.of(4L, 1L), descending.stream().map(User::getId).toList());
+    }
+
+    @Test
+    void findPage_WithCreatedAtRange_ShouldSeekIntoRange() {
+        // Arrange
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<User> restored = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            User user = new User("User " + i, "user" + i, "user" + i + "@example.com", null, null);
+            user.setId((long) i);
+            user.setCreatedAt(base.plusDays(i));
+            user.setUpdatedAt(base.plusDays(i));
+            restored.add(user);
+        }
+        userRepository.restoreAll(restored, 10);
+        UserQuery query = new UserQuery(UserSortField.CREATED_AT, true, null, base.plusDays(3), base.plusDays(6));
+
+        // Act
+        List<User> page = userRepository.findPage(query, 1, 2);
+
+        // Assert
+        assertEquals(List.of(5L, 4L), page.stream().map(User::getId).toList());
+        assertEquals(4, userRepository.count(query));
+    }
+
+    @Test
+    void save_WithStaleVersion_ShouldRejectAndKeepNewerSnapshot() {
+        // Arrange
+        User stored = userRepository.findById(1L).orElseThrow();
+        User first = stored.copy();
+        first.setName("First");
+        User second = stored.copy();
+        second.setName("Second");
+
+        // Act
+        userRepository.save(first);
+
+        // Assert
+        assertThrows(ConcurrentUpdateException.class, () -> userRepository.save(second));
+        User current = userRepository.findById(1L).orElseThrow();
+        assertEquals("First", current.getName());
+        assertEquals(stored.getVersion() + 1, current.getVersion());
+        assertThrows(IllegalStateException.class, () -> current.setName("In place"));
+        assertEquals("Leanne Graham", stored.getName());
+    }
+
+    @Test
+    void save_WhenManyThreadsUpdateOneUser_ShouldNotLoseUpdates() throws Exception {
+        // Arrange
+        User counter = userRepository.findById(1L).orElseThrow().copy();
+        counter.setPhone("0");
+        userRepository.save(counter);
+        int threads = 4;
+        int incrementsPerThread = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Act
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < incrementsPerThread; i++) {
+                    while (true) {
+                        User next = userRepository.findById(1L).orElseThrow().copy();
+                        next.setPhone(Integer.toString(Integer.parseInt(next.getPhone()) + 1));
+                        try {
+                            userRepository.save(next);
+                            break;
+                        } catch (ConcurrentUpdateException retry) {
+                            // Lost the race; re-read and apply again
+                        }
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(Integer.toString(threads * incrementsPerThread), userRepository.findById(1L).orElseThrow().getPhone());
+    }
+
+    @Test
+    void search_ShouldReturnMatchesInIdOrderOnce() {
+        // Arrange
+        User first = userRepository.save(new User("Quinn Quill", "zq", "zq@order.example", null, null));
+        User second = userRepository.save(new User("Bo Qa", "bq", "bq@order.example", null, null));
+
+        // Act
+        List<User> both = userRepository.search("q", 10);
+        List<User> limited = userRepository.search("q", 1);
+
+        // Assert
+        // "qa" sorts before "quill" and "quinn", but matches come back by id and each user once
+        assertEquals(List.of(first, second), both);
+        assertEquals(List.of(first), limited);
+    }
+
+    @Test
+    void shardedRepository_ShouldMergeShardsInEveryOrderAndKeepKeysUnique() {
+        // Arrange
+        InMemoryUserRepository sharded = new InMemoryUserRepository(4);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            users.add(new User("Shard " + (char) ('z' - i), "shard" + i, "shard" + i + "@shards.example", null, null));
+        }
+        sharded.insertAll(users, LocalDateTime.now(), (user, ex) -> fail(ex));
+        UserQuery byNameInDomain = new UserQuery(UserSortField.NAME, false, "shards.example", null, null);
+        UserQuery newestFirst = new UserQuery(UserSortField.ID, true, null, null, null);
+
+        // Act
+        List<Long> allIds = sharded.findAll().stream().map(User::getId).toList();
+        List<User> firstByName = sharded.findPage(byNameInDomain, 0, 3);
+        List<User> nextByName = sharded.findAfter(byNameInDomain, UserSortField.NAME.valueOf(firstByName.get(2)),
+                firstByName.get(2).getId(), 2);
+        List<Long> newest = sharded.findPage(newestFirst, 0, 3).stream().map(User::getId).toList();
+        List<Long> found = sharded.search("shard", 20).stream().map(User::getId).toList();
+
+        // Assert
+        assertEquals(LongStream.rangeClosed(1, 17).boxed().toList(), allIds);
+        assertEquals(allIds, sharded.streamAll().map(User::getId).toList());
+        assertEquals(List.of("Shard o", "Shard p", "Shard q"), firstByName.stream().map(User::getName).toList());
+        assertEquals(List.of("Shard r", "Shard s"), nextByName.stream().map(User::getName).toList());
+        assertEquals(List.of(17L, 16L, 15L), newest);
+        assertEquals(LongStream.rangeClosed(6, 17).boxed().toList(), found);
+        assertEquals(12, sharded.count(UserQuery.of(null, "shards.example", null, null)));
+        assertEquals(17, sharded.count());
+        // Usernames stay unique even when the new user lands on another shard than the owner
+        assertThrows(IllegalArgumentException.class,
+                () -> sharded.save(new User("Taken", "SHARD3", "other@shards.example", null, null)));
+        sharded.deleteById(9L);
+        assertEquals(11, sharded.count(UserQuery.of(null, "shards.example", null, null)));
+        assertEquals(List.of(8L, 10L), sharded.findAfter(7L, 2).stream().map(User::getId).toList());
+    }
+
+    @Test
+    void findPage_WithUpdatedSince_ShouldReturnChangesAndTombstonesInUpdatedAtOrder() {
+        // Arrange
+        InMemoryUserRepository sharded = new InMemoryUserRepository(4);
+        LocalDateTime since = LocalDateTime.now();
+        User kept = sharded.save(new User("Kept", "delta-kept", "kept@delta.example", null, null));
+        User edited = sharded.save(new User("Edited", "delta-edited", "edited@delta.example", null, null));
+        User removed = sharded.save(new User("Removed", "delta-removed", "removed@delta.example", null, null));
+        User renamed = edited.copy();
+        renamed.setName("Renamed");
+        sharded.save(renamed);
+        sharded.deleteById(removed.getId());
+        UserQuery delta = UserQuery.of(null, "delta.example", null, null, since.toString(), null);
+
+        // Act
+        List<User> page = sharded.findPage(delta, 0, 10);
+        List<User> rest = sharded.findAfter(delta, page.get(0).getUpdatedAt(), page.get(0).getId(), 10);
+
+        // Assert
+        assertEquals(3, page.size());
+        assertEquals(3, sharded.count(delta));
+        assertEquals(page.subList(1, 3), rest);
+        for (int i = 1; i < page.size(); i++) {
+            assertTrue(page.get(i - 1).getUpdatedAt().isBefore(page.get(i).getUpdatedAt())
+                    || page.get(i - 1).getUpdatedAt().equals(page.get(i).getUpdatedAt())
+                    && page.get(i - 1).getId() < page.get(i).getId());
+        }
+        User tombstone = page.stream().filter(User::isDeleted).findFirst().orElseThrow();
+        assertEquals(removed.getId(), tombstone.getId());
+        assertEquals("Renamed", page.stream().filter(user -> user.getId().equals(edited.getId())).findFirst().orElseThrow().getName());
+        assertTrue(page.stream().anyMatch(user -> user.getId().equals(kept.getId())));
+        assertFalse(sharded.existsById(removed.getId()));
+        assertTrue(sharded.findPage(UserQuery.of(null, "delta.example", null, null, null, since.toString()), 0, 10).isEmpty());
+        assertFalse(sharded.deletionsTrackedSince().isAfter(since));
+    }
+
+    @Test
+    void findPage_WithUpdatedSince_ShouldHoldBackWritesStampedAfterOneStillInFlight() throws Exception {
+        // Arrange
+        LocalDateTime since = LocalDateTime.now();
+        UserQuery delta = UserQuery.of(null, "inflight.example", null, null, since.toString(), null);
+        CountDownLatch slowLogging = new CountDownLatch(1);
+        CountDownLatch releaseSlow = new CountDownLatch(1);
+        userRepository.setMutationLog(new UserMutationLog() {
+            @Override
+            public long logSave(User user) {
+                if (user.getUsername().equals("slow")) {
+                    // Stamped already, not yet visible
+                    slowLogging.countDown();
+                    try {
+                        releaseSlow.await();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return 0;
+            }
+        });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<User> slow = executor.submit(
+                () -> userRepository.save(new User("Slow", "slow", "slow@inflight.example", null, null)));
+        assertTrue(slowLogging.await(5, TimeUnit.SECONDS));
+        User fast = userRepository.save(new User("Fast", "fast", "fast@inflight.example", null, null));
+
+        // Act
+        List<User> whileInFlight = userRepository.findPage(delta, 0, 10);
+        long countWhileInFlight = userRepository.count(delta);
+        releaseSlow.countDown();
+        User slowSaved = slow.get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+        List<User> afterwards = userRepository.findPage(delta, 0, 10);
+
+        // Assert
+        // The fast write is visible but stamped after the slow one, which a client resuming from
+        // the fast write's updatedAt would skip
+        assertTrue(slowSaved.getUpdatedAt().isBefore(fast.getUpdatedAt()));
+        assertTrue(whileInFlight.isEmpty());
+        assertEquals(0, countWhileInFlight);
+        assertEquals(List.of(slowSaved.getId(), fast.getId()), afterwards.stream().map(User::getId).toList());
+    }
+}
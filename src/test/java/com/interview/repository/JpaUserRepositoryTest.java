@@ -0,0 +1,143 @@
+package com.interview.repository;
+
+import com.interview.exception.ConcurrentUpdateException;
+import com.interview.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "users.storage.backend=jpa",
+        "spring.jpa.show-sql=false",
+        "spring.datasource.url=jdbc:h2:mem:jpa-user-repository-test"
+})
+class JpaUserRepositoryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void backend_ShouldBeJpaAndSeededWithSampleUsers() {
+        // Act & Assert
+        assertInstanceOf(JpaUserRepository.class, userRepository);
+        User bret = userRepository.findByUsername(" BRET ").orElseThrow();
+        assertEquals("Leanne Graham", bret.getName());
+        assertTrue(bret.isFrozen());
+        assertEquals(bret.getId(), userRepository.findByEmail("sincere@APRIL.biz").orElseThrow().getId());
+    }
+
+    @Test
+    void save_ShouldStampVersionAndRejectDuplicateAndStaleWrites() {
+        // Arrange
+        User created = userRepository.save(new User("Save Test", "save-test", "save-test@example.com", null, null));
+        User first = created.copy();
+        first.setName("First");
+        User second = created.copy();
+        second.setName("Second");
+        long version = userRepository.modificationVersion();
+
+        // Act
+        User updated = userRepository.save(first);
+
+        // Assert
+        assertEquals(0L, created.getVersion());
+        assertNotNull(created.getCreatedAt());
+        assertEquals(1L, updated.getVersion());
+        assertTrue(updated.getUpdatedAt().isAfter(created.getUpdatedAt()) || updated.getUpdatedAt().equals(created.getUpdatedAt()));
+        assertTrue(userRepository.modificationVersion() > version);
+        assertThrows(ConcurrentUpdateException.class, () -> userRepository.save(second));
+        IllegalArgumentException duplicate = assertThrows(IllegalArgumentException.class,
+                () -> userRepository.save(new User("Other", "SAVE-TEST", "other-save@example.com", null, null)));
+        assertEquals("Username 'SAVE-TEST' already exists", duplicate.getMessage());
+        User reread = userRepository.findById(created.getId()).orElseThrow();
+        assertEquals("First", reread.getName());
+        assertEquals(updated.getUpdatedAt(), reread.getUpdatedAt());
+    }
+
+    @Test
+    void insertAll_ShouldStoreBatchAndReportConflicts() {
+        // Arrange
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            users.add(new User("Batch " + i, "batch-" + i, "batch-" + i + "@batch.example", null, null));
+        }
+        users.add(new User("Taken", "Bret", "taken@batch.example", null, null));
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 12, 0);
+        Map<User, String> conflicts = new ConcurrentHashMap<>();
+
+        // Act
+        userRepository.insertAll(users, createdAt, (user, ex) -> conflicts.put(user, ex.getMessage()));
+
+        // Assert
+        assertEquals(Map.of(users.get(250), "Username 'Bret' already exists"), conflicts);
+        assertTrue(users.get(0).getId() < users.get(249).getId());
+        assertEquals(250, userRepository.count(UserQuery.of(null, "batch.example", null, null)));
+        User stored = userRepository.findByUsername("batch-42").orElseThrow();
+        assertEquals(createdAt, stored.getCreatedAt());
+        assertEquals(0L, stored.getVersion());
+    }
+
+    @Test
+    void findAfter_ShouldSeekInSortOrderWithinDomain() {
+        // Arrange
+        userRepository.save(new User("carol", "keyset-carol", "carol@keyset.example", null, null));
+        User alice = userRepository.save(new User("Alice", "keyset-alice", "alice@keyset.example", null, null));
+        userRepository.save(new User("Bob", "keyset-bob", "bob@keyset.example", null, null));
+        UserQuery byNameDescending = new UserQuery(UserSortField.NAME, true, "keyset.example", null, null);
+
+        // Act
+        List<User> firstPage = userRepository.findPage(byNameDescending, 0, 2);
+        List<User> afterBob = userRepository.findAfter(byNameDescending, "bob", firstPage.get(1).getId(), 10);
+
+        // Assert
+        assertEquals(List.of("carol", "Bob"), firstPage.stream().map(User::getName).toList());
+        assertEquals(List.of(alice.getId()), afterBob.stream().map(User::getId).toList());
+    }
+
+    @Test
+    void searchAndDelete_ShouldFollowWrites() {
+        // Arrange
+        User user = userRepository.save(new User("Quinn Zephyr", "qzephyr", "quinn@search.example", null, null));
+
+        // Act
+        List<Long> found = userRepository.search("zeph qu", 10).stream().map(User::getId).toList();
+        List<User> partialWord = userRepository.search("ephyr", 10);
+        userRepository.deleteById(user.getId());
+
+        // Assert
+        assertEquals(List.of(user.getId()), found);
+        assertTrue(partialWord.isEmpty());
+        assertFalse(userRepository.existsById(user.getId()));
+        assertTrue(userRepository.search("zephyr", 10).isEmpty());
+        assertTrue(userRepository.findByUsername("qzephyr").isEmpty());
+    }
+
+    @Test
+    void findPage_WithUpdatedSince_ShouldMergeTombstonesOfDeletedUsers() {
+        // Arrange
+        LocalDateTime since = LocalDateTime.now();
+        User kept = userRepository.save(new User("Kept", "jpa-delta-kept", "kept@jpa-delta.example", null, null));
+        User removed = userRepository.save(new User("Removed", "jpa-delta-removed", "removed@jpa-delta.example", null, null));
+        userRepository.deleteById(removed.getId());
+        UserQuery delta = UserQuery.of("updatedAt,desc", "jpa-delta.example", null, null, since.toString(), null);
+
+        // Act
+        List<User> page = userRepository.findPage(delta, 0, 10);
+        List<User> afterFirst = userRepository.findAfter(delta, page.get(0).getUpdatedAt(), page.get(0).getId(), 10);
+
+        // Assert
+        assertEquals(List.of(removed.getId(), kept.getId()), page.stream().map(User::getId).toList());
+        assertTrue(page.get(0).isDeleted());
+        assertFalse(page.get(1).isDeleted());
+        assertEquals(List.of(kept.getId()), afterFirst.stream().map(User::getId).toList());
+        assertEquals(2, userRepository.count(delta));
+    }
+}
@@ -0,0 +1,61 @@
+package com.interview.repository.persistence;
+
+import com.interview.model.User;
+import com.interview.repository.InMemoryUserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserSnapshotFileTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writeAndRead_ShouldRestoreUsersIndexesAndIdHighWaterMark() throws Exception {
+        // Arrange
+        InMemoryUserRepository source = new InMemoryUserRepository();
+        for (int i = 0; i < 100_000; i++) {
+            source.save(new User("User " + i, "user" + i, "user" + i + "@example.com", null, "site" + i + ".example"));
+        }
+        User deleted = source.save(new User("Deleted", "deleted", "deleted@example.com", null, null));
+        source.deleteById(deleted.getId());
+        Path file = directory.resolve("users.snapshot");
+
+        // Act
+        UserSnapshotFile.write(file, source.snapshot());
+        InMemoryUserRepository.Snapshot snapshot = UserSnapshotFile.read(file);
+        InMemoryUserRepository target = new InMemoryUserRepository();
+        target.restoreAll(snapshot.users(), snapshot.idHighWaterMark());
+
+        // Assert
+        assertEquals(source.count(), target.count());
+        User original = source.findById(50_000L).orElseThrow();
+        User restored = target.findByUsername(original.getUsername()).orElseThrow();
+        assertEquals(original.getId(), restored.getId());
+        assertEquals(original.getEmail(), restored.getEmail());
+        assertEquals(original.getCreatedAt(), restored.getCreatedAt());
+        assertEquals(deleted.getId() + 1, target.save(new User("Next", "next", "next@example.com", null, null)).getId());
+        assertEquals(10L, target.findPage(9, 1).get(0).getId());
+    }
+
+    @Test
+    void read_WithCorruptRecord_ShouldFail() throws Exception {
+        // Arrange
+        Path file = directory.resolve("users.snapshot");
+        UserSnapshotFile.write(file, new InMemoryUserRepository().snapshot());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), Files.size(file) - 3);
+        }
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> UserSnapshotFile.read(file));
+    }
+}
@@ -0,0 +1,130 @@
+package com.interview.repository.persistence;
+
+import com.interview.model.User;
+import com.interview.repository.InMemoryUserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserWriteAheadLogTest {
+
+    @TempDir
+    Path directory;
+
+    private UserWriteAheadLog log;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (log != null) {
+            log.close();
+        }
+    }
+
+    @Test
+    void recover_ShouldReplayLoggedWritesOverSeedData() throws Exception {
+        // Arrange
+        InMemoryUserRepository userRepository = open();
+        User created = userRepository.save(new User("New User", "newuser", "new@example.com", "123", "new.example"));
+        User updated = userRepository.findById(1L).orElseThrow().copy();
+        updated.setName("Leanne Updated");
+        userRepository.save(updated);
+        userRepository.deleteById(2L);
+        log.close();
+
+        // Act
+        InMemoryUserRepository recovered = open();
+
+        // Assert
+        assertEquals(5, recovered.count());
+        assertEquals("Leanne Updated", recovered.findById(1L).orElseThrow().getName());
+        assertFalse(recovered.existsById(2L));
+        User restored = recovered.findById(created.getId()).orElseThrow();
+        assertEquals("new.example", restored.getWebsite());
+        assertEquals(created.getCreatedAt(), restored.getCreatedAt());
+        assertTrue(recovered.findByUsername("newuser").isPresent());
+        assertEquals(created.getId() + 1, recovered.save(new User("Next", "next", "next@example.com", null, null)).getId());
+    }
+
+    @Test
+    void recover_ShouldTruncateTornTail() throws Exception {
+        // Arrange
+        InMemoryUserRepository userRepository = open();
+        userRepository.save(new User("New User", "newuser", "new@example.com", null, null));
+        log.close();
+        Path segment = directory.resolve("users-1.wal");
+        long intactLength = Files.size(segment);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 40, 1, 2, 3}));
+        }
+
+        // Act
+        InMemoryUserRepository recovered = open();
+
+        // Assert
+        assertTrue(recovered.findByUsername("newuser").isPresent());
+        assertEquals(intactLength, Files.size(segment));
+    }
+
+    @Test
+    void checkpoint_ShouldCompactLogAndKeepDeletedSeedUsersDeleted() throws Exception {
+        // Arrange
+        InMemoryUserRepository userRepository = open();
+        userRepository.deleteById(3L);
+        User created = userRepository.save(new User("New User", "newuser", "new@example.com", null, null));
+        userRepository.deleteById(created.getId());
+
+        // Act
+        log.checkpoint(userRepository::streamAll, userRepository::idHighWaterMark);
+        userRepository.save(new User("After", "after", "after@example.com", null, null));
+        log.close();
+        InMemoryUserRepository recovered = open();
+
+        // Assert
+        assertFalse(Files.exists(directory.resolve("users-1.wal")));
+        assertTrue(Files.exists(directory.resolve("checkpoint-2.dat")));
+        assertFalse(recovered.existsById(3L));
+        assertTrue(recovered.findByUsername("after").isPresent());
+        assertEquals(5, recovered.count());
+        assertEquals(created.getId() + 1, recovered.findByUsername("after").orElseThrow().getId());
+    }
+
+    @Test
+    void codec_ShouldRoundTripNullFields() {
+        // Arrange
+        User user = new User("Name", "user", "user@example.com", null, null);
+        user.setId(42L);
+
+        // Act
+        byte[] frame = UserRecordCodec.encodePut(user);
+        UserRecordCodec.Entry entry = UserRecordCodec.decodeBody(
+                ByteBuffer.wrap(frame, UserRecordCodec.FRAME_HEADER_BYTES, frame.length - UserRecordCodec.FRAME_HEADER_BYTES).slice());
+
+        // Assert
+        assertEquals(42L, entry.id());
+        assertNull(entry.user().getPhone());
+        assertNull(entry.user().getCreatedAt());
+        assertEquals("user@example.com", entry.user().getEmail());
+    }
+
+    private InMemoryUserRepository open() throws IOException {
+        if (log != null) {
+            log.close();
+        }
+        InMemoryUserRepository userRepository = new InMemoryUserRepository();
+        log = new UserWriteAheadLog(directory, FsyncPolicy.SYNC, Duration.ZERO);
+        UserWriteAheadLog.Recovery recovery = log.recover(userRepository.findAll());
+        userRepository.restoreAll(recovery.users(), recovery.idHighWaterMark());
+        userRepository.setMutationLog(log);
+        return userRepository;
+    }
+}
@@ -0,0 +1,125 @@
+package com.interview.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interview.dto.UserChangeEvent;
+import com.interview.model.User;
+import com.interview.repository.InMemoryUserRepository;
+import com.interview.repository.UserChangeListener;
+import com.interview.repository.UserMutationLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserChangeFeedTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private InMemoryUserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = new InMemoryUserRepository();
+    }
+
+    @Test
+    void changesAfter_ShouldReturnWritesInSequenceOrder() throws Exception {
+        // Arrange
+        UserChangeFeed feed = new UserChangeFeed(userRepository, objectMapper, 16, Duration.ofSeconds(15));
+        long start = feed.lastSequence();
+        User created = userRepository.save(new User("Feed User", "feeduser", "feed@example.com", null, null));
+        User update = created.copy();
+        update.setName("Renamed");
+        userRepository.save(update);
+        userRepository.deleteById(created.getId());
+
+        // Act
+        List<UserChangeFeed.Change> changes = feed.changesAfter(start, 10);
+        List<UserChangeFeed.Change> resumed = feed.changesAfter(start + 1, 1);
+
+        // Assert
+        assertEquals(List.of(UserChangeEvent.CREATED, UserChangeEvent.UPDATED, UserChangeEvent.DELETED),
+                changes.stream().map(UserChangeFeed.Change::type).toList());
+        assertEquals(List.of(start + 1, start + 2, start + 3),
+                changes.stream().map(UserChangeFeed.Change::sequence).toList());
+        assertEquals("Renamed", changes.get(1).user().getName());
+        assertEquals(created.getId(), changes.get(2).userId());
+        assertNull(changes.get(2).user());
+        assertEquals(List.of(start + 2), resumed.stream().map(UserChangeFeed.Change::sequence).toList());
+        assertTrue(feed.changesAfter(start + 3, 10).isEmpty());
+    }
+
+    @Test
+    void changesAfter_ShouldReturnNullOncePositionIsOverwrittenOrUnknown() {
+        // Arrange
+        UserChangeFeed feed = new UserChangeFeed(userRepository, objectMapper, 4, Duration.ofSeconds(15));
+        long start = feed.lastSequence();
+        for (int i = 0; i < 6; i++) {
+            userRepository.save(new User("Ring " + i, "ring" + i, "ring" + i + "@example.com", null, null));
+        }
+
+        // Act & Assert
+        assertNull(feed.changesAfter(start, 10));
+        assertNull(feed.changesAfter(start + 1, 10));
+        assertEquals(4, feed.changesAfter(start + 2, 10).size());
+        assertNull(feed.changesAfter(feed.lastSequence() + 1, 10));
+        assertNull(feed.changesAfter(0, 10));
+    }
+
+    @Test
+    void changesAfter_ShouldHideChangesUntilEarlierOnesArePublishedOrDiscarded() {
+        // Arrange
+        UserChangeFeed feed = new UserChangeFeed(userRepository, objectMapper, 16, Duration.ofSeconds(15));
+        long start = feed.lastSequence();
+        UserChangeListener.PendingChange failed = feed.userSaved(userRepository.findById(1L).orElseThrow());
+        UserChangeListener.PendingChange deleted = feed.userDeleted(2L);
+
+        // Act
+        deleted.publish();
+        List<UserChangeFeed.Change> whilePending = feed.changesAfter(start, 10);
+        long sequenceWhilePending = feed.lastSequence();
+        failed.discard();
+        List<UserChangeFeed.Change> resolved = feed.changesAfter(start, 10);
+
+        // Assert
+        assertTrue(whilePending.isEmpty());
+        assertEquals(start, sequenceWhilePending);
+        assertEquals(start + 2, feed.lastSequence());
+        assertEquals(List.of(start + 2), resolved.stream().map(UserChangeFeed.Change::sequence).toList());
+        assertEquals(UserChangeEvent.DELETED, resolved.get(0).type());
+    }
+
+    @Test
+    void save_WhenDurabilityFails_ShouldNotPublishTheChange() {
+        // Arrange
+        UserChangeFeed feed = new UserChangeFeed(userRepository, objectMapper, 16, Duration.ofSeconds(15));
+        long start = feed.lastSequence();
+        userRepository.setMutationLog(new UserMutationLog() {
+            @Override
+            public void awaitDurable(long position) {
+                throw new UncheckedIOException(new IOException("Disk full"));
+            }
+        });
+
+        // Act
+        assertThrows(UncheckedIOException.class,
+                () -> userRepository.save(new User("Lost", "lost", "lost@example.com", null, null)));
+
+        // Assert
+        assertTrue(feed.changesAfter(start, 10).isEmpty());
+        assertEquals(start + 1, feed.lastSequence());
+    }
+
+    @Test
+    void constructor_WithBufferSizeNotPowerOfTwo_ShouldThrow() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> new UserChangeFeed(userRepository, objectMapper, 1000, Duration.ofSeconds(15)));
+    }
+}
@@ -0,0 +1,63 @@
+package com.interview.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interview.dto.UserProjection;
+import com.interview.repository.InMemoryUserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserExportServiceTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private InMemoryUserRepository userRepository;
+    private UserExportService userExportService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = new InMemoryUserRepository();
+        userExportService = new UserExportService(userRepository, objectMapper);
+    }
+
+    @Test
+    void exportUsers_ShouldWriteOneJsonLinePerUserInIdOrder() throws Exception {
+        // Arrange
+        userRepository.deleteById(3L);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long written = userExportService.exportUsers(out);
+
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(4, written);
+        assertEquals(4, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals(1, first.get("id").asLong());
+        assertEquals("Bret", first.get("username").asText());
+        assertTrue(first.has("createdAt"));
+        assertEquals(4, objectMapper.readTree(lines[2]).get("id").asLong());
+    }
+
+    @Test
+    void exportUsers_WithProjection_ShouldWriteOnlyProjectedFields() throws Exception {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long written = userExportService.exportUsers(out, UserProjection.parse("username,id"));
+
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(5, written);
+        assertEquals("{\"id\":1,\"username\":\"Bret\"}", lines[0].trim());
+        assertEquals(5, lines.length);
+    }
+}
@@ -0,0 +1,112 @@
+package com.interview.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interview.dto.ImportEvent;
+import com.interview.repository.InMemoryUserRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserImportServiceTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private InMemoryUserRepository userRepository;
+    private UserImportService userImportService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = new InMemoryUserRepository();
+        UserService userService = new UserService(userRepository,
+                Validation.buildDefaultValidatorFactory().getValidator(), new UserPageCache(16));
+        userImportService = new UserImportService(userService, objectMapper, 2);
+    }
+
+    @Test
+    void importNdjson_ShouldApplyBatchesAndReportLineErrors() throws Exception {
+        // Arrange
+        String body = """
+                {"name":"A","username":"a","email":"a@example.com"}
+                {"name":"B","username":"b","email":"not-an-email"}
+
+                {"name":"C","username":"c","email":"c@example.com"
+                {"name":"D","username":"bret","email":"d@example.com"}
+                {"name":"E","username":"e","email":"e@example.com"}
+                """;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        ImportEvent summary = userImportService.importNdjson(stream(body), out);
+
+        // Assert
+        assertEquals(5, summary.getProcessed());
+        assertEquals(2, summary.getImported());
+        assertEquals(3, summary.getFailed());
+        assertTrue(userRepository.findByUsername("e").isPresent());
+        List<JsonNode> errors = events(out, ImportEvent.ERROR);
+        assertEquals(List.of(2L, 4L, 5L), errors.stream().map(error -> error.get("line").asLong()).toList());
+        assertEquals(3, events(out, ImportEvent.PROGRESS).size() + events(out, ImportEvent.SUMMARY).size());
+    }
+
+    @Test
+    void importJsonArray_ShouldStreamElements() throws Exception {
+        // Arrange
+        String body = """
+                [
+                  {"name":"A","username":"a","email":"a@example.com"},
+                  {"name":"B","username":"A","email":"b@example.com"},
+                  {"name":"C","username":"c","email":"c@example.com"}
+                ]
+                """;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        ImportEvent summary = userImportService.importJsonArray(stream(body), out);
+
+        // Assert
+        assertEquals(3, summary.getProcessed());
+        assertEquals(2, summary.getImported());
+        assertEquals(3L, events(out, ImportEvent.ERROR).get(0).get("line").asLong());
+        assertEquals(7, userRepository.count());
+    }
+
+    @Test
+    void importJsonArray_WithTruncatedBody_ShouldKeepAppliedRecords() throws Exception {
+        // Arrange
+        String body = "[{\"name\":\"A\",\"username\":\"a\",\"email\":\"a@example.com\"},{\"name\":";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        ImportEvent summary = userImportService.importJsonArray(stream(body), out);
+
+        // Assert
+        assertEquals(1, summary.getImported());
+        assertEquals(1, summary.getFailed());
+        assertTrue(userRepository.findByUsername("a").isPresent());
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<JsonNode> events(ByteArrayOutputStream out, String type) throws Exception {
+        List<JsonNode> events = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            JsonNode event = objectMapper.readTree(line);
+            if (type.equals(event.get("type").asText())) {
+                events.add(event);
+            }
+        }
+        return events;
+    }
+}
@@ -0,0 +1,81 @@
+package com.interview.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interview.exception.ResourceNotFoundException;
+import com.interview.model.User;
+import com.interview.repository.InMemoryUserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserJsonCacheTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private InMemoryUserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = new InMemoryUserRepository();
+    }
+
+    @Test
+    void get_ShouldReuseBodyUntilUserIsSaved() throws Exception {
+        // Arrange
+        UserJsonCache cache = new UserJsonCache(userRepository, objectMapper, DataSize.ofMegabytes(1));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        // Act
+        UserJsonCache.SerializedUser first = cache.get(1L);
+        UserJsonCache.SerializedUser second = cache.get(1L);
+        User user = userRepository.findById(1L).orElseThrow().copy();
+        user.setName("Renamed");
+        userRepository.save(user);
+        UserJsonCache.SerializedUser afterSave = cache.get(1L);
+
+        // Assert
+        assertSame(first, second);
+        assertNotEquals(first.etag(), afterSave.etag());
+        assertEquals("Renamed", objectMapper.readTree(afterSave.json()).path("data").path("name").asText());
+        assertTrue(new String(first.json(), StandardCharsets.UTF_8).startsWith("{\"success\":true"));
+        assertEquals(1.0, registry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(2.0, registry.get("cache.gets").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void get_WhenOverBudget_ShouldEvictAndStillServeUsers() throws Exception {
+        // Arrange
+        UserJsonCache cache = new UserJsonCache(userRepository, objectMapper, DataSize.ofBytes(16 * 300));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        for (int i = 0; i < 40; i++) {
+            userRepository.save(new User("User " + i, "user" + i, "user" + i + "@example.com", null, null));
+        }
+
+        // Act
+        for (long id = 1; id <= userRepository.count(); id++) {
+            assertEquals(id, objectMapper.readTree(cache.get(id).json()).path("data").path("id").asLong());
+        }
+
+        // Assert
+        assertTrue(registry.get("cache.evictions").functionCounter().count() > 0);
+        assertTrue(registry.get("cache.bytes").gauge().value() <= 16 * 300);
+    }
+
+    @Test
+    void get_WhenUserMissing_ShouldThrowNotFound() {
+        // Arrange
+        UserJsonCache cache = new UserJsonCache(userRepository, objectMapper, DataSize.ofMegabytes(1));
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> cache.get(999L));
+    }
+}
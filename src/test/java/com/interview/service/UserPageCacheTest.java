@@ -0,0 +1,74 @@
+package com.interview.service;
+
+import com.interview.dto.PagedResponse;
+import com.interview.dto.PaginationMeta;
+import com.interview.dto.UserResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserPageCacheTest {
+
+    @Test
+    void get_WhenVersionChanged_ShouldMissAndCountIt() {
+        // Arrange
+        UserPageCache cache = new UserPageCache(4);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        PagedResponse<UserResponse> page = page(0);
+        cache.put(0, 10, 5L, page);
+
+        // Act
+        PagedResponse<UserResponse> hit = cache.get(0, 10, 5L);
+        PagedResponse<UserResponse> stale = cache.get(0, 10, 6L);
+
+        // Assert
+        assertSame(page, hit);
+        assertNull(stale);
+        assertEquals(1.0, registry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void put_WithOlderVersion_ShouldNotReplaceNewerPage() {
+        // Arrange
+        UserPageCache cache = new UserPageCache(4);
+        PagedResponse<UserResponse> newer = page(0);
+        cache.put(0, 10, 7L, newer);
+
+        // Act
+        cache.put(0, 10, 6L, page(0));
+
+        // Assert
+        assertSame(newer, cache.get(0, 10, 7L));
+    }
+
+    @Test
+    void put_WhenFull_ShouldEvictLeastRecentlyUsedPage() throws InterruptedException {
+        // Arrange
+        UserPageCache cache = new UserPageCache(2);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        cache.put(0, 10, 1L, page(0));
+        cache.put(1, 10, 1L, page(1));
+        Thread.sleep(2);
+        cache.get(0, 10, 1L);
+
+        // Act
+        cache.put(2, 10, 1L, page(2));
+
+        // Assert
+        assertNotNull(cache.get(0, 10, 1L));
+        assertNull(cache.get(1, 10, 1L));
+        assertNotNull(cache.get(2, 10, 1L));
+        assertEquals(1.0, registry.get("cache.evictions").functionCounter().count());
+        assertEquals(2.0, registry.get("cache.size").gauge().value());
+    }
+
+    private static PagedResponse<UserResponse> page(int page) {
+        return new PagedResponse<>(List.of(), new PaginationMeta(page, 10, 0, 0), null);
+    }
+}
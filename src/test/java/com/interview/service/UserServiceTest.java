@@ -1,20 +1,34 @@
 package com.interview.service;
 
+import com.interview.dto.BatchResult;
 import com.interview.dto.PagedResponse;
 import com.interview.dto.UserRequest;
 import com.interview.dto.UserResponse;
+import com.interview.dto.UserUpdateRequest;
+import com.interview.exception.ConcurrentUpdateException;
+import com.interview.exception.PreconditionFailedException;
 import com.interview.exception.ResourceNotFoundException;
 import com.interview.model.User;
+import com.interview.repository.UserQuery;
 import com.interview.repository.UserRepository;
+import com.interview.repository.UserSortField;
+import com.interview.util.PaginationUtil;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.ArrayList;
+import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.BiConsumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -26,6 +40,12 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Spy
+    private UserPageCache pageCache = new UserPageCache(16);
+
     @InjectMocks
     private UserService userService;
 
@@ -42,7 +62,8 @@ class UserServiceTest {
         // Arrange
         User user2 = new User("Jane Doe", "janedoe", "jane@example.com", "0987654321", "janedoe.com");
         user2.setId(2L);
-        when(userRepository.findAll()).thenReturn(Arrays.asList(testUser, user2));
+        when(userRepository.count()).thenReturn(2L);
+        when(userRepository.findPage(0L, 10)).thenReturn(Arrays.asList(testUser, user2));
 
         // Act
         PagedResponse<UserResponse> result = userService.getAllUsers(0, 10);
@@ -55,7 +76,150 @@ class UserServiceTest {
         assertEquals(10, result.getPagination().getSize());
         assertEquals(2, result.getPagination().getTotalElements());
         assertEquals(1, result.getPagination().getTotalPages());
-        verify(userRepository, times(1)).findAll();
+        verify(userRepository, times(1)).findPage(0L, 10);
+        verify(userRepository, never()).findAll();
+    }
+
+    @Test
+    void getAllUsers_WithDeepPage_ShouldRequestOffsetWindow() {
+        // Arrange
+        when(userRepository.count()).thenReturn(100L);
+        when(userRepository.findPage(90L, 10)).thenReturn(Arrays.asList(testUser));
+
+        // Act
+        PagedResponse<UserResponse> result = userService.getAllUsers(9, 10);
+
+        // Assert
+        assertEquals(1, result.getContent().size());
+        assertEquals(100, result.getPagination().getTotalElements());
+        assertEquals(10, result.getPagination().getTotalPages());
+    }
+
+    @Test
+    void getAllUsers_ShouldServeCachedPageUntilVersionChanges() {
+        // Arrange
+        when(userRepository.modificationVersion()).thenReturn(1L, 1L, 2L);
+        when(userRepository.count()).thenReturn(1L);
+        when(userRepository.findPage(0L, 10)).thenReturn(Arrays.asList(testUser));
+
+        // Act
+        PagedResponse<UserResponse> first = userService.getAllUsers(0, 10);
+        PagedResponse<UserResponse> second = userService.getAllUsers(0, 10);
+        PagedResponse<UserResponse> afterWrite = userService.getAllUsers(0, 10);
+
+        // Assert
+        assertSame(first, second);
+        assertNotSame(second, afterWrite);
+        verify(userRepository, times(2)).findPage(0L, 10);
+    }
+
+    @Test
+    void getUsersAfter_WithSortedQuery_ShouldSeekFromCursorAndIssueNext() {
+        // Arrange
+        UserQuery query = new UserQuery(UserSortField.NAME, false, null, null, null);
+        User user2 = new User("Jane Doe", "janedoe", "jane@example.com", "0987654321", "janedoe.com");
+        user2.setId(2L);
+        User user3 = new User("Kim Doe", "kimdoe", "kim@example.com", null, null);
+        user3.setId(3L);
+        when(userRepository.findAfter(query, "jane doe", 7L, 2)).thenReturn(Arrays.asList(user2, user3));
+        String cursor = PaginationUtil.encodeSortCursor("name", "jane doe", 7L);
+
+        // Act
+        PagedResponse<UserResponse> result = userService.getUsersAfter(cursor, 1, query);
+
+        // Assert
+        assertEquals(1, result.getContent().size());
+        assertEquals(PaginationUtil.encodeSortCursor("name", "jane doe", 2L), result.getNextCursor());
+        assertThrows(IllegalArgumentException.class,
+                () -> userService.getUsersAfter(PaginationUtil.encodeCursor(7L), 1, query));
+    }
+
+    @Test
+    void searchUsers_ShouldPageMatches() {
+        // Arrange
+        User user2 = new User("Jane Doe", "janedoe", "jane@example.com", "0987654321", "janedoe.com");
+        user2.setId(2L);
+        when(userRepository.search("doe", UserService.MAX_SEARCH_RESULTS)).thenReturn(Arrays.asList(testUser, user2));
+
+        // Act
+        PagedResponse<UserResponse> result = userService.searchUsers("doe", 1, 1);
+
+        // Assert
+        assertEquals(1, result.getContent().size());
+        assertEquals("Jane Doe", result.getContent().get(0).getName());
+        assertEquals(2, result.getPagination().getTotalElements());
+        assertEquals(2, result.getPagination().getTotalPages());
+    }
+
+    @Test
+    void searchUsers_WithBlankQuery_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> userService.searchUsers(" ", 0, 10));
+        verify(userRepository, never()).search(any(), anyInt());
+    }
+
+    @Test
+    void getAllUsers_WithNegativePage_ShouldThrowException() {
+        // Arrange
+        when(userRepository.count()).thenReturn(2L);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> userService.getAllUsers(-1, 10));
+    }
+
+    @Test
+    void getAllUsers_WithPageSizeAboveMaximum_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> userService.getAllUsers(0, PaginationUtil.MAX_PAGE_SIZE + 1));
+        verify(userRepository, never()).findPage(anyLong(), anyInt());
+    }
+
+    @Test
+    void getUsersAfter_WithMaximumIntPageSize_ShouldThrowInsteadOfOverflowing() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> userService.getUsersAfter(null, Integer.MAX_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> userService.getUsersAfter(null, Integer.MAX_VALUE,
+                new UserQuery(UserSortField.NAME, false, null, null, null)));
+        assertThrows(IllegalArgumentException.class, () -> userService.searchUsers("john", 0, Integer.MAX_VALUE));
+        verify(userRepository, never()).findAfter(any(), anyInt());
+        verify(userRepository, never()).findPage(any(UserQuery.class), anyLong(), anyInt());
+        verify(userRepository, never()).search(any(), anyInt());
+    }
+
+    @Test
+    void getUsersAfter_WhenMoreUsersFollow_ShouldReturnNextCursor() {
+        // Arrange
+        User user2 = new User("Jane Doe", "janedoe", "jane@example.com", "0987654321", "janedoe.com");
+        user2.setId(2L);
+        when(userRepository.findAfter(null, 2)).thenReturn(new ArrayList<>(Arrays.asList(testUser, user2)));
+
+        // Act
+        PagedResponse<UserResponse> result = userService.getUsersAfter(null, 1);
+
+        // Assert
+        assertEquals(1, result.getContent().size());
+        assertEquals(1L, PaginationUtil.decodeCursor(result.getNextCursor()));
+        assertNull(result.getPagination());
+    }
+
+    @Test
+    void getUsersAfter_OnLastPage_ShouldReturnNullCursor() {
+        // Arrange
+        when(userRepository.findAfter(1L, 11)).thenReturn(new ArrayList<>(Arrays.asList(testUser)));
+
+        // Act
+        PagedResponse<UserResponse> result = userService.getUsersAfter(PaginationUtil.encodeCursor(1L), 10);
+
+        // Assert
+        assertEquals(1, result.getContent().size());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void getUsersAfter_WithInvalidCursor_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> userService.getUsersAfter("not-a-cursor", 10));
     }
 
     @Test
@@ -116,7 +280,7 @@ class UserServiceTest {
         // Arrange
         UserRequest request = new UserRequest("John Updated", "johndoe", "john@example.com", "1234567890", "johndoe.com");
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // Act
         UserResponse result = userService.updateUser(1L, request);
@@ -127,6 +291,79 @@ class UserServiceTest {
         verify(userRepository, times(1)).save(any(User.class));
     }
 
+    @Test
+    void updateUser_WithUsernameOwnedByAnotherUser_ShouldThrowException() {
+        // Arrange
+        User otherUser = new User("Jane Doe", "janedoe", "jane@example.com", "0987654321", "janedoe.com");
+        otherUser.setId(2L);
+        UserRequest request = new UserRequest("John Doe", "janedoe", "john@example.com", "1234567890", "johndoe.com");
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.findByUsername("janedoe")).thenReturn(Optional.of(otherUser));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> userService.updateUser(1L, request));
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void updateUser_WithOwnUsername_ShouldNotConflict() {
+        // Arrange
+        UserRequest request = new UserRequest("John Doe", "JohnDoe", "john@example.com", "1234567890", "johndoe.com");
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.findByUsername("JohnDoe")).thenReturn(Optional.of(testUser));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        UserResponse result = userService.updateUser(1L, request);
+
+        // Assert
+        assertEquals("JohnDoe", result.getUsername());
+    }
+
+    @Test
+    void updateUser_ShouldSaveChangedCopyAndLeaveSnapshotUntouched() {
+        // Arrange
+        testUser.freeze();
+        UserRequest request = new UserRequest("John Updated", "johndoe", "john@example.com", "1234567890", "johndoe.com");
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        UserResponse result = userService.updateUser(1L, request);
+
+        // Assert
+        assertEquals("John Updated", result.getName());
+        assertEquals("John Doe", testUser.getName());
+    }
+
+    @Test
+    void updateUser_WhenConcurrentWriteWins_ShouldRetryOnFreshSnapshot() {
+        // Arrange
+        UserRequest request = new UserRequest("John Updated", "johndoe", "john@example.com", "1234567890", "johndoe.com");
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.save(any(User.class)))
+                .thenThrow(new ConcurrentUpdateException("User 1 was modified concurrently"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        UserResponse result = userService.updateUser(1L, request);
+
+        // Assert
+        assertEquals("John Updated", result.getName());
+        verify(userRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void updateUser_WhenEveryAttemptConflicts_ShouldThrowConflict() {
+        // Arrange
+        UserRequest request = new UserRequest("John Updated", "johndoe", "john@example.com", "1234567890", "johndoe.com");
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.save(any(User.class))).thenThrow(new ConcurrentUpdateException("User 1 was modified concurrently"));
+
+        // Act & Assert
+        assertThrows(ConcurrentUpdateException.class, () -> userService.updateUser(1L, request));
+    }
+
     @Test
     void updateUser_WhenUserDoesNotExist_ShouldThrowException() {
         // Arrange
@@ -138,6 +375,54 @@ class UserServiceTest {
         verify(userRepository, never()).save(any(User.class));
     }
 
+    @Test
+    void updateUser_WithCurrentIfMatch_ShouldUpdate() {
+        // Arrange
+        testUser.setVersion(3L);
+        UserRequest request = new UserRequest("John Updated", "johndoe", "john@example.com", "1234567890", "johndoe.com");
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        String etag = userService.getUserETag(1L);
+
+        // Act
+        UserResponse result = userService.updateUser(1L, request, etag);
+
+        // Assert
+        assertEquals("John Updated", result.getName());
+    }
+
+    @Test
+    void updateUser_WithStaleIfMatch_ShouldThrowPreconditionFailed() {
+        // Arrange
+        testUser.setUpdatedAt(LocalDateTime.of(2024, 1, 1, 12, 0));
+        testUser.setVersion(3L);
+        UserRequest request = new UserRequest("John Updated", "johndoe", "john@example.com", "1234567890", "johndoe.com");
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        String staleETag = userService.getUserETag(1L);
+        // Saved again within the same clock tick: only the version tells the copies apart
+        testUser.setVersion(4L);
+
+        // Act & Assert
+        assertThrows(PreconditionFailedException.class, () -> userService.updateUser(1L, request, staleETag));
+        assertThrows(PreconditionFailedException.class, () -> userService.updateUser(1L, request, "W/" + staleETag));
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void getUsersETag_ShouldChangeWithRepositoryVersion() {
+        // Arrange
+        when(userRepository.modificationVersion()).thenReturn(1L, 1L, 2L);
+
+        // Act
+        String first = userService.getUsersETag();
+        String unchanged = userService.getUsersETag();
+        String changed = userService.getUsersETag();
+
+        // Assert
+        assertEquals(first, unchanged);
+        assertNotEquals(first, changed);
+    }
+
     @Test
     void deleteUser_WhenUserExists_ShouldDeleteUser() {
         // Arrange
@@ -160,4 +445,87 @@ class UserServiceTest {
         assertThrows(ResourceNotFoundException.class, () -> userService.deleteUser(999L));
         verify(userRepository, never()).deleteById(anyLong());
     }
+
+    @Test
+    void createUsers_ShouldInsertAcceptedUsersInOneCallAndReportPerItemResults() {
+        // Arrange
+        List<UserRequest> requests = Arrays.asList(
+                new UserRequest("John Doe", "johndoe", "john@example.com", null, null),
+                new UserRequest("", "blank", "blank@example.com", null, null),
+                new UserRequest("John Again", "JOHNDOE", "again@example.com", null, null),
+                new UserRequest("Taken", "taken", "taken@example.com", null, null),
+                new UserRequest("Jane Doe", "janedoe", "jane@example.com", null, null)
+        );
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.empty());
+        when(userRepository.findByEmail("taken@example.com")).thenReturn(Optional.of(testUser));
+        doAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            BiConsumer<User, IllegalArgumentException> onConflict = invocation.getArgument(2);
+            users.get(0).setId(10L);
+            // Claimed by a concurrent writer after the service's checks
+            onConflict.accept(users.get(1), new IllegalArgumentException("Username 'janedoe' already exists"));
+            return null;
+        }).when(userRepository).insertAll(anyList(), any(LocalDateTime.class), any());
+
+        // Act
+        BatchResult<UserResponse> result = userService.createUsers(requests);
+
+        // Assert
+        assertEquals(5, result.getTotal());
+        assertEquals(1, result.getSucceeded());
+        assertEquals(4, result.getFailed());
+        assertEquals(10L, result.getResults().get(0).getData().getId());
+        assertEquals("name: Name is required", result.getResults().get(1).getError());
+        assertTrue(result.getResults().get(2).getError().contains("item 0"));
+        assertEquals("Email 'taken@example.com' already exists", result.getResults().get(3).getError());
+        assertEquals("Username 'janedoe' already exists", result.getResults().get(4).getError());
+        verify(userRepository, times(1)).insertAll(anyList(), any(LocalDateTime.class), any());
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void createUsers_WithEmptyBatch_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> userService.createUsers(List.of()));
+    }
+
+    @Test
+    void updateUsers_WithDuplicateIdInBatch_ShouldRejectLaterItem() {
+        // Arrange
+        List<UserUpdateRequest> requests = Arrays.asList(
+                new UserUpdateRequest(1L, "John Updated", "johndoe", "john@example.com", null, null),
+                new UserUpdateRequest(1L, "John Again", "johndoe", "john@example.com", null, null),
+                new UserUpdateRequest(999L, "Missing", "missing", "missing@example.com", null, null)
+        );
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.findById(999L)).thenReturn(Optional.empty());
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        BatchResult<UserResponse> result = userService.updateUsers(requests);
+
+        // Assert
+        assertEquals(1, result.getSucceeded());
+        assertEquals("John Updated", result.getResults().get(0).getData().getName());
+        assertFalse(result.getResults().get(1).isSuccess());
+        assertFalse(result.getResults().get(2).isSuccess());
+        verify(userRepository, times(1)).save(any(User.class));
+    }
+
+    @Test
+    void deleteUsers_ShouldReportMissingAndDuplicateIds() {
+        // Arrange
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.existsById(999L)).thenReturn(false);
+
+        // Act
+        BatchResult<Long> result = userService.deleteUsers(Arrays.asList(1L, 1L, 999L));
+
+        // Assert
+        assertEquals(1, result.getSucceeded());
+        assertEquals(1L, result.getResults().get(0).getData());
+        assertFalse(result.getResults().get(1).isSuccess());
+        assertFalse(result.getResults().get(2).isSuccess());
+        verify(userRepository, times(1)).deleteById(1L);
+    }
 }